@@ -0,0 +1,109 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.math.Vector2;
+import com.mainsh.AgentSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 60 Hz frame of agents patrolling looping paths, stepped by AgentSystem against one object per agent
+ * moved with Vector2 maths the way the enemy screen used to, plus handing every agent a new path.
+ * gc.alloc.rate.norm from the gc profiler should read 0 for both AgentSystem benchmarks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AgentUpdateBenchmark {
+    private static final float DELTA = 1 / 60f;
+
+    @Param({"1000", "10000"})
+    public int agentCount;
+
+    @Param({"16"})
+    public int waypointCount;
+
+    private AgentSystem agents;
+    private ObjectAgent[] objectAgents;
+    private final FloatArray replanPoints = new FloatArray();
+
+    /**
+     * The per-object layout the system replaces: its own position vector and list of waypoint vectors
+     */
+    private static final class ObjectAgent {
+        final Vector2 position = new Vector2();
+        Vector2[] waypoints;
+        int cursor;
+        float speed;
+
+        void update(float delta) {
+            Vector2 target = waypoints[cursor];
+            Vector2 direction = new Vector2(target.x - position.x, target.y - position.y);
+            float distance = direction.len();
+            if (distance < 2.0f) {
+                cursor = (cursor + 1) % waypoints.length;
+            } else {
+                position.add(direction.nor().scl(Math.min(speed * delta, distance)));
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(465L);
+        agents = new AgentSystem(agentCount, 2.0f);
+        objectAgents = new ObjectAgent[agentCount];
+        FloatArray points = new FloatArray();
+        for (int i = 0; i < agentCount; i++) {
+            points.clear();
+            for (int j = 0; j < waypointCount; j++) {
+                points.add(random.nextFloat() * 1000, random.nextFloat() * 1000);
+            }
+            float speed = 60 + random.nextFloat() * 120;
+
+            int agent = agents.add(points.get(0), points.get(1), speed);
+            agents.setPath(agent, points, true);
+
+            ObjectAgent objectAgent = new ObjectAgent();
+            objectAgent.position.set(points.get(0), points.get(1));
+            objectAgent.speed = speed;
+            objectAgent.waypoints = new Vector2[waypointCount];
+            for (int j = 0; j < waypointCount; j++) {
+                objectAgent.waypoints[j] = new Vector2(points.get(2 * j), points.get(2 * j + 1));
+            }
+            objectAgents[i] = objectAgent;
+        }
+        replanPoints.addAll(points);
+    }
+
+    @Benchmark
+    public AgentSystem structureOfArrays() {
+        agents.update(DELTA);
+        return agents;
+    }
+
+    @Benchmark
+    public ObjectAgent[] objectPerAgent() {
+        for (ObjectAgent agent : objectAgents) {
+            agent.update(DELTA);
+        }
+        return objectAgents;
+    }
+
+    @Benchmark
+    public AgentSystem replanAll() {
+        for (int agent = 0; agent < agentCount; agent++) {
+            agents.setPath(agent, replanPoints, true);
+        }
+        return agents;
+    }
+}
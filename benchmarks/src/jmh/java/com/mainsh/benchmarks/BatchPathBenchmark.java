@@ -0,0 +1,73 @@
+package com.mainsh.benchmarks;
+
+import com.mainsh.BatchPathfinder;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.PathRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches of random queries answered by BatchPathfinder; the score is paths per second
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchPathBenchmark {
+    private static final int BATCH = 256;
+
+    @Param({"256"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM"})
+    public BenchmarkGrids.Layout layout;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private BatchPathfinder pathfinder;
+    private List<PathRequest> requests;
+
+    @Setup
+    public void setup() {
+        GridWorld world = BenchmarkGrids.create(layout, size, GridStorage.FLAT);
+        pathfinder = new BatchPathfinder(world, threads);
+
+        Random random = new Random(465L);
+        requests = new ArrayList<PathRequest>();
+        while (requests.size() < BATCH) {
+            int startX = random.nextInt(size);
+            int startY = random.nextInt(size);
+            int goalX = random.nextInt(size);
+            int goalY = random.nextInt(size);
+            if (world.isWalkable(startX, startY) && world.isWalkable(goalX, goalY)) {
+                requests.add(new PathRequest(startX, startY, goalX, goalY));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pathfinder.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<PathRequest> findPaths() {
+        pathfinder.findPaths(requests);
+        return requests;
+    }
+}
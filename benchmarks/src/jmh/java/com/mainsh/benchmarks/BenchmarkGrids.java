@@ -0,0 +1,108 @@
+package com.mainsh.benchmarks;
+
+import com.mainsh.Connectivity;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+
+import java.util.Random;
+
+/**
+ * Grid layouts shared by the benchmarks. Start is always (1, 1) and goal (size - 2, size - 2).
+ */
+public final class BenchmarkGrids {
+    public enum Layout {
+        // No obstacles at all
+        OPEN,
+        // The wall-with-openings pattern from setupObstacles(), scaled to the grid size
+        MAZE,
+        // 25% of cells blocked at random (fixed seed)
+        RANDOM,
+        // No obstacles, but patches of costlier terrain cover about half the grid
+        TERRAIN
+    }
+
+    private static final long SEED = 465L;
+
+    private BenchmarkGrids() {
+    }
+
+    public static GridWorld create(Layout layout, int size, GridStorage storage) {
+        return create(layout, size, storage, Connectivity.FOUR);
+    }
+
+    public static GridWorld create(Layout layout, int size, GridStorage storage, Connectivity connectivity) {
+        GridWorld world = new GridWorld(size, size, storage, connectivity);
+        switch (layout) {
+            case MAZE:
+                addMaze(world, size);
+                break;
+            case RANDOM:
+                addRandomObstacles(world, size, size * size / 4);
+                break;
+            case TERRAIN:
+                addTerrain(world, size);
+                break;
+            default:
+                break;
+        }
+        return world;
+    }
+
+    public static int start(int size) {
+        return 1;
+    }
+
+    public static int goal(int size) {
+        return size - 2;
+    }
+
+    /**
+     * Repeated horizontal walls with alternating gaps, crossed by one vertical wall with a door per band
+     */
+    private static void addMaze(GridWorld world, int size) {
+        int spacing = Math.max(4, size / 8);
+        boolean gapOnLeft = true;
+        for (int y = spacing; y < size - 1; y += spacing) {
+            for (int x = 0; x < size; x++) {
+                world.setWalkable(x, y, false);
+            }
+            world.setWalkable(gapOnLeft ? 1 : size - 2, y, true);
+            gapOnLeft = !gapOnLeft;
+        }
+
+        int middle = size / 2;
+        for (int y = 0; y < size; y++) {
+            if (y % spacing != spacing / 2) {
+                world.setWalkable(middle, y, false);
+            }
+        }
+    }
+
+    /**
+     * Square patches costing 2 to 8, each about a sixteenth of the grid across
+     */
+    private static void addTerrain(GridWorld world, int size) {
+        Random random = new Random(SEED);
+        int patch = Math.max(2, size / 16);
+        for (int i = 0; i < 128; i++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            world.paintCost(x, y, x + patch - 1, y + patch - 1, 2 + random.nextInt(7));
+        }
+    }
+
+    private static void addRandomObstacles(GridWorld world, int size, int count) {
+        Random random = new Random(SEED);
+        int start = start(size);
+        int goal = goal(size);
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+
+            // Don't block start or goal
+            if ((x != start || y != start) && (x != goal || y != goal)) {
+                world.setWalkable(x, y, false);
+            }
+        }
+    }
+}
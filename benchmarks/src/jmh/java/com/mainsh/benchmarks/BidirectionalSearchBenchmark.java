@@ -0,0 +1,80 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.Connectivity;
+import com.mainsh.GridPathFinder;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.PathAlgorithm;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corner-to-corner queries with forward-only A* against bidirectional A*: latency as the score,
+ * cells expanded per query as the "expanded" secondary result
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BidirectionalSearchBenchmark {
+    @Param({"256", "1024"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM", "TERRAIN"})
+    public BenchmarkGrids.Layout layout;
+
+    @Param({"FOUR", "EIGHT"})
+    public Connectivity connectivity;
+
+    @Param({"INDEXED_ASTAR", "BIDIRECTIONAL_ASTAR"})
+    public PathAlgorithm algorithm;
+
+    private GridPathFinder search;
+    private final IntArray path = new IntArray();
+    private int start;
+    private int goal;
+
+    /**
+     * Cells expanded by the last query, reported next to the latency. The query never changes, so the
+     * last value stands for every query of the iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Expansions {
+        public long expanded;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expanded = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        GridWorld world = BenchmarkGrids.create(layout, size, GridStorage.FLAT, connectivity);
+        int from = BenchmarkGrids.start(size);
+        int to = BenchmarkGrids.goal(size);
+        world.setWalkable(from, from, true);
+        world.setWalkable(to, to, true);
+        start = world.toIndex(from, from);
+        goal = world.toIndex(to, to);
+        search = world.getPathFinder(algorithm);
+    }
+
+    @Benchmark
+    public IntArray findPath(Expansions expansions) {
+        search.findPath(start, goal, path);
+        expansions.expanded = search.getExpandedCount();
+        return path;
+    }
+}
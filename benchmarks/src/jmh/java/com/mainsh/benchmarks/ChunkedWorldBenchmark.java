@@ -0,0 +1,102 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.ChunkSource;
+import com.mainsh.ChunkedAStar;
+import com.mainsh.ChunkedGridWorld;
+import com.mainsh.Connectivity;
+import com.mainsh.GridAStar;
+import com.mainsh.GridChunk;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A diagonal query across a generated world: A* on a fixed GridWorld holding the whole area, against
+ * ChunkedAStar on a ChunkedGridWorld with its chunks already loaded ("warm") and with every chunk
+ * generated during the query ("cold")
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkedWorldBenchmark {
+    @Param({"256", "1024"})
+    public int distance;
+
+    // About one cell in eight blocked, the same everywhere for a given coordinate
+    private static final ChunkSource SOURCE = (chunkX, chunkY, chunk) -> {
+        for (int y = 0; y < GridChunk.SIZE; y++) {
+            for (int x = 0; x < GridChunk.SIZE; x++) {
+                chunk.setWalkable(x, y, isOpen((chunkX << GridChunk.SHIFT) + x, (chunkY << GridChunk.SHIFT) + y));
+            }
+        }
+    };
+
+    private GridWorld world;
+    private GridAStar gridSearch;
+    private ChunkedGridWorld chunkedWorld;
+    private ChunkedAStar chunkedSearch;
+    private final IntArray path = new IntArray();
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        world = new GridWorld(distance + 2, distance + 2, GridStorage.FLAT, Connectivity.EIGHT);
+        for (int y = 0; y < distance + 2; y++) {
+            for (int x = 0; x < distance + 2; x++) {
+                world.setWalkable(x, y, isOpen(x, y));
+            }
+        }
+        start = 1;
+        goal = distance;
+        world.setWalkable(start, start, true);
+        world.setWalkable(goal, goal, true);
+        gridSearch = new GridAStar(world);
+
+        chunkedWorld = new ChunkedGridWorld(SOURCE, Connectivity.EIGHT, 256);
+        chunkedSearch = new ChunkedAStar(chunkedWorld, 256);
+    }
+
+    private static boolean isOpen(int x, int y) {
+        if (x == y) {
+            // Keep the diagonal clear so start and goal are always connected
+            return true;
+        }
+        int hash = x * 73856093 ^ y * 19349663;
+        hash ^= hash >>> 13;
+        hash *= 0x5bd1e995;
+        hash ^= hash >>> 15;
+        return (hash & 7) != 0;
+    }
+
+    @Benchmark
+    public IntArray grid() {
+        gridSearch.findPath(world.toIndex(start, start), world.toIndex(goal, goal), path);
+        return path;
+    }
+
+    @Benchmark
+    public IntArray chunkedWarm() {
+        chunkedSearch.findPath(start, start, goal, goal, path);
+        return path;
+    }
+
+    @Benchmark
+    public IntArray chunkedCold() {
+        // Evict everything, so each chunk the search reaches is generated again
+        chunkedWorld.setMaxLoadedChunks(1);
+        chunkedWorld.setMaxLoadedChunks(256);
+        chunkedSearch.findPath(start, start, goal, goal, path);
+        return path;
+    }
+}
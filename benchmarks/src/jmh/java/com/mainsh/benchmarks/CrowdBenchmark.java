@@ -0,0 +1,110 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.AgentSpatialHash;
+import com.mainsh.AgentSystem;
+import com.mainsh.SeparationSteering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 60 Hz crowd frame: move every agent, rebuild the spatial hash and push overlapping agents apart.
+ * The target is 10,000 agents within 2 ms on one core. allPairsSeparation is the same push with every
+ * pair checked, for comparison, and nearest is a k-nearest query per agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CrowdBenchmark {
+    private static final float DELTA = 1 / 60f;
+    private static final float CELL_SIZE = 32;
+    private static final float RADIUS = 12;
+
+    @Param({"1000", "10000"})
+    public int agentCount;
+
+    // Agents per CELL_SIZE cell on average
+    @Param({"1", "4"})
+    public int density;
+
+    private AgentSystem agents;
+    private AgentSpatialHash hash;
+    private SeparationSteering separation;
+    private final IntArray neighbours = new IntArray();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(465L);
+        float side = (float) Math.sqrt((double) agentCount / density) * CELL_SIZE;
+        agents = new AgentSystem(agentCount, 2.0f);
+        FloatArray points = new FloatArray();
+        for (int i = 0; i < agentCount; i++) {
+            points.clear();
+            for (int j = 0; j < 8; j++) {
+                points.add(random.nextFloat() * side, random.nextFloat() * side);
+            }
+            int agent = agents.add(points.get(0), points.get(1), 60 + random.nextFloat() * 120);
+            agents.setPath(agent, points, true);
+        }
+        hash = new AgentSpatialHash(CELL_SIZE);
+        separation = new SeparationSteering(RADIUS, 60);
+        hash.build(agents);
+    }
+
+    @Benchmark
+    public AgentSystem step() {
+        agents.update(DELTA);
+        hash.build(agents);
+        separation.apply(agents, hash, DELTA);
+        return agents;
+    }
+
+    @Benchmark
+    public AgentSpatialHash build() {
+        hash.build(agents);
+        return hash;
+    }
+
+    @Benchmark
+    public IntArray nearest() {
+        for (int agent = 0; agent < agentCount; agent++) {
+            hash.nearest(agents.getX(agent), agents.getY(agent), 4, CELL_SIZE, neighbours);
+        }
+        return neighbours;
+    }
+
+    @Benchmark
+    public float allPairsSeparation() {
+        float total = 0;
+        float radiusSquared = RADIUS * RADIUS;
+        for (int i = 0; i < agentCount; i++) {
+            float x = agents.getX(i);
+            float y = agents.getY(i);
+            float pushX = 0;
+            float pushY = 0;
+            for (int j = 0; j < agentCount; j++) {
+                float dx = x - agents.getX(j);
+                float dy = y - agents.getY(j);
+                float distanceSquared = dx * dx + dy * dy;
+                if (i != j && distanceSquared < radiusSquared && distanceSquared > 0) {
+                    float distance = (float) Math.sqrt(distanceSquared);
+                    float weight = (RADIUS - distance) / (RADIUS * distance);
+                    pushX += dx * weight;
+                    pushY += dy * weight;
+                }
+            }
+            total += pushX + pushY;
+        }
+        return total;
+    }
+}
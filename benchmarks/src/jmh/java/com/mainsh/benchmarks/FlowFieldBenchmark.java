@@ -0,0 +1,95 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.FlowField;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.PathAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A crowd of agents chasing one goal that moves every operation: a flow field rebuilt once and read
+ * by every agent, against one findPath call per agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FlowFieldBenchmark {
+    @Param({"64", "256"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM"})
+    public BenchmarkGrids.Layout layout;
+
+    @Param({"1000"})
+    public int agents;
+
+    private GridWorld world;
+    private FlowField flowField;
+    private final IntArray path = new IntArray();
+
+    // Agent cells, and the two goals the chase alternates between
+    private int[] agentCells;
+    private int[] goals;
+    private int goalIndex;
+
+    @Setup
+    public void setup() {
+        world = BenchmarkGrids.create(layout, size, GridStorage.FLAT);
+        flowField = new FlowField(world);
+        world.addListener(flowField);
+
+        int start = BenchmarkGrids.start(size);
+        int goal = BenchmarkGrids.goal(size);
+        goals = new int[] {world.toIndex(goal, goal), world.toIndex(start, goal)};
+        world.setWalkable(start, goal, true);
+
+        Random random = new Random(465L);
+        agentCells = new int[agents];
+        for (int i = 0; i < agents; ) {
+            int cell = random.nextInt(size * size);
+            if (world.isWalkable(cell)) {
+                agentCells[i++] = cell;
+            }
+        }
+    }
+
+    private int nextGoal() {
+        goalIndex ^= 1;
+        return goals[goalIndex];
+    }
+
+    @Benchmark
+    public int flowField() {
+        flowField.setGoal(nextGoal());
+        int steps = 0;
+        for (int cell : agentCells) {
+            steps += flowField.getNextCell(cell);
+        }
+        return steps;
+    }
+
+    @Benchmark
+    public int findPathPerAgent() {
+        int goal = nextGoal();
+        int goalX = world.getX(goal);
+        int goalY = world.getY(goal);
+        int steps = 0;
+        for (int cell : agentCells) {
+            if (world.findPath(world.getX(cell), world.getY(cell), goalX, goalY, PathAlgorithm.INDEXED_ASTAR, path)) {
+                steps += path.get(path.size > 1 ? 1 : 0);
+            }
+        }
+        return steps;
+    }
+}
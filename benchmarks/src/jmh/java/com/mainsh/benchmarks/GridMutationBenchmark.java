@@ -0,0 +1,70 @@
+package com.mainsh.benchmarks;
+
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Obstacle toggling and grid construction cost
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GridMutationBenchmark {
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"NODES", "FLAT"})
+    public GridStorage storage;
+
+    private GridWorld world;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        world = new GridWorld(size, size, storage);
+        cursor = 0;
+    }
+
+    /**
+     * Block and reopen one cell, walking a stride over the grid so edits don't stay in cache
+     */
+    @Benchmark
+    public GridWorld toggleObstacle() {
+        cursor = (cursor + 7919) % (size * size);
+        int x = cursor % size;
+        int y = cursor / size;
+        world.setWalkable(x, y, false);
+        world.setWalkable(x, y, true);
+        return world;
+    }
+
+    /**
+     * Block and reopen a 16x16 room as two batched edits
+     */
+    @Benchmark
+    public GridWorld fillRoom() {
+        cursor = (cursor + 7919) % (size * size);
+        int x = cursor % size;
+        int y = cursor / size;
+        world.fillWalkable(x, y, x + 15, y + 15, false);
+        world.fillWalkable(x, y, x + 15, y + 15, true);
+        return world;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GridWorld construct() {
+        return new GridWorld(size, size, storage);
+    }
+}
@@ -0,0 +1,59 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.Connectivity;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.PathAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PathfindingBenchmark queries on the index-based engines, writing into a reused IntArray
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GridSearchBenchmark {
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM", "TERRAIN"})
+    public BenchmarkGrids.Layout layout;
+
+    @Param({"FOUR", "EIGHT", "EIGHT_NO_CORNER_CUTTING"})
+    public Connectivity connectivity;
+
+    @Param({"INDEXED_ASTAR", "JPS", "JPS_PLUS", "HPA"})
+    public PathAlgorithm algorithm;
+
+    private GridWorld world;
+    private IntArray path;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        world = BenchmarkGrids.create(layout, size, GridStorage.FLAT, connectivity);
+        path = new IntArray();
+        start = BenchmarkGrids.start(size);
+        goal = BenchmarkGrids.goal(size);
+
+        // Build engines and precomputed tables outside the measurement
+        world.getPathFinder(algorithm);
+    }
+
+    @Benchmark
+    public IntArray findPath() {
+        world.findPath(start, start, goal, goal, algorithm, path);
+        return path;
+    }
+}
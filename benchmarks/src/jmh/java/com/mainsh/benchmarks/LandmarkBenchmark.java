@@ -0,0 +1,77 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.mainsh.GridNode;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.LandmarkHeuristic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gdx A* guided by the plain distance against the ALT landmark heuristic, and the cost of building the tables
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LandmarkBenchmark {
+    @Param({"64", "256"})
+    public int size;
+
+    @Param({"MAZE", "RANDOM", "TERRAIN"})
+    public BenchmarkGrids.Layout layout;
+
+    @Param({"8"})
+    public int landmarks;
+
+    private GridWorld world;
+    private Heuristic<GridNode> distance;
+    private LandmarkHeuristic landmarkHeuristic;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        world = BenchmarkGrids.create(layout, size, GridStorage.NODES);
+        start = BenchmarkGrids.start(size);
+        goal = BenchmarkGrids.goal(size);
+        world.setWalkable(start, start, true);
+        world.setWalkable(goal, goal, true);
+
+        distance = world.getHeuristic();
+        landmarkHeuristic = LandmarkHeuristic.compute(world, landmarks);
+    }
+
+    @Benchmark
+    public GraphPath<GridNode> plainDistance() {
+        world.setHeuristic(distance);
+        return world.findPath(start, start, goal, goal);
+    }
+
+    @Benchmark
+    public GraphPath<GridNode> landmarks() {
+        world.setHeuristic(landmarkHeuristic);
+        return world.findPath(start, start, goal, goal);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public LandmarkHeuristic buildSerial() {
+        return LandmarkHeuristic.compute(world, landmarks, 1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public LandmarkHeuristic buildParallel() {
+        return LandmarkHeuristic.compute(world, landmarks);
+    }
+}
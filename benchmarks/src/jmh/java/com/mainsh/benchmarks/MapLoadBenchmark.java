@@ -0,0 +1,64 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.mainsh.GridMapFile;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a large grid cell by cell against loading the same grid from a memory-mapped map file
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapLoadBenchmark {
+    @Param({"1024", "4000"})
+    public int size;
+
+    @Param({"RANDOM", "TERRAIN"})
+    public BenchmarkGrids.Layout layout;
+
+    private GridWorld world;
+    private FileHandle file;
+
+    @Setup
+    public void setup() throws IOException {
+        world = BenchmarkGrids.create(layout, size, GridStorage.FLAT);
+        file = new FileHandle(File.createTempFile("map", ".lsm"));
+        GridMapFile.save(world, file);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public GridWorld build() {
+        return BenchmarkGrids.create(layout, size, GridStorage.FLAT);
+    }
+
+    @Benchmark
+    public GridWorld load() {
+        return GridMapFile.load(file);
+    }
+
+    @Benchmark
+    public FileHandle save() {
+        GridMapFile.save(world, file);
+        return file;
+    }
+}
@@ -0,0 +1,101 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.PathCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One re-path tick of a group of enemies bunched into a few cells, all chasing the cursor.
+ * Every few ticks the cursor moves and a random cell is toggled, as the enemy screen does
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathCacheBenchmark {
+    private static final int ENEMIES = 100;
+    private static final int ENEMY_CELLS = 8;
+    private static final int TICKS_PER_CHANGE = 8;
+
+    @Param({"64"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM"})
+    public BenchmarkGrids.Layout layout;
+
+    private GridWorld world;
+    private PathCache cache;
+    private final IntArray path = new IntArray();
+    private final Random random = new Random(465L);
+
+    private int[] enemyCells;
+    private int goalX;
+    private int goalY;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        world = BenchmarkGrids.create(layout, size, GridStorage.FLAT);
+        cache = new PathCache(world, 256);
+
+        int[] cells = new int[ENEMY_CELLS];
+        for (int i = 0; i < ENEMY_CELLS; ) {
+            int cell = random.nextInt(size * size);
+            if (world.isWalkable(cell)) {
+                cells[i++] = cell;
+            }
+        }
+        enemyCells = new int[ENEMIES];
+        for (int i = 0; i < ENEMIES; i++) {
+            enemyCells[i] = cells[i % ENEMY_CELLS];
+        }
+        goalX = goalY = BenchmarkGrids.goal(size);
+    }
+
+    private void advance() {
+        if (++tick % TICKS_PER_CHANGE != 0) {
+            return;
+        }
+        goalX = Math.max(0, Math.min(size - 1, goalX + random.nextInt(3) - 1));
+        goalY = Math.max(0, Math.min(size - 1, goalY + random.nextInt(3) - 1));
+
+        int x = random.nextInt(size);
+        int y = random.nextInt(size);
+        world.setWalkable(x, y, !world.isWalkable(x, y));
+    }
+
+    @Benchmark
+    public int cached() {
+        advance();
+        int found = 0;
+        for (int cell : enemyCells) {
+            if (cache.findPath(world.getX(cell), world.getY(cell), goalX, goalY, path)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int uncached() {
+        advance();
+        int found = 0;
+        for (int cell : enemyCells) {
+            if (world.findPath(world.getX(cell), world.getY(cell), goalX, goalY, path)) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
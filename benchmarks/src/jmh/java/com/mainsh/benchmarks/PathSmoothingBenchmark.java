@@ -0,0 +1,79 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.Connectivity;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.PathAlgorithm;
+import com.mainsh.PathSmoother;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of string pulling a corner-to-corner path, with the waypoints before and after as the "cells" and
+ * "waypoints" secondary results
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathSmoothingBenchmark {
+    @Param({"64", "256"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM"})
+    public BenchmarkGrids.Layout layout;
+
+    @Param({"FOUR", "EIGHT"})
+    public Connectivity connectivity;
+
+    private PathSmoother smoother;
+    private final IntArray path = new IntArray();
+    private final FloatArray waypoints = new FloatArray();
+
+    /**
+     * Length of the path before and after smoothing; the path never changes, so the last value stands for
+     * every call of the iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Waypoints {
+        public long cells;
+        public long waypoints;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            cells = 0;
+            waypoints = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        GridWorld world = BenchmarkGrids.create(layout, size, GridStorage.FLAT, connectivity);
+        int start = BenchmarkGrids.start(size);
+        int goal = BenchmarkGrids.goal(size);
+        world.setWalkable(start, start, true);
+        world.setWalkable(goal, goal, true);
+        world.findPath(start, start, goal, goal, PathAlgorithm.INDEXED_ASTAR, path);
+        smoother = new PathSmoother(world);
+    }
+
+    @Benchmark
+    public FloatArray smooth(Waypoints counters) {
+        smoother.smooth(path, 1, waypoints);
+        counters.cells = path.size;
+        counters.waypoints = waypoints.size / 2;
+        return waypoints;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.mainsh.GridNode;
+import com.mainsh.Connectivity;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corner-to-corner path queries on open, maze-like and random-obstacle grids through the gdx-ai pathfinder.
+ * GridSearchBenchmark runs the same queries on the index-based engines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PathfindingBenchmark {
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM"})
+    public BenchmarkGrids.Layout layout;
+
+    @Param({"FOUR", "EIGHT", "EIGHT_NO_CORNER_CUTTING"})
+    public Connectivity connectivity;
+
+    @Param({"NODES", "FLAT"})
+    public GridStorage storage;
+
+    private GridWorld world;
+    private int start;
+    private int goal;
+
+    @Setup
+    public void setup() {
+        world = BenchmarkGrids.create(layout, size, storage, connectivity);
+        start = BenchmarkGrids.start(size);
+        goal = BenchmarkGrids.goal(size);
+    }
+
+    /**
+     * gdx-ai IndexedAStarPathFinder through the IndexedGraph API
+     */
+    @Benchmark
+    public GraphPath<GridNode> findPath() {
+        return world.findPath(start, start, goal, goal);
+    }
+}
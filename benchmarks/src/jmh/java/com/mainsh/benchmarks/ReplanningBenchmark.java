@@ -0,0 +1,120 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.GridPathFinder;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.MovingTargetPlanner;
+import com.mainsh.PathAlgorithm;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An enemy chasing a cursor that wanders one cell per re-plan, with the enemy stepping along its path
+ * every other re-plan, restarting from opposite corners once it closes in. Compares the incremental MovingTargetPlanner with a fresh GridAStar search.
+ * The expanded/replans counters give nodes expanded per re-plan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReplanningBenchmark {
+    @Param({"64", "256"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM"})
+    public BenchmarkGrids.Layout layout;
+
+    private GridWorld world;
+    private GridPathFinder fullSearch;
+    private MovingTargetPlanner planner;
+    private IntArray path;
+    private Random random;
+    private int agent;
+    private int target;
+    private int step;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long expanded;
+        public long replans;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expanded = 0;
+            replans = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        world = BenchmarkGrids.create(layout, size, GridStorage.FLAT);
+        fullSearch = world.getPathFinder(PathAlgorithm.INDEXED_ASTAR);
+        planner = new MovingTargetPlanner(world);
+        world.addListener(planner);
+        path = new IntArray();
+        random = new Random(465L);
+        step = 0;
+        resetChase();
+    }
+
+    private void resetChase() {
+        agent = world.toIndex(BenchmarkGrids.start(size), BenchmarkGrids.start(size));
+        target = world.toIndex(BenchmarkGrids.goal(size), BenchmarkGrids.goal(size));
+    }
+
+    @Benchmark
+    public IntArray incremental(Counters counters) {
+        advance();
+        planner.findPath(agent, target, path);
+        counters.expanded += planner.getExpandedCount();
+        counters.replans++;
+        return path;
+    }
+
+    @Benchmark
+    public IntArray fullAStar(Counters counters) {
+        advance();
+        fullSearch.findPath(agent, target, path);
+        counters.expanded += fullSearch.getExpandedCount();
+        counters.replans++;
+        return path;
+    }
+
+    /**
+     * Move the cursor to a random walkable neighbour, and the enemy one cell along the last path.
+     * Once the enemy has closed in, both go back to opposite corners to keep the queries long
+     */
+    private void advance() {
+        if (path.size > 0 && path.size < size / 2) {
+            resetChase();
+            path.clear();
+        }
+
+        int x = world.getX(target);
+        int y = world.getY(target);
+        switch (random.nextInt(4)) {
+            case 0: y++; break;
+            case 1: x++; break;
+            case 2: y--; break;
+            default: x--; break;
+        }
+        if (world.isWalkable(x, y)) {
+            target = world.toIndex(x, y);
+        }
+        if ((++step & 1) == 0 && path.size > 1) {
+            agent = path.get(1);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mainsh.benchmarks;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.mainsh.GridPathFinder;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+import com.mainsh.PathAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A goal walled in on all sides: findPath rejected by the region index, against the search that has to
+ * exhaust the start's region first. toggleWall measures what keeping the index current costs an edit
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnreachableGoalBenchmark {
+    @Param({"64", "256"})
+    public int size;
+
+    @Param({"OPEN", "MAZE", "RANDOM"})
+    public BenchmarkGrids.Layout layout;
+
+    private GridWorld world;
+    private GridPathFinder search;
+    private final IntArray path = new IntArray();
+    private int start;
+    private int goal;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        world = BenchmarkGrids.create(layout, size, GridStorage.FLAT);
+        start = BenchmarkGrids.start(size);
+        goal = BenchmarkGrids.goal(size);
+        world.setWalkable(start, start, true);
+        world.setWalkable(goal, goal, true);
+        for (int y = goal - 1; y <= goal + 1; y++) {
+            for (int x = goal - 1; x <= goal + 1; x++) {
+                if (x != goal || y != goal) {
+                    world.setWalkable(x, y, false);
+                }
+            }
+        }
+        search = world.getPathFinder(PathAlgorithm.INDEXED_ASTAR);
+        world.getRegionIndex();
+    }
+
+    @Benchmark
+    public boolean rejected() {
+        return world.findPath(start, start, goal, goal, PathAlgorithm.INDEXED_ASTAR, path);
+    }
+
+    @Benchmark
+    public boolean searched() {
+        return search.findPath(world.toIndex(start, start), world.toIndex(goal, goal), path);
+    }
+
+    /**
+     * Close and reopen one cell, walking a stride over the grid
+     */
+    @Benchmark
+    public int toggleWall() {
+        cursor = (cursor + 7919) % (size * size);
+        int x = cursor % size;
+        int y = cursor / size;
+        boolean walkable = world.isWalkable(x, y);
+        world.setWalkable(x, y, !walkable);
+        world.setWalkable(x, y, walkable);
+        return world.getRegionIndex().getUpdatedCount();
+    }
+}
@@ -0,0 +1,344 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Uniform spatial index over agent positions for neighbour queries. Positions are bucketed by the square
+ * cell they fall in. While the agents' bounding box has no more than a few cells per agent, each cell of
+ * the box is its own bucket in row order, so neighbouring cells are neighbouring buckets. When the agents
+ * are spread further apart, cells hash into a power-of-two table sized to the agent count, so the area
+ * agents roam is unbounded.
+ * build() re-sorts every agent with a counting sort each frame. That is O(agents), with no per-agent nodes
+ * to move around, and it leaves each bucket's agents and their positions next to each other in memory.
+ * Queries check which cell an agent is in, so two cells sharing a hash bucket never mix.
+ * Nothing is allocated once the arrays have grown to the agent count.
+ */
+public class AgentSpatialHash {
+    private final float cellSize;
+    private final float inverseCellSize;
+
+    private int count;
+
+    // Number of buckets in use; bucket bucketCount is always empty and stands for cells outside the box
+    private int bucketCount;
+
+    // Row-order buckets over the bounding box of the agents' cells, or hashed buckets when too sparse
+    private boolean dense;
+    private int minCellX;
+    private int minCellY;
+    private int maxCellX;
+    private int maxCellY;
+    private int boxWidth;
+    private int boxHeight;
+    private int bucketMask;
+
+    // Agents sorted by bucket: first slot of each bucket, with one extra entry marking the end
+    private int[] bucketStart = new int[0];
+    // Next free slot per bucket while sorting
+    private int[] bucketFill = new int[0];
+
+    // Cell and bucket of each agent, by agent id, while sorting
+    private int[] agentCellX = new int[0];
+    private int[] agentCellY = new int[0];
+    private int[] agentBucket = new int[0];
+
+    // Per slot in bucket order: agent id, position and cell
+    private int[] sortedAgent = new int[0];
+    private float[] sortedX = new float[0];
+    private float[] sortedY = new float[0];
+    private int[] sortedCellX = new int[0];
+    private int[] sortedCellY = new int[0];
+
+    // Best candidates so far during nearest()
+    private int[] nearestAgents = new int[0];
+    private float[] nearestDistances = new float[0];
+
+    public AgentSpatialHash(float cellSize) {
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+    }
+
+    /**
+     * Index every agent of the system at its current position
+     */
+    public void build(AgentSystem agents) {
+        build(agents.getPositionX(), agents.getPositionY(), agents.getCount());
+    }
+
+    /**
+     * Index count agents whose positions are xs[i], ys[i]; agent ids are the array indices
+     */
+    public void build(float[] xs, float[] ys, int count) {
+        ensureCapacity(count);
+        this.count = count;
+
+        maxCellX = Integer.MIN_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+        minCellX = Integer.MAX_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        for (int agent = 0; agent < count; agent++) {
+            int cellX = cell(xs[agent]);
+            int cellY = cell(ys[agent]);
+            agentCellX[agent] = cellX;
+            agentCellY[agent] = cellY;
+            minCellX = Math.min(minCellX, cellX);
+            minCellY = Math.min(minCellY, cellY);
+            maxCellX = Math.max(maxCellX, cellX);
+            maxCellY = Math.max(maxCellY, cellY);
+        }
+
+        long boxArea = count == 0 ? 0 : ((long) maxCellX - minCellX + 1) * ((long) maxCellY - minCellY + 1);
+        dense = count > 0 && boxArea <= Math.max(64, 4L * count);
+        if (dense) {
+            boxWidth = maxCellX - minCellX + 1;
+            boxHeight = maxCellY - minCellY + 1;
+            bucketCount = (int) boxArea;
+        } else {
+            bucketCount = Math.max(16, Integer.highestOneBit(Math.max(1, count)) << 1);
+            bucketMask = bucketCount - 1;
+        }
+        if (bucketStart.length < bucketCount + 2) {
+            bucketStart = new int[bucketCount + 2];
+            bucketFill = new int[bucketCount + 1];
+        }
+
+        Arrays.fill(bucketStart, 0, bucketCount + 2, 0);
+        for (int agent = 0; agent < count; agent++) {
+            int bucket = bucket(agentCellX[agent], agentCellY[agent]);
+            agentBucket[agent] = bucket;
+            bucketStart[bucket + 1]++;
+        }
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            bucketStart[bucket + 1] += bucketStart[bucket];
+        }
+        bucketStart[bucketCount + 1] = count;
+
+        System.arraycopy(bucketStart, 0, bucketFill, 0, bucketCount);
+        for (int agent = 0; agent < count; agent++) {
+            int slot = bucketFill[agentBucket[agent]]++;
+            sortedAgent[slot] = agent;
+            sortedX[slot] = xs[agent];
+            sortedY[slot] = ys[agent];
+            sortedCellX[slot] = agentCellX[agent];
+            sortedCellY[slot] = agentCellY[agent];
+        }
+    }
+
+    /**
+     * Grow the per-agent arrays to fit count agents
+     */
+    private void ensureCapacity(int count) {
+        if (sortedAgent.length < count) {
+            int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, count - 1)) << 1);
+            agentCellX = new int[capacity];
+            agentCellY = new int[capacity];
+            agentBucket = new int[capacity];
+            sortedAgent = new int[capacity];
+            sortedX = new float[capacity];
+            sortedY = new float[capacity];
+            sortedCellX = new int[capacity];
+            sortedCellY = new int[capacity];
+        }
+    }
+
+    /**
+     * Add the ids of agents within radius of (x, y) to out, in no particular order
+     */
+    public void queryRadius(float x, float y, float radius, IntArray out) {
+        float radiusSquared = radius * radius;
+        int minCellX = cell(x - radius);
+        int maxCellX = cell(x + radius);
+        int minCellY = cell(y - radius);
+        int maxCellY = cell(y + radius);
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                int bucket = bucket(cellX, cellY);
+                for (int slot = bucketStart[bucket], end = bucketStart[bucket + 1]; slot < end; slot++) {
+                    if (sortedCellX[slot] != cellX || sortedCellY[slot] != cellY) {
+                        continue;
+                    }
+                    float dx = sortedX[slot] - x;
+                    float dy = sortedY[slot] - y;
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        out.add(sortedAgent[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Put the ids of the k agents closest to (x, y) and no further than maxRadius into out, closest first.
+     * Searches square rings of cells outwards and stops once the ring is further than the k-th best, once
+     * every agent has been seen or once the ring is past the agents' bounding box
+     */
+    public void nearest(float x, float y, int k, float maxRadius, IntArray out) {
+        out.clear();
+        if (k <= 0 || count == 0) {
+            return;
+        }
+        if (nearestAgents.length < k) {
+            nearestAgents = new int[k];
+            nearestDistances = new float[k];
+        }
+
+        int found = 0;
+        int seen = 0;
+        float limitSquared = maxRadius * maxRadius;
+        int centerX = cell(x);
+        int centerY = cell(y);
+        // Rings closer than the box hold no agents and rings past it hold no more
+        long firstRing = Math.max(Math.max((long) minCellX - centerX, (long) centerX - maxCellX),
+            Math.max((long) minCellY - centerY, (long) centerY - maxCellY));
+        long lastRing = Math.max(Math.max((long) centerX - minCellX, (long) maxCellX - centerX),
+            Math.max((long) centerY - minCellY, (long) maxCellY - centerY));
+        int maxRing = (int) Math.min(lastRing, (long) Math.ceil(maxRadius * inverseCellSize));
+        for (int ring = (int) Math.max(0, firstRing); ring <= maxRing && seen < count; ring++) {
+            // Every cell of this ring is at least this far away from (x, y)
+            if (ring > 0) {
+                float ringDistance = (ring - 1) * cellSize;
+                if (ringDistance * ringDistance > limitSquared) {
+                    break;
+                }
+            }
+
+            // Once a ring crosses more rows and columns of the box than there are agents, as when a few agents
+            // are far apart, checking every agent not seen yet is cheaper than walking the rest of the rings
+            long ringWidth = Math.min((long) centerX + ring, maxCellX) - Math.max((long) centerX - ring, minCellX) + 1;
+            long ringHeight = Math.min((long) centerY + ring, maxCellY) - Math.max((long) centerY - ring, minCellY) + 1;
+            if (2 * (ringWidth + ringHeight) > count) {
+                for (int slot = 0; slot < count; slot++) {
+                    long ringX = Math.abs((long) sortedCellX[slot] - centerX);
+                    long ringY = Math.abs((long) sortedCellY[slot] - centerY);
+                    if (Math.max(ringX, ringY) >= ring) {
+                        found = offer(slot, x, y, k, found, limitSquared);
+                        if (found == k) {
+                            limitSquared = nearestDistances[k - 1];
+                        }
+                    }
+                }
+                break;
+            }
+
+            for (int cellY = Math.max(centerY - ring, minCellY), lastY = Math.min(centerY + ring, maxCellY); cellY <= lastY; cellY++) {
+                boolean edgeRow = cellY == centerY - ring || cellY == centerY + ring;
+                int firstX = edgeRow ? Math.max(centerX - ring, minCellX) : centerX - ring;
+                int lastX = edgeRow ? Math.min(centerX + ring, maxCellX) : centerX + ring;
+                for (int cellX = firstX; cellX <= lastX; cellX += edgeRow || ring == 0 ? 1 : 2 * ring) {
+                    if (cellX < minCellX || cellX > maxCellX) {
+                        continue;
+                    }
+                    int bucket = bucket(cellX, cellY);
+                    for (int slot = bucketStart[bucket], end = bucketStart[bucket + 1]; slot < end; slot++) {
+                        if (sortedCellX[slot] != cellX || sortedCellY[slot] != cellY) {
+                            continue;
+                        }
+                        seen++;
+                        found = offer(slot, x, y, k, found, limitSquared);
+                        if (found == k) {
+                            limitSquared = nearestDistances[k - 1];
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < found; i++) {
+            out.add(nearestAgents[i]);
+        }
+    }
+
+    /**
+     * Insert the agent in slot into the candidates sorted by distance if it is within limitSquared, dropping
+     * the furthest when k are already held; returns the new number of candidates
+     */
+    private int offer(int slot, float x, float y, int k, int found, float limitSquared) {
+        float dx = sortedX[slot] - x;
+        float dy = sortedY[slot] - y;
+        float distanceSquared = dx * dx + dy * dy;
+        if (distanceSquared > limitSquared || found == k && distanceSquared >= nearestDistances[k - 1]) {
+            return found;
+        }
+
+        int position = found < k ? found++ : k - 1;
+        while (position > 0 && nearestDistances[position - 1] > distanceSquared) {
+            nearestDistances[position] = nearestDistances[position - 1];
+            nearestAgents[position] = nearestAgents[position - 1];
+            position--;
+        }
+        nearestDistances[position] = distanceSquared;
+        nearestAgents[position] = sortedAgent[slot];
+        return found;
+    }
+
+    /**
+     * Floor of coordinate / cellSize; a cast plus a fix-up for negatives is much cheaper than Math.floor
+     */
+    private int cell(float coordinate) {
+        float scaled = coordinate * inverseCellSize;
+        int cell = (int) scaled;
+        return scaled < cell ? cell - 1 : cell;
+    }
+
+    private int bucket(int cellX, int cellY) {
+        if (dense) {
+            int column = cellX - minCellX;
+            int row = cellY - minCellY;
+            if (column < 0 || row < 0 || column >= boxWidth || row >= boxHeight) {
+                return bucketCount;
+            }
+            return row * boxWidth + column;
+        }
+        int hash = cellX * 73856093 ^ cellY * 19349663;
+        return (hash ^ (hash >>> 16)) & bucketMask;
+    }
+
+    public float getCellSize() { return cellSize; }
+    public int getCount() { return count; }
+
+    // Bucket-ordered views for steering code that walks the hash directly; valid until the next build()
+    int[] getBucketStart() { return bucketStart; }
+    int[] getSortedAgent() { return sortedAgent; }
+    float[] getSortedX() { return sortedX; }
+    float[] getSortedY() { return sortedY; }
+    int[] getSortedCellX() { return sortedCellX; }
+    int[] getSortedCellY() { return sortedCellY; }
+
+    /**
+     * While the buckets are dense, the agents in cells firstCellX..lastCellX of row cellY are the slots
+     * from rowStart(firstCellX, cellY) up to rowEnd(lastCellX, cellY)
+     */
+    int rowStart(int firstCellX, int cellY) {
+        int row = cellY - minCellY;
+        if (row < 0 || row >= boxHeight) {
+            return 0;
+        }
+        return bucketStart[row * boxWidth + Math.max(0, Math.min(firstCellX - minCellX, boxWidth))];
+    }
+
+    int rowEnd(int lastCellX, int cellY) {
+        int row = cellY - minCellY;
+        if (row < 0 || row >= boxHeight) {
+            return 0;
+        }
+        return bucketStart[row * boxWidth + Math.max(0, Math.min(lastCellX - minCellX + 1, boxWidth))];
+    }
+
+    boolean isDense() { return dense; }
+
+    /**
+     * Bucket holding a cell, for code walking the hash directly
+     */
+    int bucketOf(int cellX, int cellY) {
+        return bucket(cellX, cellY);
+    }
+
+    /**
+     * Cell a coordinate falls in
+     */
+    int cellOf(float coordinate) {
+        return cell(coordinate);
+    }
+}
@@ -0,0 +1,238 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.FloatArray;
+
+import java.util.Arrays;
+
+/**
+ * Moves many agents along their waypoints in one pass. State is kept as parallel arrays indexed by agent
+ * (position, speed, waypoint cursor) rather than one object per agent, so update() walks memory in order
+ * and allocates nothing. Each agent owns a waypoint buffer of x, y pairs that setPath() copies into and
+ * only grows when a longer path arrives, so re-planning doesn't allocate either once buffers have grown.
+ * Agent ids are dense: removing one moves the last agent into its id.
+ * For rendering between fixed simulation steps, storePositions() keeps each agent's position before a
+ * step, and getInterpolatedX()/Y() blend it with the current one.
+ */
+public class AgentSystem {
+    // How close an agent has to get to a waypoint to move on to the next one
+    private final float arrivalRadius;
+
+    private int count;
+
+    // Position and speed (units per second) of each agent
+    private float[] positionX;
+    private float[] positionY;
+    private float[] speed;
+
+    // Positions as of the last storePositions(), for interpolating between simulation steps
+    private float[] previousX;
+    private float[] previousY;
+
+    // Waypoints of each agent as x, y pairs, how many there are, and which one it is heading for
+    private float[][] waypoints;
+    private int[] waypointCount;
+    private int[] waypointCursor;
+
+    // Whether an agent starts over at its first waypoint after the last one
+    private boolean[] looping;
+
+    public AgentSystem(int initialCapacity, float arrivalRadius) {
+        this.arrivalRadius = arrivalRadius;
+        int capacity = Math.max(1, initialCapacity);
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        speed = new float[capacity];
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        waypoints = new float[capacity][];
+        waypointCount = new int[capacity];
+        waypointCursor = new int[capacity];
+        looping = new boolean[capacity];
+    }
+
+    /**
+     * Add a standing agent and return its id
+     */
+    public int add(float x, float y, float speed) {
+        if (count == positionX.length) {
+            grow(count * 2);
+        }
+        int agent = count++;
+        positionX[agent] = x;
+        positionY[agent] = y;
+        previousX[agent] = x;
+        previousY[agent] = y;
+        this.speed[agent] = speed;
+        waypointCount[agent] = 0;
+        waypointCursor[agent] = 0;
+        looping[agent] = false;
+        return agent;
+    }
+
+    /**
+     * Remove an agent; the last agent takes over its id, and its waypoint buffer is kept for reuse
+     */
+    public void remove(int agent) {
+        int last = --count;
+        if (agent != last) {
+            float[] removedBuffer = waypoints[agent];
+            positionX[agent] = positionX[last];
+            positionY[agent] = positionY[last];
+            previousX[agent] = previousX[last];
+            previousY[agent] = previousY[last];
+            speed[agent] = speed[last];
+            waypoints[agent] = waypoints[last];
+            waypointCount[agent] = waypointCount[last];
+            waypointCursor[agent] = waypointCursor[last];
+            looping[agent] = looping[last];
+            waypoints[last] = removedBuffer;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    private void grow(int capacity) {
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        waypoints = Arrays.copyOf(waypoints, capacity);
+        waypointCount = Arrays.copyOf(waypointCount, capacity);
+        waypointCursor = Arrays.copyOf(waypointCursor, capacity);
+        looping = Arrays.copyOf(looping, capacity);
+    }
+
+    public void setPath(int agent, FloatArray points) {
+        setPath(agent, points, false);
+    }
+
+    /**
+     * Copy waypoints (x, y pairs) for an agent to follow from the first one; a looping agent patrols them
+     * forever, any other stops at the last one
+     */
+    public void setPath(int agent, FloatArray points, boolean loop) {
+        float[] buffer = waypoints[agent];
+        if (buffer == null || buffer.length < points.size) {
+            buffer = waypoints[agent] = new float[Math.max(points.size, 16)];
+        }
+        System.arraycopy(points.items, 0, buffer, 0, points.size);
+        waypointCount[agent] = points.size / 2;
+        waypointCursor[agent] = 0;
+        looping[agent] = loop;
+    }
+
+    /**
+     * Stop an agent where it is
+     */
+    public void clearPath(int agent) {
+        waypointCount[agent] = 0;
+        waypointCursor[agent] = 0;
+    }
+
+    /**
+     * Move every agent towards its current waypoint, never overshooting it. An agent that has reached its
+     * waypoint heads for the next one in the same step, so long steps don't stall at every corner
+     */
+    public void update(float delta) {
+        update(delta, 0, count);
+    }
+
+    /**
+     * Move agents fromAgent (inclusive) to toAgent (exclusive). An agent's step only reads its own state,
+     * so separate ranges can run at once
+     */
+    void update(float delta, int fromAgent, int toAgent) {
+        float arrivalRadiusSquared = arrivalRadius * arrivalRadius;
+        for (int agent = fromAgent; agent < toAgent; agent++) {
+            int cursor = waypointCursor[agent];
+            int pointCount = waypointCount[agent];
+            if (cursor >= pointCount) {
+                continue;
+            }
+
+            float[] points = waypoints[agent];
+            float x = positionX[agent];
+            float y = positionY[agent];
+            float directionX = points[2 * cursor] - x;
+            float directionY = points[2 * cursor + 1] - y;
+            float distanceSquared = directionX * directionX + directionY * directionY;
+
+            if (distanceSquared < arrivalRadiusSquared) {
+                // Reached it, head for the next one
+                cursor++;
+                if (cursor == pointCount && looping[agent]) {
+                    cursor = 0;
+                }
+                waypointCursor[agent] = cursor;
+                if (cursor == pointCount) {
+                    continue;
+                }
+                directionX = points[2 * cursor] - x;
+                directionY = points[2 * cursor + 1] - y;
+                distanceSquared = directionX * directionX + directionY * directionY;
+                if (distanceSquared < arrivalRadiusSquared) {
+                    continue; // Waypoints this close together are taken one per step
+                }
+            }
+
+            float distance = (float) Math.sqrt(distanceSquared);
+            float step = Math.min(speed[agent] * delta, distance) / distance;
+            positionX[agent] = x + directionX * step;
+            positionY[agent] = y + directionY * step;
+        }
+    }
+
+    /**
+     * Move an agent without it being interpolated from its old position
+     */
+    public void setPosition(int agent, float x, float y) {
+        positionX[agent] = x;
+        positionY[agent] = y;
+        previousX[agent] = x;
+        previousY[agent] = y;
+    }
+
+    /**
+     * Remember every agent's position, to interpolate from once the next step has moved them
+     */
+    public void storePositions() {
+        System.arraycopy(positionX, 0, previousX, 0, count);
+        System.arraycopy(positionY, 0, previousY, 0, count);
+    }
+
+    /**
+     * Position alpha of the way from the stored position to the current one, alpha in [0, 1]
+     */
+    public float getInterpolatedX(int agent, float alpha) {
+        return previousX[agent] + (positionX[agent] - previousX[agent]) * alpha;
+    }
+
+    public float getInterpolatedY(int agent, float alpha) {
+        return previousY[agent] + (positionY[agent] - previousY[agent]) * alpha;
+    }
+
+    public void setSpeed(int agent, float speed) {
+        this.speed[agent] = speed;
+    }
+
+    /**
+     * Whether an agent still has waypoints ahead of it
+     */
+    public boolean isMoving(int agent) {
+        return waypointCursor[agent] < waypointCount[agent];
+    }
+
+    public int getCount() { return count; }
+    public float getX(int agent) { return positionX[agent]; }
+    public float getY(int agent) { return positionY[agent]; }
+    public float getSpeed(int agent) { return speed[agent]; }
+    public int getWaypointIndex(int agent) { return waypointCursor[agent]; }
+    public int getWaypointCount(int agent) { return waypointCount[agent]; }
+
+    // Live position arrays, indexed by agent id, for AgentSpatialHash and steering
+    float[] getPositionX() { return positionX; }
+    float[] getPositionY() { return positionY; }
+}
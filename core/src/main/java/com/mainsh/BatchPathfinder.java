@@ -0,0 +1,260 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Answers batches of path queries on a fixed pool of worker threads.
+ * Workers share one snapshot of the grid, which they only read, and each owns its own search engines
+ * over it. The snapshot is brought up to date from the live grid at the start of each batch, on the
+ * thread that owns the grid, which also rejects out-of-bounds and unreachable requests up front.
+ * ASTAR requests are answered by the index-based A*, since the gdx-ai engine can't be shared.
+ * Use findPaths() to wait for a batch, or submit() and then update() once per frame to have finished
+ * batches delivered without blocking the render thread.
+ */
+public class BatchPathfinder implements Disposable {
+    private final GridWorld world;
+    private final GridWorld snapshot;
+    private final ExecutorService executor;
+    private final Worker[] workers;
+
+    // Batch in flight, if any
+    private List<PathRequest> pending;
+    private final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+    // Whether each request of the batch in flight needs a search, decided in start()
+    private final BooleanArray searchable = new BooleanArray();
+
+    public BatchPathfinder(GridWorld world) {
+        this(world, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchPathfinder(GridWorld world, int threads) {
+        this.world = world;
+        this.snapshot = world.snapshot();
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "BatchPathfinder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Answer every request, blocking until all of them are done
+     */
+    public void findPaths(List<PathRequest> requests) {
+        if (pending != null) {
+            throw new GdxRuntimeException("A batch is already in flight");
+        }
+        start(requests);
+        for (int i = 0; i < futures.size(); i++) {
+            waitFor(futures.get(i));
+        }
+        deliver();
+    }
+
+    /**
+     * Start answering requests in the background. Returns false (and does nothing) while the previous
+     * batch is still running, in which case agents should keep their current paths and retry later
+     */
+    public boolean submit(List<PathRequest> requests) {
+        if (pending != null) {
+            return false;
+        }
+        start(requests);
+        return true;
+    }
+
+    /**
+     * Deliver the batch in flight if every worker is done; call once per frame. Never blocks
+     */
+    public boolean update() {
+        if (pending == null) {
+            return false;
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            if (!futures.get(i).isDone()) {
+                return false;
+            }
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            waitFor(futures.get(i));
+        }
+        deliver();
+        return true;
+    }
+
+    public boolean isBusy() {
+        return pending != null;
+    }
+
+    private void start(List<PathRequest> requests) {
+        if (snapshot.getVersion() != world.getVersion()) {
+            snapshot.syncFrom(world);
+        }
+
+        // The region index updates itself lazily, so it is only queried here and never by the workers
+        RegionIndex regions = snapshot.getRegionIndex();
+        searchable.clear();
+        for (int i = 0; i < requests.size(); i++) {
+            PathRequest request = requests.get(i);
+            boolean search = snapshot.isInBounds(request.startX, request.startY)
+                && snapshot.isInBounds(request.goalX, request.goalY)
+                && regions.isConnected(snapshot.toIndex(request.startX, request.startY),
+                    snapshot.toIndex(request.goalX, request.goalY));
+            if (search) {
+                // Engines are created here too, since some of them register as listeners on the snapshot
+                for (Worker worker : workers) {
+                    worker.engine(request.algorithm);
+                }
+            } else {
+                request.found = false;
+                request.path.clear();
+            }
+            searchable.add(search);
+        }
+
+        pending = requests;
+        futures.clear();
+        int count = Math.min(workers.length, requests.size());
+        for (int i = 0; i < count; i++) {
+            workers[i].requests = requests;
+            futures.add(executor.submit(workers[i]));
+        }
+    }
+
+    private void deliver() {
+        List<PathRequest> requests = pending;
+        pending = null;
+        futures.clear();
+        for (int i = 0; i < requests.size(); i++) {
+            PathRequest request = requests.get(i);
+            if (request.callback != null) {
+                request.callback.pathReady(request);
+            }
+        }
+    }
+
+    private void waitFor(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while waiting for paths", e);
+        } catch (ExecutionException e) {
+            // The other workers may still be reading the snapshot; let them finish before it can be synced again
+            joinAll();
+            pending = null;
+            futures.clear();
+            throw new GdxRuntimeException("Path search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Wait for every worker of the batch in flight, ignoring their failures
+     */
+    private void joinAll() {
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<?> future = futures.get(i);
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Answers every n-th request of a batch, where n is the number of workers, with its own engines over
+     * the shared snapshot
+     */
+    private class Worker implements Callable<Void> {
+        private final int offset;
+        private final GridPathFinder[] engines = new GridPathFinder[PathAlgorithm.values().length];
+        private List<PathRequest> requests;
+
+        Worker(int offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * Get the engine for an algorithm. Engines are created by start() on the owning thread, so the workers
+         * only ever look them up
+         */
+        GridPathFinder engine(PathAlgorithm algorithm) {
+            if (algorithm == PathAlgorithm.ASTAR) {
+                algorithm = PathAlgorithm.INDEXED_ASTAR;
+            }
+            GridPathFinder engine = engines[algorithm.ordinal()];
+            if (engine != null) {
+                return engine;
+            }
+            switch (algorithm) {
+                case JPS:
+                    JumpPointSearch jumpPointSearch = new JumpPointSearch(snapshot);
+                    jumpPointSearch.setFallback(engine(PathAlgorithm.INDEXED_ASTAR));
+                    engine = jumpPointSearch;
+                    break;
+                case JPS_PLUS:
+                    JumpPointSearchPlus jumpPointSearchPlus = new JumpPointSearchPlus(snapshot);
+                    jumpPointSearchPlus.setFallback(engine(PathAlgorithm.INDEXED_ASTAR));
+                    snapshot.addListener(jumpPointSearchPlus);
+                    engine = jumpPointSearchPlus;
+                    break;
+                case HPA:
+                    HierarchicalPathfinder hierarchicalPathfinder = new HierarchicalPathfinder(snapshot);
+                    snapshot.addListener(hierarchicalPathfinder);
+                    engine = hierarchicalPathfinder;
+                    break;
+                case BIDIRECTIONAL_ASTAR:
+                    engine = new BidirectionalAStar(snapshot);
+                    break;
+                default:
+                    engine = new GridAStar(snapshot);
+                    break;
+            }
+            engines[algorithm.ordinal()] = engine;
+            return engine;
+        }
+
+        @Override
+        public Void call() {
+            for (int i = offset; i < requests.size(); i += workers.length) {
+                if (!searchable.get(i)) {
+                    continue;
+                }
+                PathRequest request = requests.get(i);
+                request.found = engine(request.algorithm).findPath(snapshot.toIndex(request.startX, request.startY),
+                    snapshot.toIndex(request.goalX, request.goalY), request.path);
+            }
+            return null;
+        }
+    }
+}
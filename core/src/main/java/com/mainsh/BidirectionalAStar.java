@@ -0,0 +1,256 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * A* run from both ends at once: a forward search out of the start and a reverse search out of the goal,
+ * always expanding the side with the smaller frontier, so a long query grows two small frontiers instead
+ * of one that is widest near the goal. Both sides share one balanced potential (half the difference of
+ * the distances to goal and start), which keeps them consistent with each other; the search stops once
+ * the two frontier keys together can't beat the cheapest meeting found so far, so paths are optimal.
+ * With a uniform-cost grid this is bidirectional Dijkstra guided towards the other end.
+ * Scratch arrays are sized to the grid once and stamped with a generation, as in GridAStar.
+ */
+public class BidirectionalAStar implements GridPathFinder {
+    private final GridWorld world;
+    private final int width;
+    private final Connectivity connectivity;
+
+    // Index offset of a step in each Connectivity direction
+    private final int[] stepOffsets = new int[8];
+
+    // Open lists keyed by cost plus potential, out of the start and out of the goal
+    private final IndexedNodeHeap forwardOpen;
+    private final IndexedNodeHeap reverseOpen;
+
+    // Best known cost from the start, and to the goal
+    private final float[] forwardCost;
+    private final float[] reverseCost;
+
+    // Previous cell towards the start, and next cell towards the goal
+    private final int[] forwardParent;
+    private final int[] reverseParent;
+
+    // Generation stamps for "reached" and "expanded" on each side
+    private final int[] forwardSeen;
+    private final int[] forwardClosed;
+    private final int[] reverseSeen;
+    private final int[] reverseClosed;
+    private int generation;
+
+    // Query state: endpoints, heuristic scale and the cheapest path found through a meeting cell
+    private int startX;
+    private int startY;
+    private int goalX;
+    private int goalY;
+    private float heuristicScale;
+    private float startToGoal;
+    private float bestCost;
+    private int meeting;
+
+    // Number of cells expanded by the last search, both sides together
+    private int expandedCount;
+
+    public BidirectionalAStar(GridWorld world) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.connectivity = world.getConnectivity();
+        for (int direction = 0; direction < 8; direction++) {
+            stepOffsets[direction] = Connectivity.STEP_Y[direction] * width + Connectivity.STEP_X[direction];
+        }
+
+        int nodeCount = world.getNodeCount();
+        this.forwardOpen = new IndexedNodeHeap(nodeCount);
+        this.reverseOpen = new IndexedNodeHeap(nodeCount);
+        this.forwardCost = new float[nodeCount];
+        this.reverseCost = new float[nodeCount];
+        this.forwardParent = new int[nodeCount];
+        this.reverseParent = new int[nodeCount];
+        this.forwardSeen = new int[nodeCount];
+        this.forwardClosed = new int[nodeCount];
+        this.reverseSeen = new int[nodeCount];
+        this.reverseClosed = new int[nodeCount];
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray out) {
+        out.clear();
+        expandedCount = 0;
+        if (!world.isWalkable(start) || !world.isWalkable(goal)) {
+            return false;
+        }
+        if (start == goal) {
+            out.add(start);
+            return true;
+        }
+
+        nextGeneration();
+        forwardOpen.clear();
+        reverseOpen.clear();
+
+        startX = start % width;
+        startY = start / width;
+        goalX = goal % width;
+        goalY = goal / width;
+        heuristicScale = world.getMinCost();
+        startToGoal = estimate(startX, startY, goalX, goalY);
+        bestCost = Float.POSITIVE_INFINITY;
+        meeting = -1;
+
+        forwardSeen[start] = generation;
+        forwardCost[start] = 0;
+        forwardParent[start] = -1;
+        forwardOpen.push(start, forwardPotential(start));
+
+        reverseSeen[goal] = generation;
+        reverseCost[goal] = 0;
+        reverseParent[goal] = -1;
+        reverseOpen.push(goal, reversePotential(goal));
+
+        // The potentials of a cell add up to the start-goal estimate, so the two keys of a path bound its cost plus that
+        while (!forwardOpen.isEmpty() && !reverseOpen.isEmpty()) {
+            if (forwardOpen.peekKey() + reverseOpen.peekKey() >= bestCost + startToGoal) {
+                break;
+            }
+            if (forwardOpen.size() <= reverseOpen.size()) {
+                expandForward();
+            } else {
+                expandReverse();
+            }
+        }
+
+        if (meeting == -1) {
+            return false;
+        }
+        buildPath(out);
+        return true;
+    }
+
+    private void expandForward() {
+        int current = forwardOpen.pop();
+        forwardClosed[current] = generation;
+        expandedCount++;
+
+        float currentCost = forwardCost[current];
+        int mask = world.getConnectionMask(current);
+        while (mask != 0) {
+            int direction = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            int next = current + stepOffsets[direction];
+            if (forwardClosed[next] == generation) {
+                continue;
+            }
+
+            // Moving into a cell costs that cell's cost
+            float cost = currentCost + world.getCost(next) * Connectivity.stepCost(direction);
+            if (forwardSeen[next] == generation && cost >= forwardCost[next]) {
+                continue;
+            }
+            forwardSeen[next] = generation;
+            forwardCost[next] = cost;
+            forwardParent[next] = current;
+            forwardOpen.push(next, cost + forwardPotential(next));
+
+            if (reverseSeen[next] == generation) {
+                meet(next, cost + reverseCost[next]);
+            }
+        }
+    }
+
+    private void expandReverse() {
+        int current = reverseOpen.pop();
+        reverseClosed[current] = generation;
+        expandedCount++;
+
+        // Steps are allowed both ways or neither; coming from a neighbour costs entering this cell
+        float currentCost = reverseCost[current];
+        float cellCost = world.getCost(current);
+        int mask = world.getConnectionMask(current);
+        while (mask != 0) {
+            int direction = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            int previous = current + stepOffsets[direction];
+            if (reverseClosed[previous] == generation) {
+                continue;
+            }
+
+            float cost = currentCost + cellCost * Connectivity.stepCost(direction);
+            if (reverseSeen[previous] == generation && cost >= reverseCost[previous]) {
+                continue;
+            }
+            reverseSeen[previous] = generation;
+            reverseCost[previous] = cost;
+            reverseParent[previous] = current;
+            reverseOpen.push(previous, cost + reversePotential(previous));
+
+            if (forwardSeen[previous] == generation) {
+                meet(previous, forwardCost[previous] + cost);
+            }
+        }
+    }
+
+    private void meet(int cell, float cost) {
+        if (cost < bestCost) {
+            bestCost = cost;
+            meeting = cell;
+        }
+    }
+
+    /**
+     * Manhattan or octile distance scaled by the cheapest cell, as in GridAStar
+     */
+    private float estimate(int fromX, int fromY, int toX, int toY) {
+        return connectivity.distance(fromX - toX, fromY - toY) * heuristicScale;
+    }
+
+    /**
+     * Balanced potential of the forward side: half of (to goal - to start), shifted so the goal gets 0
+     */
+    private float forwardPotential(int index) {
+        int x = index % width;
+        int y = index / width;
+        return (estimate(x, y, goalX, goalY) - estimate(x, y, startX, startY) + startToGoal) * 0.5f;
+    }
+
+    /**
+     * Balanced potential of the reverse side; the two potentials of a cell add up to the start-goal estimate
+     */
+    private float reversePotential(int index) {
+        int x = index % width;
+        int y = index / width;
+        return (estimate(x, y, startX, startY) - estimate(x, y, goalX, goalY) + startToGoal) * 0.5f;
+    }
+
+    /**
+     * Start to meeting cell through the forward parents, then meeting cell to goal through the reverse ones
+     */
+    private void buildPath(IntArray out) {
+        for (int node = meeting; node != -1; node = forwardParent[node]) {
+            out.add(node);
+        }
+        out.reverse();
+        for (int node = reverseParent[meeting]; node != -1; node = reverseParent[node]) {
+            out.add(node);
+        }
+    }
+
+    /**
+     * Advance the generation stamp, wiping the stamp arrays when it wraps around
+     */
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(forwardSeen, 0);
+            Arrays.fill(forwardClosed, 0);
+            Arrays.fill(reverseSeen, 0);
+            Arrays.fill(reverseClosed, 0);
+            generation = 1;
+        }
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+}
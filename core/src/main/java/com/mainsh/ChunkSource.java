@@ -0,0 +1,19 @@
+package com.mainsh;
+
+/**
+ * Supplies the contents of a ChunkedGridWorld chunk the first time it is needed, by generating it or
+ * reading it from storage
+ */
+public interface ChunkSource {
+    /**
+     * Fill a chunk that starts out fully walkable with cost 1
+     */
+    void load(int chunkX, int chunkY, GridChunk chunk);
+
+    /**
+     * Called before an edited chunk is evicted, so the edits can be kept. By default they are dropped and
+     * the chunk is loaded fresh next time
+     */
+    default void unload(int chunkX, int chunkY, GridChunk chunk) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.Arrays;
+
+/**
+ * A* over a ChunkedGridWorld in world coordinates. Search state is kept per chunk and only for the chunks
+ * the search reaches, so a query costs memory in proportion to the area it explores rather than to the
+ * world. A world without bounds has no natural end to a failed search, so each query may reach at most
+ * maxChunks chunks; past that it gives up and isLimitReached() says so.
+ * Scratch blocks are allocated once and reused, with generation stamps as in GridAStar.
+ */
+public class ChunkedAStar {
+    private final ChunkedGridWorld world;
+    private final Connectivity connectivity;
+    private final int maxChunks;
+
+    /**
+     * Search state for the cells of one chunk, indexed like the chunk's cells
+     */
+    private static final class SearchChunk {
+        // Position in blocks, also the high part of the open list entries
+        final int index;
+
+        int chunkX;
+        int chunkY;
+
+        // Best known cost from the start, valid when seen[i] == generation
+        final float[] costSoFar = new float[GridChunk.CELLS];
+
+        // Direction of the step that reached each cell, -1 for the start
+        final byte[] parentDirection = new byte[GridChunk.CELLS];
+
+        final int[] seen = new int[GridChunk.CELLS];
+        final int[] closed = new int[GridChunk.CELLS];
+
+        SearchChunk(int index) {
+            this.index = index;
+        }
+    }
+
+    // Scratch blocks, the first chunkCount in use by the current search
+    private final SearchChunk[] blocks;
+    private int chunkCount;
+
+    // Block of each chunk reached by the current search, by ChunkedGridWorld.key
+    private final LongMap<SearchChunk> blocksByChunk = new LongMap<SearchChunk>();
+
+    // Open list of block * CELLS + local cell, keyed by f = g + h
+    private final IndexedNodeHeap open;
+
+    private int generation;
+
+    // Outcome of the last search
+    private int expandedCount;
+    private boolean limitReached;
+
+    public ChunkedAStar(ChunkedGridWorld world, int maxChunks) {
+        this.world = world;
+        this.connectivity = world.getConnectivity();
+        this.maxChunks = maxChunks;
+        this.blocks = new SearchChunk[maxChunks];
+        this.open = new IndexedNodeHeap(maxChunks * GridChunk.CELLS);
+    }
+
+    /**
+     * Find a path between two cells, writing the x, y pairs of every cell on it (start first) into out
+     */
+    public boolean findPath(int startX, int startY, int goalX, int goalY, IntArray out) {
+        out.clear();
+        expandedCount = 0;
+        limitReached = false;
+        if (!world.isWalkable(startX, startY) || !world.isWalkable(goalX, goalY)) {
+            return false;
+        }
+
+        nextGeneration();
+        open.clear();
+        blocksByChunk.clear();
+        chunkCount = 0;
+
+        int startBlock = blockFor(startX >> GridChunk.SHIFT, startY >> GridChunk.SHIFT);
+        SearchChunk start = blocks[startBlock];
+        int startLocal = local(startX, startY);
+        start.seen[startLocal] = generation;
+        start.costSoFar[startLocal] = 0;
+        start.parentDirection[startLocal] = -1;
+        open.push(startBlock * GridChunk.CELLS + startLocal, heuristic(startX, startY, goalX, goalY));
+
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            SearchChunk block = blocks[node >> (2 * GridChunk.SHIFT)];
+            int local = node & (GridChunk.CELLS - 1);
+            int x = (block.chunkX << GridChunk.SHIFT) + (local & GridChunk.MASK);
+            int y = (block.chunkY << GridChunk.SHIFT) + (local >> GridChunk.SHIFT);
+            if (x == goalX && y == goalY) {
+                buildPath(goalX, goalY, out);
+                return true;
+            }
+            block.closed[local] = generation;
+            expandedCount++;
+
+            float currentCost = block.costSoFar[local];
+            int mask = world.getConnectionMask(x, y);
+            while (mask != 0) {
+                int direction = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int nextX = x + Connectivity.STEP_X[direction];
+                int nextY = y + Connectivity.STEP_Y[direction];
+                int chunkX = nextX >> GridChunk.SHIFT;
+                int chunkY = nextY >> GridChunk.SHIFT;
+
+                int nextBlock = block.chunkX == chunkX && block.chunkY == chunkY
+                    ? node >> (2 * GridChunk.SHIFT) : blockFor(chunkX, chunkY);
+                if (nextBlock == -1) {
+                    limitReached = true;
+                    return false;
+                }
+
+                SearchChunk next = blocks[nextBlock];
+                int nextLocal = local(nextX, nextY);
+                if (next.closed[nextLocal] == generation) {
+                    continue;
+                }
+
+                // Moving into a cell costs that cell's cost
+                float cost = currentCost + world.getCost(nextX, nextY) * Connectivity.stepCost(direction);
+                if (next.seen[nextLocal] == generation && cost >= next.costSoFar[nextLocal]) {
+                    continue;
+                }
+                next.seen[nextLocal] = generation;
+                next.costSoFar[nextLocal] = cost;
+                next.parentDirection[nextLocal] = (byte) direction;
+                open.push(nextBlock * GridChunk.CELLS + nextLocal, cost + heuristic(nextX, nextY, goalX, goalY));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scratch block of a chunk for this search, claiming a fresh one the first time the chunk is reached;
+     * -1 once maxChunks are in use
+     */
+    private int blockFor(int chunkX, int chunkY) {
+        long key = ChunkedGridWorld.key(chunkX, chunkY);
+        SearchChunk block = blocksByChunk.get(key);
+        if (block != null) {
+            return block.index;
+        }
+        if (chunkCount == maxChunks) {
+            return -1;
+        }
+
+        if (blocks[chunkCount] == null) {
+            blocks[chunkCount] = new SearchChunk(chunkCount);
+        }
+        block = blocks[chunkCount];
+        block.chunkX = chunkX;
+        block.chunkY = chunkY;
+        blocksByChunk.put(key, block);
+        return chunkCount++;
+    }
+
+    /**
+     * Octile or Manhattan distance; costs are at least 1 everywhere, and the cheapest cell of an unbounded
+     * world is unknown
+     */
+    private float heuristic(int x, int y, int goalX, int goalY) {
+        return connectivity.distance(x - goalX, y - goalY);
+    }
+
+    /**
+     * Walk back from the goal along the recorded step directions
+     */
+    private void buildPath(int goalX, int goalY, IntArray out) {
+        int x = goalX;
+        int y = goalY;
+        while (true) {
+            out.add(x, y);
+            int direction = blocks[blockIndex(x, y)].parentDirection[local(x, y)];
+            if (direction == -1) {
+                break;
+            }
+            x -= Connectivity.STEP_X[direction];
+            y -= Connectivity.STEP_Y[direction];
+        }
+
+        // Reverse the pairs so the path starts at the start
+        for (int i = 0, j = out.size - 2; i < j; i += 2, j -= 2) {
+            out.swap(i, j);
+            out.swap(i + 1, j + 1);
+        }
+    }
+
+    private int blockIndex(int x, int y) {
+        return blockFor(x >> GridChunk.SHIFT, y >> GridChunk.SHIFT);
+    }
+
+    private static int local(int x, int y) {
+        return (y & GridChunk.MASK) * GridChunk.SIZE + (x & GridChunk.MASK);
+    }
+
+    /**
+     * Advance the generation stamp, wiping the stamps of every block when it wraps around
+     */
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            for (SearchChunk block : blocks) {
+                if (block != null) {
+                    Arrays.fill(block.seen, 0);
+                    Arrays.fill(block.closed, 0);
+                }
+            }
+            generation = 1;
+        }
+    }
+
+    public int getExpandedCount() { return expandedCount; }
+
+    /**
+     * Chunks the last search reached
+     */
+    public int getChunksReached() { return chunkCount; }
+
+    /**
+     * Whether the last search gave up because it reached maxChunks chunks
+     */
+    public boolean isLimitReached() { return limitReached; }
+}
@@ -0,0 +1,235 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Unbounded grid made of GridChunk blocks that are created on first access by a ChunkSource.
+ * Chunks live in a sparse index keyed by their coordinates; once more than maxLoadedChunks are loaded,
+ * the least recently used one is handed back to the source and recycled, so memory stays bounded however
+ * far agents wander. Any int coordinate is a cell, negative ones included.
+ * Lookups remember the last chunk they hit, so walking along a row or around a search frontier rarely
+ * touches the index. Keep the budget above the chunks a single search may reach (ChunkedAStar's maxChunks),
+ * or that search keeps evicting and reloading its own chunks.
+ */
+public class ChunkedGridWorld {
+    private final ChunkSource source;
+    private final Connectivity connectivity;
+    private int maxLoadedChunks;
+
+    // Loaded chunks by key(chunkX, chunkY)
+    private final LongMap<GridChunk> chunks = new LongMap<GridChunk>();
+
+    // Least-recently-used list, most recent first
+    private GridChunk newest;
+    private GridChunk oldest;
+
+    // Evicted chunks kept for reuse
+    private final Array<GridChunk> freeChunks = new Array<GridChunk>(false, 16);
+
+    // Chunk of the last lookup
+    private GridChunk lastChunk;
+
+    // Counters for tuning the budget
+    private long loadCount;
+    private long evictionCount;
+
+    public ChunkedGridWorld(ChunkSource source, Connectivity connectivity, int maxLoadedChunks) {
+        if (maxLoadedChunks < 1) {
+            throw new IllegalArgumentException("At least one chunk must fit: " + maxLoadedChunks);
+        }
+        this.source = source;
+        this.connectivity = connectivity;
+        this.maxLoadedChunks = maxLoadedChunks;
+    }
+
+    /**
+     * Chunk holding the given chunk coordinates, loading it (and evicting another) if needed
+     */
+    public GridChunk getChunk(int chunkX, int chunkY) {
+        GridChunk chunk = lastChunk;
+        if (chunk != null && chunk.chunkX == chunkX && chunk.chunkY == chunkY) {
+            return chunk;
+        }
+
+        chunk = chunks.get(key(chunkX, chunkY));
+        if (chunk == null) {
+            chunk = load(chunkX, chunkY);
+        } else {
+            touch(chunk);
+        }
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Chunk containing a cell
+     */
+    public GridChunk getChunkAt(int x, int y) {
+        return getChunk(x >> GridChunk.SHIFT, y >> GridChunk.SHIFT);
+    }
+
+    public boolean isLoaded(int chunkX, int chunkY) {
+        return chunks.containsKey(key(chunkX, chunkY));
+    }
+
+    public boolean isWalkable(int x, int y) {
+        return getChunkAt(x, y).isWalkable(x & GridChunk.MASK, y & GridChunk.MASK);
+    }
+
+    public void setWalkable(int x, int y, boolean walkable) {
+        GridChunk chunk = getChunkAt(x, y);
+        chunk.setWalkable(x & GridChunk.MASK, y & GridChunk.MASK, walkable);
+        chunk.modified = true;
+    }
+
+    public int getCost(int x, int y) {
+        return getChunkAt(x, y).getCost(x & GridChunk.MASK, y & GridChunk.MASK);
+    }
+
+    public void setCost(int x, int y, int cost) {
+        GridChunk chunk = getChunkAt(x, y);
+        chunk.setCost(x & GridChunk.MASK, y & GridChunk.MASK, cost);
+        chunk.modified = true;
+    }
+
+    /**
+     * Whether a diagonal step from (x, y) by (dx, dy) is allowed, with the same corner rule as GridWorld
+     */
+    public boolean canMoveDiagonally(int x, int y, int dx, int dy) {
+        if (connectivity == Connectivity.FOUR || !isWalkable(x + dx, y + dy)) {
+            return false;
+        }
+        boolean besideX = isWalkable(x + dx, y);
+        boolean besideY = isWalkable(x, y + dy);
+        return connectivity == Connectivity.EIGHT ? besideX || besideY : besideX && besideY;
+    }
+
+    /**
+     * Allowed steps out of a cell, bit d set for Connectivity direction d; 0 for a blocked cell.
+     * Computed on demand, since a cache would have to follow edits across chunk borders
+     */
+    public int getConnectionMask(int x, int y) {
+        if (!isWalkable(x, y)) {
+            return 0;
+        }
+        int mask = 0;
+        // North, East, South, West
+        for (int direction = 0; direction < 4; direction++) {
+            if (isWalkable(x + Connectivity.STEP_X[direction], y + Connectivity.STEP_Y[direction])) {
+                mask |= 1 << direction;
+            }
+        }
+        // Northeast, Southeast, Southwest, Northwest, as the corner rule allows
+        for (int direction = 4; direction < connectivity.getDirectionCount(); direction++) {
+            if (canMoveDiagonally(x, y, Connectivity.STEP_X[direction], Connectivity.STEP_Y[direction])) {
+                mask |= 1 << direction;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Change the chunk budget, evicting at once if the new one is smaller. Call with a lower value when
+     * memory runs short
+     */
+    public void setMaxLoadedChunks(int maxLoadedChunks) {
+        if (maxLoadedChunks < 1) {
+            throw new IllegalArgumentException("At least one chunk must fit: " + maxLoadedChunks);
+        }
+        this.maxLoadedChunks = maxLoadedChunks;
+        while (chunks.size > maxLoadedChunks) {
+            evict(oldest);
+        }
+    }
+
+    /**
+     * Hand every edited chunk back to the source without evicting anything, e.g. before saving the game
+     */
+    public void flush() {
+        for (GridChunk chunk = newest; chunk != null; chunk = chunk.older) {
+            if (chunk.modified) {
+                source.unload(chunk.chunkX, chunk.chunkY, chunk);
+                chunk.modified = false;
+            }
+        }
+    }
+
+    private GridChunk load(int chunkX, int chunkY) {
+        if (chunks.size >= maxLoadedChunks) {
+            evict(oldest);
+        }
+
+        GridChunk chunk = freeChunks.size > 0 ? freeChunks.pop() : new GridChunk();
+        chunk.reset(chunkX, chunkY);
+        source.load(chunkX, chunkY, chunk);
+        chunk.modified = false;
+        chunks.put(key(chunkX, chunkY), chunk);
+        addNewest(chunk);
+        loadCount++;
+        return chunk;
+    }
+
+    private void evict(GridChunk chunk) {
+        if (chunk.modified) {
+            source.unload(chunk.chunkX, chunk.chunkY, chunk);
+        }
+        chunks.remove(key(chunk.chunkX, chunk.chunkY));
+        unlink(chunk);
+        if (chunk == lastChunk) {
+            lastChunk = null;
+        }
+        freeChunks.add(chunk);
+        evictionCount++;
+    }
+
+    /**
+     * Move a chunk to the front of the least-recently-used list
+     */
+    private void touch(GridChunk chunk) {
+        if (chunk != newest) {
+            unlink(chunk);
+            addNewest(chunk);
+        }
+    }
+
+    private void addNewest(GridChunk chunk) {
+        chunk.newer = null;
+        chunk.older = newest;
+        if (newest != null) {
+            newest.newer = chunk;
+        }
+        newest = chunk;
+        if (oldest == null) {
+            oldest = chunk;
+        }
+    }
+
+    private void unlink(GridChunk chunk) {
+        if (chunk.newer != null) {
+            chunk.newer.older = chunk.older;
+        } else {
+            newest = chunk.older;
+        }
+        if (chunk.older != null) {
+            chunk.older.newer = chunk.newer;
+        } else {
+            oldest = chunk.newer;
+        }
+        chunk.newer = null;
+        chunk.older = null;
+    }
+
+    /**
+     * Index key of a chunk: x in the high half, y in the low half
+     */
+    static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    public Connectivity getConnectivity() { return connectivity; }
+    public int getMaxLoadedChunks() { return maxLoadedChunks; }
+    public int getLoadedChunkCount() { return chunks.size; }
+    public long getLoadCount() { return loadCount; }
+    public long getEvictionCount() { return evictionCount; }
+}
@@ -0,0 +1,59 @@
+package com.mainsh;
+
+/**
+ * Which neighbours a cell of a GridWorld is connected to
+ */
+public enum Connectivity {
+    // North, east, south and west only
+    FOUR,
+
+    // Diagonals too; a diagonal step may cut past one blocked corner but never squeezes between two
+    EIGHT,
+
+    // Diagonals only where both cells beside the step are walkable
+    EIGHT_NO_CORNER_CUTTING;
+
+    // Cost multiplier of a diagonal step
+    public static final float DIAGONAL_COST = 1.4142135f;
+
+    // Step offsets per direction: north, east, south, west, then northeast, southeast, southwest, northwest
+    public static final int[] STEP_X = {0, 1, 0, -1, 1, 1, -1, -1};
+    public static final int[] STEP_Y = {1, 0, -1, 0, 1, -1, -1, 1};
+
+    public boolean allowsDiagonals() {
+        return this != FOUR;
+    }
+
+    /**
+     * Number of directions to try, in STEP_X/STEP_Y order
+     */
+    public int getDirectionCount() {
+        return this == FOUR ? 4 : 8;
+    }
+
+    /**
+     * Cost multiplier of a step in the given direction
+     */
+    public static float stepCost(int direction) {
+        return direction < 4 ? 1 : DIAGONAL_COST;
+    }
+
+    /**
+     * Direction pointing the other way
+     */
+    public static int opposite(int direction) {
+        return direction < 4 ? (direction + 2) & 3 : 4 + ((direction + 2) & 3);
+    }
+
+    /**
+     * Cheapest number of unit-cost steps covering an offset: Manhattan distance for 4-way, octile distance otherwise
+     */
+    public float distance(int dx, int dy) {
+        dx = Math.abs(dx);
+        dy = Math.abs(dy);
+        if (this == FOUR) {
+            return dx + dy;
+        }
+        return Math.max(dx, dy) + (DIAGONAL_COST - 1) * Math.min(dx, dy);
+    }
+}
@@ -0,0 +1,153 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The enemy-follow simulation of PathfindingWithEnemyScreen without any drawing or input, so it can be
+ * stepped headless. Enemies chase a cursor cell: every few ticks, and on the tick after an obstacle edit,
+ * the path is planned again from the first enemy's cell with the index-based A*, smoothed, and given to
+ * every enemy. Enemies follow it and separation keeps them apart.
+ * Time only moves through tick(), so the same calls with the same step give the same run, and that stays
+ * true with the agent step spread over threads by setThreads().
+ */
+public class EnemyFollowSimulation {
+    private final GridWorld world;
+    private final float cellSize;
+
+    private final AgentSystem agents;
+    private final AgentSpatialHash agentHash;
+    private final SeparationSteering separation;
+    private final PathSmoother pathSmoother;
+
+    // Runs the agent step on several threads; null steps on the calling thread
+    private ParallelAgentStep parallelStep;
+
+    // Cells of the last path found, and its smoothed corner points in world units
+    private final IntArray pathCells = new IntArray();
+    private final FloatArray pathWaypoints = new FloatArray();
+
+    // Cell the enemies are chasing
+    private int cursorX;
+    private int cursorY;
+
+    // Ticks between regular re-plans, and whether an edit asked for one on the next tick
+    private int replanInterval = 10;
+    private int ticksSinceReplan;
+    private boolean replanRequested = true;
+
+    private long tickCount;
+    private long pathQueries;
+
+    public EnemyFollowSimulation(GridWorld world, float cellSize, float enemyRadius, float enemySpeed) {
+        this.world = world;
+        this.cellSize = cellSize;
+        agents = new AgentSystem(16, 2.0f);
+        agentHash = new AgentSpatialHash(cellSize);
+        separation = new SeparationSteering(2 * enemyRadius, enemySpeed / 2);
+        separation.setObstacles(world, cellSize);
+        pathSmoother = new PathSmoother(world);
+    }
+
+    /**
+     * Add an enemy at the centre of a cell, following the current path; returns its agent id
+     */
+    public int spawnEnemy(int x, int y, float speed) {
+        int enemy = agents.add((x + 0.5f) * cellSize, (y + 0.5f) * cellSize, speed);
+        agents.setPath(enemy, pathWaypoints);
+        return enemy;
+    }
+
+    /**
+     * Move the target; the enemies pick it up at the next regular re-plan, like the screen does
+     */
+    public void setCursor(int x, int y) {
+        cursorX = Math.max(0, Math.min(x, world.getWidth() - 1));
+        cursorY = Math.max(0, Math.min(y, world.getHeight() - 1));
+    }
+
+    /**
+     * Place or clear an obstacle and re-plan on the next tick
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        world.setWalkable(x, y, walkable);
+        replanRequested = true;
+    }
+
+    /**
+     * Ticks between regular re-plans
+     */
+    public void setReplanInterval(int ticks) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Re-plan interval must be at least one tick: " + ticks);
+        }
+        this.replanInterval = ticks;
+    }
+
+    /**
+     * Step agents on this many threads from now on, or on the calling thread for 1. The result is the same
+     * either way
+     */
+    public void setThreads(int threads) {
+        dispose();
+        if (threads > 1) {
+            parallelStep = new ParallelAgentStep(threads);
+        }
+    }
+
+    /**
+     * Stop the threads started by setThreads()
+     */
+    public void dispose() {
+        if (parallelStep != null) {
+            parallelStep.shutdown();
+            parallelStep = null;
+        }
+    }
+
+    /**
+     * Advance the simulation by step seconds
+     */
+    public void tick(float step) {
+        tickCount++;
+        if (agents.getCount() > 0 && (replanRequested || ++ticksSinceReplan >= replanInterval)) {
+            replan();
+        }
+
+        if (parallelStep != null) {
+            parallelStep.step(agents, agentHash, separation, step);
+        } else {
+            ParallelAgentStep.stepSerial(agents, agentHash, separation, step);
+        }
+    }
+
+    /**
+     * Plan from the first enemy's cell to the cursor and start every enemy on the new path
+     */
+    private void replan() {
+        replanRequested = false;
+        ticksSinceReplan = 0;
+        pathQueries++;
+
+        int enemyX = Math.max(0, Math.min((int) (agents.getX(0) / cellSize), world.getWidth() - 1));
+        int enemyY = Math.max(0, Math.min((int) (agents.getY(0) / cellSize), world.getHeight() - 1));
+        if (world.findPath(enemyX, enemyY, cursorX, cursorY, pathCells)) {
+            pathSmoother.smooth(pathCells, cellSize, pathWaypoints);
+        } else {
+            pathWaypoints.clear();
+        }
+        for (int agent = 0; agent < agents.getCount(); agent++) {
+            agents.setPath(agent, pathWaypoints);
+        }
+    }
+
+    public GridWorld getWorld() { return world; }
+    public AgentSystem getAgents() { return agents; }
+    public FloatArray getPathWaypoints() { return pathWaypoints; }
+    public float getCellSize() { return cellSize; }
+    public int getCursorX() { return cursorX; }
+    public int getCursorY() { return cursorY; }
+    public long getTickCount() { return tickCount; }
+    public long getPathQueries() { return pathQueries; }
+    public int getThreads() { return parallelStep == null ? 1 : parallelStep.getThreads(); }
+}
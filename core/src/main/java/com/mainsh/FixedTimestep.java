@@ -0,0 +1,60 @@
+package com.mainsh;
+
+/**
+ * Accumulator for running a simulation at a fixed rate whatever the frame rate. Each frame adds its delta
+ * with advance(), which says how many whole steps are due; the time left over, as a fraction of a step, is
+ * getAlpha(), for drawing between the last two simulation states. A frame never runs more than
+ * maxStepsPerFrame steps: after a long stall the simulation drops the backlog and falls behind real time,
+ * instead of spending ever longer frames catching up.
+ */
+public class FixedTimestep {
+    // Simulated seconds per step
+    private final float step;
+    private final int maxStepsPerFrame;
+
+    // Frame time not yet simulated, always less than one step between frames
+    private float accumulator;
+
+    // Steps dropped because a frame would have needed more than maxStepsPerFrame
+    private long droppedSteps;
+
+    public FixedTimestep(float stepsPerSecond, int maxStepsPerFrame) {
+        if (stepsPerSecond <= 0 || maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("Need a positive rate and at least one step per frame: "
+                + stepsPerSecond + ", " + maxStepsPerFrame);
+        }
+        this.step = 1 / stepsPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Add a frame's delta (seconds) and return how many steps to run before drawing it
+     */
+    public int advance(float delta) {
+        accumulator += Math.max(0, delta);
+        int steps = (int) (accumulator / step);
+        if (steps > maxStepsPerFrame) {
+            droppedSteps += steps - maxStepsPerFrame;
+            steps = maxStepsPerFrame;
+            accumulator = 0;
+            return steps;
+        }
+        accumulator -= steps * step;
+        return steps;
+    }
+
+    /**
+     * How far the frame is between the last two steps, from 0 (just stepped) to 1
+     */
+    public float getAlpha() {
+        return Math.min(1, accumulator / step);
+    }
+
+    public void reset() {
+        accumulator = 0;
+    }
+
+    public float getStep() { return step; }
+    public int getMaxStepsPerFrame() { return maxStepsPerFrame; }
+    public long getDroppedSteps() { return droppedSteps; }
+}
@@ -0,0 +1,30 @@
+package com.mainsh;
+
+/**
+ * Connection of a FLAT grid. It keeps the index of the cell it leads to instead of its view and asks the
+ * grid for the view when needed, so views never hold on to each other and the view cache stays bounded
+ */
+class FlatGridConnection extends GridConnection {
+    private final int toIndex;
+    private final boolean diagonal;
+
+    FlatGridConnection(GridWorld world, GridNode fromNode, int toIndex, boolean diagonal) {
+        super(world, fromNode, null);
+        this.toIndex = toIndex;
+        this.diagonal = diagonal;
+    }
+
+    @Override
+    public float getCost() {
+        float cost = world.getCost(toIndex);
+        if (diagonal) {
+            cost *= Connectivity.DIAGONAL_COST;
+        }
+        return cost;
+    }
+
+    @Override
+    public GridNode getToNode() {
+        return world.getFlatNode(toIndex);
+    }
+}
@@ -0,0 +1,326 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Distance and direction to one goal for every cell of the grid, so any number of agents heading for
+ * the same goal can steer with a single lookup each. The field is built by one Dijkstra pass out of
+ * the goal; every cell keeps the neighbour it was reached from, which forms a shortest-path tree.
+ * Moving the goal rebuilds the field. A cell edit only repairs the branch of the tree that ran through
+ * the edited cell (or diagonally past its corner): that branch is cleared, re-seeded from the cells
+ * around it and propagated again. Directions follow Connectivity.STEP_X/STEP_Y.
+ * Register the field with GridWorld.addListener so edits reach it.
+ */
+public class FlowField implements GridPathFinder, GridListener {
+    public static final int NONE = -1;
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+    public static final int NORTH_EAST = 4;
+    public static final int SOUTH_EAST = 5;
+    public static final int SOUTH_WEST = 6;
+    public static final int NORTH_WEST = 7;
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+
+    private final GridWorld world;
+    private final int width;
+    private final int height;
+    private final int directionCount;
+
+    // Cost of reaching the goal from each cell
+    private final float[] distances;
+
+    // Direction of the next step towards the goal, NONE for the goal and unreachable cells
+    private final byte[] directions;
+
+    // Open list of the pass in progress, keyed by distance
+    private final IndexedNodeHeap open;
+
+    // Cells cleared by the repair in progress are marked with the current generation
+    private final int[] cleared;
+    private int generation;
+    private final IntArray branch = new IntArray();
+
+    private int goal = -1;
+
+    // Cells settled by the last build or repair
+    private int updatedCount;
+
+    public FlowField(GridWorld world) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.height = world.getHeight();
+        this.directionCount = world.getConnectivity().getDirectionCount();
+
+        int nodeCount = world.getNodeCount();
+        this.distances = new float[nodeCount];
+        this.directions = new byte[nodeCount];
+        this.open = new IndexedNodeHeap(nodeCount);
+        this.cleared = new int[nodeCount];
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(directions, (byte) NONE);
+    }
+
+    /**
+     * Point the field at a new goal; does nothing when the goal is unchanged
+     */
+    public void setGoal(int x, int y) {
+        setGoal(world.toIndex(x, y));
+    }
+
+    public void setGoal(int index) {
+        if (index == goal) {
+            return;
+        }
+        goal = index;
+        rebuild();
+    }
+
+    /**
+     * Recompute the whole field from the goal
+     */
+    public void rebuild() {
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(directions, (byte) NONE);
+        open.clear();
+        updatedCount = 0;
+
+        if (goal != -1 && world.isWalkable(goal)) {
+            distances[goal] = 0;
+            open.push(goal, 0);
+            propagate();
+        }
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        if (goal == -1) {
+            return;
+        }
+        updatedCount = 0;
+        int index = world.toIndex(x, y);
+
+        // Clear the cell and every cell whose route to the goal went through it
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(cleared, 0);
+            generation = 1;
+        }
+        branch.clear();
+        branch.add(index);
+        cleared[index] = generation;
+
+        // Diagonal steps cutting past the cell's corners may have been allowed or ruled out too
+        for (int direction = 0; direction < directionCount; direction++) {
+            int neighbourX = x + Connectivity.STEP_X[direction];
+            int neighbourY = y + Connectivity.STEP_Y[direction];
+            if (world.isInBounds(neighbourX, neighbourY)) {
+                int neighbour = neighbourY * width + neighbourX;
+                int neighbourStep = directions[neighbour];
+                if (neighbourStep >= 4 && cutsPast(neighbourX, neighbourY, neighbourStep, x, y)) {
+                    cleared[neighbour] = generation;
+                    branch.add(neighbour);
+                }
+            }
+        }
+
+        for (int i = 0; i < branch.size; i++) {
+            int cell = branch.get(i);
+            distances[cell] = INFINITY;
+            directions[cell] = NONE;
+            int cellX = cell % width;
+            int cellY = cell / width;
+            for (int direction = 0; direction < directionCount; direction++) {
+                int neighbourX = cellX + Connectivity.STEP_X[direction];
+                int neighbourY = cellY + Connectivity.STEP_Y[direction];
+                if (world.isInBounds(neighbourX, neighbourY)) {
+                    addToBranch(neighbourY * width + neighbourX, Connectivity.opposite(direction));
+                }
+            }
+        }
+
+        // Re-seed the cleared cells from their untouched neighbours, then let the pass fill in the rest.
+        // The untouched neighbours of the cell are queued as well, steps past its corners may have opened up
+        open.clear();
+        for (int i = 0; i < branch.size; i++) {
+            seed(branch.get(i));
+        }
+        for (int direction = 0; direction < directionCount; direction++) {
+            int neighbourX = x + Connectivity.STEP_X[direction];
+            int neighbourY = y + Connectivity.STEP_Y[direction];
+            if (world.isInBounds(neighbourX, neighbourY)) {
+                int neighbour = neighbourY * width + neighbourX;
+                if (distances[neighbour] != INFINITY && !open.contains(neighbour)) {
+                    open.push(neighbour, distances[neighbour]);
+                }
+            }
+        }
+        propagate();
+    }
+
+    @Override
+    public void costsChanged(int minX, int minY, int maxX, int maxY) {
+        if (minX == maxX && minY == maxY) {
+            cellChanged(minX, minY);
+        } else if (goal != -1) {
+            // Repainting a region usually reroutes a large part of the field, one pass is cheaper
+            rebuild();
+        }
+    }
+
+    @Override
+    public void regionChanged(int minX, int minY, int maxX, int maxY) {
+        // Same trade-off as for repainted costs
+        costsChanged(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Whether the diagonal step from (fromX, fromY) in direction passes beside the cell (x, y)
+     */
+    private static boolean cutsPast(int fromX, int fromY, int direction, int x, int y) {
+        int besideX = fromX + Connectivity.STEP_X[direction];
+        int besideY = fromY + Connectivity.STEP_Y[direction];
+        return (besideX == x && fromY == y) || (fromX == x && besideY == y);
+    }
+
+    /**
+     * Add a neighbour to the branch being cleared if its next step leads into the branch
+     */
+    private void addToBranch(int neighbour, int directionToCell) {
+        if (cleared[neighbour] != generation && directions[neighbour] == directionToCell) {
+            cleared[neighbour] = generation;
+            branch.add(neighbour);
+        }
+    }
+
+    /**
+     * Give a cleared cell the best distance its neighbours offer and queue it
+     */
+    private void seed(int index) {
+        if (!world.isWalkable(index)) {
+            return;
+        }
+        if (index == goal) {
+            distances[index] = 0;
+            open.push(index, 0);
+            return;
+        }
+
+        int x = index % width;
+        int y = index / width;
+        for (int direction = 0; direction < directionCount; direction++) {
+            if (canStep(x, y, direction)) {
+                relax(step(index, direction), index, direction);
+            }
+        }
+    }
+
+    /**
+     * Dijkstra out of whatever is queued, lowering distances wherever a shorter route turns up
+     */
+    private void propagate() {
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            updatedCount++;
+
+            int x = current % width;
+            int y = current / width;
+            for (int direction = 0; direction < directionCount; direction++) {
+                if (canStep(x, y, direction)) {
+                    relax(current, step(current, direction), Connectivity.opposite(direction));
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the grid allows a step from (x, y) in direction; steps are allowed both ways or neither
+     */
+    private boolean canStep(int x, int y, int direction) {
+        return world.canStep(y * width + x, direction);
+    }
+
+    private int step(int index, int direction) {
+        return index + Connectivity.STEP_Y[direction] * width + Connectivity.STEP_X[direction];
+    }
+
+    /**
+     * Route cell through its neighbour next (lying in direction) if that is shorter
+     */
+    private void relax(int next, int cell, int direction) {
+        if (!world.isWalkable(cell) || distances[next] == INFINITY) {
+            return;
+        }
+        // Moving into a cell costs that cell's cost, as in the other searches
+        float distance = distances[next] + world.getCost(next) * Connectivity.stepCost(direction);
+        if (distance < distances[cell]) {
+            distances[cell] = distance;
+            directions[cell] = (byte) direction;
+            open.push(cell, distance);
+        }
+    }
+
+    /**
+     * Point the field at goal and walk it from start
+     */
+    @Override
+    public boolean findPath(int start, int goal, IntArray out) {
+        out.clear();
+        setGoal(goal);
+        if (distances[start] == INFINITY) {
+            return false;
+        }
+
+        int cell = start;
+        out.add(cell);
+        while (cell != goal) {
+            cell = getNextCell(cell);
+            out.add(cell);
+        }
+        return true;
+    }
+
+    /**
+     * The neighbour to step into from index, or -1 at the goal and where the goal can't be reached
+     */
+    public int getNextCell(int index) {
+        int direction = directions[index];
+        return direction == NONE ? -1 : step(index, direction);
+    }
+
+    public int getDirection(int index) {
+        return directions[index];
+    }
+
+    public int getDirectionX(int index) {
+        int direction = directions[index];
+        return direction == NONE ? 0 : Connectivity.STEP_X[direction];
+    }
+
+    public int getDirectionY(int index) {
+        int direction = directions[index];
+        return direction == NONE ? 0 : Connectivity.STEP_Y[direction];
+    }
+
+    /**
+     * Cost of reaching the goal from index, or infinity when it can't be reached
+     */
+    public float getDistance(int index) {
+        return distances[index];
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    /**
+     * Cells settled by the last build or repair
+     */
+    @Override
+    public int getExpandedCount() {
+        return updatedCount;
+    }
+}
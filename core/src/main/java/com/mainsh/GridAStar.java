@@ -0,0 +1,147 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * A* specialised for GridWorld that works on cell indices instead of GridNode/Connection objects.
+ * Scratch arrays are sized to the grid once and reused; per-search state is invalidated by bumping
+ * a generation counter, so a search allocates nothing after the output array has grown to fit.
+ */
+public class GridAStar implements GridPathFinder {
+    private final GridWorld world;
+    private final int width;
+    private final Connectivity connectivity;
+
+    // Index offset of a step in each Connectivity direction
+    private final int[] stepOffsets = new int[8];
+
+    // Open list keyed by f = g + h
+    private final IndexedNodeHeap open;
+
+    // Cheapest cell cost when the search started; the heuristic is scaled by it
+    private float heuristicScale;
+
+    // Best known cost from the start, valid when seen[i] == generation
+    private final float[] costSoFar;
+
+    // Cell we reached each cell from, valid when seen[i] == generation
+    private final int[] parent;
+
+    // Generation stamps for "reached in this search" and "expanded in this search"
+    private final int[] seen;
+    private final int[] closed;
+    private int generation;
+
+    // Number of cells expanded by the last search
+    private int expandedCount;
+
+    public GridAStar(GridWorld world) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.connectivity = world.getConnectivity();
+        for (int direction = 0; direction < 8; direction++) {
+            stepOffsets[direction] = Connectivity.STEP_Y[direction] * width + Connectivity.STEP_X[direction];
+        }
+
+        int nodeCount = world.getNodeCount();
+        this.open = new IndexedNodeHeap(nodeCount);
+        this.costSoFar = new float[nodeCount];
+        this.parent = new int[nodeCount];
+        this.seen = new int[nodeCount];
+        this.closed = new int[nodeCount];
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray out) {
+        out.clear();
+        expandedCount = 0;
+        if (!world.isWalkable(start) || !world.isWalkable(goal)) {
+            return false;
+        }
+
+        nextGeneration();
+        open.clear();
+
+        int goalX = goal % width;
+        int goalY = goal / width;
+        heuristicScale = world.getMinCost();
+
+        seen[start] = generation;
+        costSoFar[start] = 0;
+        parent[start] = -1;
+        open.push(start, heuristic(start, goalX, goalY));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (current == goal) {
+                buildPath(goal, out);
+                return true;
+            }
+            closed[current] = generation;
+            expandedCount++;
+
+            float currentCost = costSoFar[current];
+
+            // North, East, South, West, then whichever diagonals the corner rule allows
+            int mask = world.getConnectionMask(current);
+            while (mask != 0) {
+                int direction = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                visit(current, current + stepOffsets[direction], currentCost, Connectivity.stepCost(direction), goalX, goalY);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Relax the edge from current into a neighbouring cell; stepCost is 1 for straight steps and more for diagonal ones
+     */
+    private void visit(int current, int next, float currentCost, float stepCost, int goalX, int goalY) {
+        if (closed[next] == generation) {
+            return;
+        }
+
+        float cost = currentCost + world.getCost(next) * stepCost;
+        if (seen[next] == generation && cost >= costSoFar[next]) {
+            return;
+        }
+
+        seen[next] = generation;
+        costSoFar[next] = cost;
+        parent[next] = current;
+        open.push(next, cost + heuristic(next, goalX, goalY));
+    }
+
+    /**
+     * Manhattan or octile distance scaled by the cheapest cell, matching the heuristic GridWorld gives GridNode searches
+     */
+    private float heuristic(int index, int goalX, int goalY) {
+        return connectivity.distance(index % width - goalX, index / width - goalY) * heuristicScale;
+    }
+
+    private void buildPath(int goal, IntArray out) {
+        for (int node = goal; node != -1; node = parent[node]) {
+            out.add(node);
+        }
+        out.reverse();
+    }
+
+    /**
+     * Advance the generation stamp, wiping the stamp arrays when it wraps around
+     */
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+}
@@ -0,0 +1,84 @@
+package com.mainsh;
+
+import java.util.Arrays;
+
+/**
+ * One square block of a ChunkedGridWorld: walkability as one long per row and one cost byte per cell.
+ * Chunks are recycled after eviction, so don't hold on to one across calls that may load others.
+ */
+public final class GridChunk {
+    // Chunks are SIZE x SIZE cells; SIZE must stay 64 so a row fits in one long
+    public static final int SHIFT = 6;
+    public static final int SIZE = 1 << SHIFT;
+    public static final int MASK = SIZE - 1;
+    public static final int CELLS = SIZE * SIZE;
+
+    // Chunk coordinates, i.e. world coordinates shifted right by SHIFT
+    int chunkX;
+    int chunkY;
+
+    // Bit x of rows[y] set when the cell is walkable
+    private final long[] rows = new long[SIZE];
+
+    // Movement cost per cell, 1..255 as an unsigned byte, indexed by y * SIZE + x
+    private final byte[] costs = new byte[CELLS];
+
+    // Edited since it was loaded, so the source gets it back on eviction
+    boolean modified;
+
+    // Neighbours in the world's least-recently-used list
+    GridChunk newer;
+    GridChunk older;
+
+    GridChunk() {
+    }
+
+    /**
+     * Reset to fully walkable cells of cost 1 before the chunk is filled again
+     */
+    void reset(int chunkX, int chunkY) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        Arrays.fill(rows, -1L);
+        Arrays.fill(costs, (byte) 1);
+        modified = false;
+    }
+
+    public boolean isWalkable(int localX, int localY) {
+        return (rows[localY] & (1L << localX)) != 0;
+    }
+
+    public void setWalkable(int localX, int localY, boolean walkable) {
+        if (walkable) {
+            rows[localY] |= 1L << localX;
+        } else {
+            rows[localY] &= ~(1L << localX);
+        }
+    }
+
+    /**
+     * Walkability of a whole row, bit x for local column x
+     */
+    public long getRow(int localY) {
+        return rows[localY];
+    }
+
+    public void setRow(int localY, long bits) {
+        rows[localY] = bits;
+    }
+
+    public int getCost(int localX, int localY) {
+        return costs[localY * SIZE + localX] & 0xFF;
+    }
+
+    public void setCost(int localX, int localY, int cost) {
+        if (cost < 1 || cost > 255) {
+            throw new IllegalArgumentException("Cost must be between 1 and 255: " + cost);
+        }
+        costs[localY * SIZE + localX] = (byte) cost;
+    }
+
+    public int getChunkX() { return chunkX; }
+    public int getChunkY() { return chunkY; }
+    public boolean isModified() { return modified; }
+}
@@ -5,19 +5,23 @@ import com.badlogic.gdx.ai.pfa.Connection;
 public class GridConnection implements Connection<GridNode> {
     private GridNode fromNode;
     private GridNode toNode;
-    private float cost;
 
-    public GridConnection(GridNode fromNode, GridNode toNode) {
+    // Costs live in the grid's cost layer, so painting terrain never touches connections
+    protected final GridWorld world;
+
+    public GridConnection(GridWorld world, GridNode fromNode, GridNode toNode) {
+        this.world = world;
         this.fromNode = fromNode;
         this.toNode = toNode;
-
-        // Calculate cost (can be customized based on terrain, etc.)
-        // For diagonal connections, use 1.414f (sqrt(2)) instead
-        this.cost = 1.0f;
     }
 
     @Override
     public float getCost() {
+        // Moving costs whatever entering the destination cell costs, more for a diagonal step
+        float cost = world.getCost(toNode.getIndex());
+        if (fromNode.getX() != toNode.getX() && fromNode.getY() != toNode.getY()) {
+            cost *= Connectivity.DIAGONAL_COST;
+        }
         return cost;
     }
 
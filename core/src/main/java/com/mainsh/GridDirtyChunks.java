@@ -0,0 +1,128 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Which square chunks of a grid have changed since they were last rebuilt, for caches of per-cell data such
+ * as GridMeshRenderer's vertices. Listens to a GridWorld and marks the chunks every edit touches; each
+ * chunk is listed once however often it is marked, so the cache can walk just the dirty ones and clear().
+ * Knows nothing about rendering, so it works without a GL context.
+ * Everything starts dirty.
+ */
+public class GridDirtyChunks implements GridListener {
+    private final int width;
+    private final int height;
+    private final int chunkSize;
+
+    // Chunks across and down, the last ones possibly cut short by the grid edge
+    private final int columns;
+    private final int rows;
+
+    // Dirty flag per chunk (row-major), and the dirty chunks in the order they were first marked
+    private final boolean[] dirty;
+    private final IntArray dirtyChunks = new IntArray();
+
+    public GridDirtyChunks(int width, int height, int chunkSize) {
+        if (width < 1 || height < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Bad grid or chunk size: " + width + "x" + height + ", " + chunkSize);
+        }
+        this.width = width;
+        this.height = height;
+        this.chunkSize = chunkSize;
+        this.columns = (width + chunkSize - 1) / chunkSize;
+        this.rows = (height + chunkSize - 1) / chunkSize;
+        this.dirty = new boolean[columns * rows];
+        markAll();
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        markCells(x, y, x, y);
+    }
+
+    @Override
+    public void costsChanged(int minX, int minY, int maxX, int maxY) {
+        markCells(minX, minY, maxX, maxY);
+    }
+
+    @Override
+    public void regionChanged(int minX, int minY, int maxX, int maxY) {
+        markCells(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Mark every chunk overlapping a rectangle of cells (corners inclusive); cells off the grid are ignored
+     */
+    public void markCells(int minX, int minY, int maxX, int maxY) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, width - 1);
+        maxY = Math.min(maxY, height - 1);
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+        for (int chunkY = minY / chunkSize; chunkY <= maxY / chunkSize; chunkY++) {
+            for (int chunkX = minX / chunkSize; chunkX <= maxX / chunkSize; chunkX++) {
+                mark(chunkY * columns + chunkX);
+            }
+        }
+    }
+
+    public void markAll() {
+        for (int chunk = 0; chunk < dirty.length; chunk++) {
+            mark(chunk);
+        }
+    }
+
+    private void mark(int chunk) {
+        if (!dirty[chunk]) {
+            dirty[chunk] = true;
+            dirtyChunks.add(chunk);
+        }
+    }
+
+    /**
+     * Forget every mark, once the dirty chunks have been rebuilt
+     */
+    public void clear() {
+        for (int i = 0; i < dirtyChunks.size; i++) {
+            dirty[dirtyChunks.get(i)] = false;
+        }
+        dirtyChunks.clear();
+    }
+
+    public boolean isDirty(int chunkX, int chunkY) {
+        return dirty[chunkY * columns + chunkX];
+    }
+
+    public boolean isCellDirty(int x, int y) {
+        return isDirty(x / chunkSize, y / chunkSize);
+    }
+
+    public int getDirtyCount() {
+        return dirtyChunks.size;
+    }
+
+    /**
+     * Row-major index of the i-th dirty chunk, 0 <= i < getDirtyCount()
+     */
+    public int getDirtyChunk(int i) {
+        return dirtyChunks.get(i);
+    }
+
+    /**
+     * Number of cells in a chunk, smaller than chunkSize squared for chunks cut short by the grid edge
+     */
+    public int getCellCount(int chunk) {
+        return getChunkWidth(chunk) * getChunkHeight(chunk);
+    }
+
+    public int getChunkMinX(int chunk) { return chunk % columns * chunkSize; }
+    public int getChunkMinY(int chunk) { return chunk / columns * chunkSize; }
+    public int getChunkWidth(int chunk) { return Math.min(chunkSize, width - getChunkMinX(chunk)); }
+    public int getChunkHeight(int chunk) { return Math.min(chunkSize, height - getChunkMinY(chunk)); }
+    public int getChunkCount() { return dirty.length; }
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public int getChunkSize() { return chunkSize; }
+}
@@ -0,0 +1,111 @@
+package com.mainsh;
+
+/**
+ * Estimates the heap used by each GridStorage layout on a fully open 4-way grid, alone and with the scratch
+ * state its default searches create on first use.
+ * Sizes assume a 64-bit JVM with compressed oops (12 byte headers, 4 byte references, 8 byte alignment).
+ */
+public final class GridFootprint {
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REF = 4;
+
+    // fromNode, toNode, world
+    private static final long CONNECTION = align(HEADER + REF + REF + REF);
+    // The same plus toIndex and diagonal
+    private static final long FLAT_CONNECTION = align(HEADER + REF + REF + REF + 4 + 1);
+
+    private GridFootprint() {
+    }
+
+    /**
+     * Estimated bytes retained by a grid once its default searches have run and reached every cell
+     */
+    public static long estimateBytes(GridStorage storage, int width, int height) {
+        return estimateStorageBytes(storage, width, height) + estimateSearchBytes(storage, width, height);
+    }
+
+    /**
+     * Estimated bytes retained by the grid storage alone, with a full view cache for FLAT
+     */
+    public static long estimateStorageBytes(GridStorage storage, int width, int height) {
+        long cells = (long) width * height;
+        // Walkability bits, costs, connection masks
+        long flat = array(8, (cells + 63) >>> 6) + array(1, cells) + array(1, cells);
+        if (storage == GridStorage.FLAT) {
+            // Cached node views, each with a flat connection per step
+            long cached = Math.min(cells, GridWorld.FLAT_NODE_CACHE_SIZE);
+            return flat + array(REF, cached) + cached * (nodeBytes() + 4 * FLAT_CONNECTION);
+        }
+
+        long columns = array(REF, width) + width * array(REF, height);
+        return flat + columns + cells * nodeBytes() + edges(width, height) * CONNECTION;
+    }
+
+    /**
+     * Estimated scratch of the default searches once they have reached every cell: the region index and
+     * GridAStar, plus on NODES grids the gdx-ai A* with a record per cell. Other engines are not included
+     */
+    public static long estimateSearchBytes(GridStorage storage, int width, int height) {
+        long cells = (long) width * height;
+        // Labels, union-find parents, flood stamps and owners
+        long regions = 3 * array(4, cells) + array(4, cells + 16);
+        // Heap, keys and positions, then costSoFar, parent, seen and closed
+        long indexed = 7 * array(4, cells);
+        if (storage == GridStorage.FLAT) {
+            return regions + indexed;
+        }
+        // value, index, node, connection, costSoFar, category, searchId
+        long record = align(HEADER + 4 + 4 + REF + REF + 4 + 4 + 4);
+        return regions + indexed + array(REF, cells) + cells * record;
+    }
+
+    /**
+     * A GridNode with its connection list and per-direction slots, connections not included
+     */
+    private static long nodeBytes() {
+        // x, y, index, walkable, connections, connectionsByDirection, connectionMask
+        long node = align(HEADER + 3 * 4 + 1 + REF + REF + 4);
+        // One slot per direction
+        long nodeLinks = array(REF, 8);
+        // items, size, ordered, iterable, predicateIterable
+        long list = align(HEADER + REF + 4 + 1 + REF + REF);
+        // libGDX Array starts with room for 16 items
+        long listItems = array(REF, 16);
+        return node + nodeLinks + list + listItems;
+    }
+
+    /**
+     * Directed edges between orthogonal neighbours of an open grid
+     */
+    private static long edges(int width, int height) {
+        return 2L * (width - 1) * height + 2L * width * (height - 1);
+    }
+
+    private static long array(int elementSize, long length) {
+        return align(ARRAY_HEADER + elementSize * length);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = {100, 1000, 4000};
+        System.out.printf("%-12s %16s %16s %16s %16s %8s%n", "grid", "NODES", "NODES total", "FLAT", "FLAT total", "ratio");
+        for (int size : sizes) {
+            long nodes = estimateBytes(GridStorage.NODES, size, size);
+            long flat = estimateBytes(GridStorage.FLAT, size, size);
+            System.out.printf("%-12s %16s %16s %16s %16s %7.1fx%n", size + "x" + size,
+                formatBytes(estimateStorageBytes(GridStorage.NODES, size, size)), formatBytes(nodes),
+                formatBytes(estimateStorageBytes(GridStorage.FLAT, size, size)), formatBytes(flat), (double) nodes / flat);
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1L << 30) return String.format("%.2f GiB", bytes / (double) (1L << 30));
+        if (bytes >= 1L << 20) return String.format("%.2f MiB", bytes / (double) (1L << 20));
+        if (bytes >= 1L << 10) return String.format("%.2f KiB", bytes / (double) (1L << 10));
+        return bytes + " B";
+    }
+}
@@ -0,0 +1,32 @@
+package com.mainsh;
+
+/**
+ * Notified by GridWorld after a cell has been edited
+ */
+public interface GridListener {
+    void cellChanged(int x, int y);
+
+    /**
+     * Movement costs changed inside a rectangle (corners inclusive) while walkability stayed the same.
+     * By default each cell is reported through cellChanged
+     */
+    default void costsChanged(int minX, int minY, int maxX, int maxY) {
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                cellChanged(x, y);
+            }
+        }
+    }
+
+    /**
+     * Walkability may have changed anywhere inside a rectangle (corners inclusive), after a batch of edits.
+     * By default each cell is reported through cellChanged
+     */
+    default void regionChanged(int minX, int minY, int maxX, int maxY) {
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                cellChanged(x, y);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.mainsh;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary map format, loaded by memory-mapping the file and copying each layer into the grid's backing
+ * arrays in one bulk transfer, so nothing is created or computed per cell.
+ * Layout, little-endian:
+ * - header: magic, format version, width, height, connectivity, flags, landmark count, reserved (8 ints)
+ * - walkability bitset, one bit per cell indexed by y * width + x, in longs
+ * - cost layer, one unsigned byte per cell
+ * - connection masks, one byte per cell (optional)
+ * - landmark cells and their distance tables, padded to 8 bytes (optional)
+ * Grids load in FLAT storage unless asked otherwise; NODES creates its node objects after loading.
+ */
+public final class GridMapFile {
+    // "LSIM" at the start of every map file
+    private static final int MAGIC = 0x4C53494D;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8 * 4;
+
+    // Optional layers present after the cost layer
+    private static final int HAS_CONNECTION_MASKS = 1;
+    private static final int HAS_LANDMARKS = 2;
+
+    private GridMapFile() {
+    }
+
+    /**
+     * Write the current state of the grid, connection masks included
+     */
+    public static void save(GridWorld world, FileHandle file) {
+        save(world, null, file);
+    }
+
+    /**
+     * Write the grid together with landmark tables built for it, so neither has to be rebuilt on load
+     */
+    public static void save(GridWorld world, LandmarkHeuristic landmarks, FileHandle file) {
+        if (landmarks != null && !landmarks.isValid()) {
+            throw new IllegalArgumentException("Landmark tables are stale, recompute them before saving");
+        }
+        int nodeCount = world.getNodeCount();
+        int landmarkCount = landmarks == null ? 0 : landmarks.getLandmarkCount();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(FORMAT_VERSION);
+        header.putInt(world.getWidth());
+        header.putInt(world.getHeight());
+        header.putInt(world.getConnectivity().ordinal());
+        header.putInt(HAS_CONNECTION_MASKS | (landmarks == null ? 0 : HAS_LANDMARKS));
+        header.putInt(landmarkCount);
+        header.putInt(0);
+        header.flip();
+
+        long[] bits = world.getWalkableBits();
+        ByteBuffer walkable = ByteBuffer.allocate(bits.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        walkable.asLongBuffer().put(bits);
+
+        file.parent().mkdirs();
+        try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            writeFully(channel, walkable);
+            writeFully(channel, ByteBuffer.wrap(world.getCosts()));
+            writeFully(channel, ByteBuffer.wrap(world.getConnectionMasks()));
+
+            if (landmarks != null) {
+                writeFully(channel, ByteBuffer.allocate(padding(channel.position())));
+                ByteBuffer cells = ByteBuffer.allocate(landmarkCount * 4).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < landmarkCount; i++) {
+                    cells.putInt(landmarks.getLandmark(i));
+                }
+                cells.flip();
+                writeFully(channel, cells);
+
+                ByteBuffer table = ByteBuffer.allocate(nodeCount * 4).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < landmarkCount; i++) {
+                    table.clear();
+                    table.asFloatBuffer().put(landmarks.getTable(i));
+                    writeFully(channel, table);
+                }
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write map to " + file, e);
+        }
+    }
+
+    public static GridWorld load(FileHandle file) {
+        return load(file, GridStorage.FLAT);
+    }
+
+    /**
+     * Map a file written by save() and build a grid from it
+     */
+    public static GridWorld load(FileHandle file, GridStorage storage) {
+        ByteBuffer buffer = map(file);
+        int width = buffer.getInt(8);
+        int height = buffer.getInt(12);
+        Connectivity connectivity = Connectivity.values()[buffer.getInt(16)];
+        int flags = buffer.getInt(20);
+        int nodeCount = width * height;
+
+        long[] bits = new long[(nodeCount + 63) >>> 6];
+        buffer.position(HEADER_BYTES);
+        buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(bits);
+
+        byte[] costs = new byte[nodeCount];
+        buffer.position(HEADER_BYTES + bits.length * 8);
+        buffer.get(costs);
+        for (byte cost : costs) {
+            if (cost == 0) {
+                throw new GdxRuntimeException("Corrupt map file, cell with cost 0: " + file);
+            }
+        }
+
+        byte[] masks = null;
+        if ((flags & HAS_CONNECTION_MASKS) != 0) {
+            masks = new byte[nodeCount];
+            buffer.get(masks);
+        }
+        return new GridWorld(width, height, storage, connectivity, bits, costs, masks);
+    }
+
+    /**
+     * Read the landmark tables saved with a map, or null when the file has none. world must be the grid
+     * loaded from the same file
+     */
+    public static LandmarkHeuristic loadLandmarks(FileHandle file, GridWorld world) {
+        ByteBuffer buffer = map(file);
+        int width = buffer.getInt(8);
+        int height = buffer.getInt(12);
+        if (width != world.getWidth() || height != world.getHeight()) {
+            throw new IllegalArgumentException("Map in " + file + " is " + width + "x" + height
+                + ", the grid is " + world.getWidth() + "x" + world.getHeight());
+        }
+        if ((buffer.getInt(20) & HAS_LANDMARKS) == 0) {
+            return null;
+        }
+
+        int nodeCount = width * height;
+        int landmarkCount = buffer.getInt(24);
+        long offset = layersEnd(buffer.getInt(20), nodeCount);
+        offset += padding(offset);
+        buffer.position((int) offset);
+        ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        int[] landmarks = new int[landmarkCount];
+        data.asIntBuffer().get(landmarks);
+        float[][] tables = new float[landmarkCount][nodeCount];
+        for (int i = 0; i < landmarkCount; i++) {
+            data.position(landmarkCount * 4 + i * nodeCount * 4);
+            data.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(tables[i]);
+        }
+        return new LandmarkHeuristic(world, landmarks, tables);
+    }
+
+    /**
+     * Map the whole file read-only and check its header against its length
+     */
+    private static ByteBuffer map(FileHandle file) {
+        ByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new GdxRuntimeException("Not a map file: " + file);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new GdxRuntimeException("Unsupported map format " + buffer.getInt(4) + ": " + file);
+        }
+
+        int width = buffer.getInt(8);
+        int height = buffer.getInt(12);
+        int connectivity = buffer.getInt(16);
+        int flags = buffer.getInt(20);
+        if (width <= 0 || height <= 0 || connectivity < 0 || connectivity >= Connectivity.values().length) {
+            throw new GdxRuntimeException("Corrupt map header: " + file);
+        }
+
+        int nodeCount = width * height;
+        long length = layersEnd(flags, nodeCount);
+        if ((flags & HAS_LANDMARKS) != 0) {
+            length += padding(length) + buffer.getInt(24) * 4L * (nodeCount + 1);
+        }
+        if (buffer.capacity() < length) {
+            throw new GdxRuntimeException("Map file is truncated: " + file);
+        }
+        return buffer;
+    }
+
+    /**
+     * End of the grid layers; the landmark section starts there, padded to 8 bytes
+     */
+    private static long layersEnd(int flags, int nodeCount) {
+        long end = HEADER_BYTES + ((nodeCount + 63L) >>> 6) * 8 + nodeCount;
+        if ((flags & HAS_CONNECTION_MASKS) != 0) {
+            end += nodeCount;
+        }
+        return end;
+    }
+
+    private static int padding(long position) {
+        return (int) ((8 - (position & 7)) & 7);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.mainsh;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ImmediateModeRenderer20;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Draws the static part of a grid (a quad per cell, coloured by walkability, and the grid lines) from one
+ * vertex buffer kept on the GPU, with a single draw call per frame. Cell quads are stored chunk by chunk;
+ * a GridDirtyChunks listener on the world notes which chunks edits touched, and only those are rebuilt and
+ * uploaded with glBufferSubData before the next draw. Grid lines are 1-pixel quads written once.
+ * Vertices are x, y and a packed colour, drawn as plain triangles: the cell count of a large grid is far
+ * past what short indices can address.
+ */
+public class GridMeshRenderer implements Disposable {
+    // Cells along each side of a chunk
+    static final int CHUNK_SIZE = 32;
+
+    private static final int FLOATS_PER_VERTEX = 3;
+    private static final int VERTICES_PER_QUAD = 6;
+    private static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * VERTICES_PER_QUAD;
+
+    private static final float WALKABLE_COLOR = Color.toFloatBits(0.2f, 0.2f, 0.2f, 1);
+    private static final float BLOCKED_COLOR = Color.toFloatBits(0.8f, 0.2f, 0.2f, 1);
+    private static final float LINE_COLOR = Color.toFloatBits(0.3f, 0.3f, 0.3f, 1);
+
+    private final float cellSize;
+    private final ShaderProgram shader;
+
+    private GridWorld world;
+    private GridDirtyChunks dirtyChunks;
+
+    // GL buffer holding every vertex, and how many there are
+    private int bufferHandle;
+    private int vertexCount;
+    // First vertex of each chunk's cell quads; grid lines follow the last chunk
+    private int[] chunkFirstVertex;
+
+    // Vertices of the chunk being rebuilt, before upload
+    private final FloatBuffer chunkVertices = BufferUtils.newFloatBuffer(CHUNK_SIZE * CHUNK_SIZE * FLOATS_PER_QUAD);
+
+    public GridMeshRenderer(GridWorld world, float cellSize) {
+        this.cellSize = cellSize;
+        this.shader = ImmediateModeRenderer20.createDefaultShader(false, true, 0);
+        setWorld(world);
+    }
+
+    /**
+     * Draw a different grid from now on, such as a replacement after a reset
+     */
+    public void setWorld(GridWorld world) {
+        if (this.world != null) {
+            this.world.removeListener(dirtyChunks);
+        }
+        this.world = world;
+        dirtyChunks = new GridDirtyChunks(world.getWidth(), world.getHeight(), CHUNK_SIZE);
+        world.addListener(dirtyChunks);
+
+        chunkFirstVertex = new int[dirtyChunks.getChunkCount()];
+        int vertex = 0;
+        for (int chunk = 0; chunk < chunkFirstVertex.length; chunk++) {
+            chunkFirstVertex[chunk] = vertex;
+            vertex += dirtyChunks.getCellCount(chunk) * VERTICES_PER_QUAD;
+        }
+        int lineCount = world.getWidth() + 1 + world.getHeight() + 1;
+        vertexCount = vertex + lineCount * VERTICES_PER_QUAD;
+
+        if (bufferHandle != 0) {
+            Gdx.gl.glDeleteBuffer(bufferHandle);
+        }
+        bufferHandle = Gdx.gl.glGenBuffer();
+        Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, bufferHandle);
+        Gdx.gl.glBufferData(GL20.GL_ARRAY_BUFFER, vertexCount * FLOATS_PER_VERTEX * 4, null, GL20.GL_STATIC_DRAW);
+        uploadLines(vertex);
+        Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Rebuild the chunks edited since the last frame, then draw the whole grid
+     */
+    public void render(Matrix4 projection) {
+        Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, bufferHandle);
+        for (int i = 0; i < dirtyChunks.getDirtyCount(); i++) {
+            uploadChunk(dirtyChunks.getDirtyChunk(i));
+        }
+        dirtyChunks.clear();
+
+        shader.bind();
+        shader.setUniformMatrix("u_projModelView", projection);
+        int stride = FLOATS_PER_VERTEX * 4;
+        shader.enableVertexAttribute(ShaderProgram.POSITION_ATTRIBUTE);
+        shader.setVertexAttribute(ShaderProgram.POSITION_ATTRIBUTE, 2, GL20.GL_FLOAT, false, stride, 0);
+        shader.enableVertexAttribute(ShaderProgram.COLOR_ATTRIBUTE);
+        shader.setVertexAttribute(ShaderProgram.COLOR_ATTRIBUTE, 4, GL20.GL_UNSIGNED_BYTE, true, stride, 8);
+
+        Gdx.gl.glDrawArrays(GL20.GL_TRIANGLES, 0, vertexCount);
+
+        shader.disableVertexAttribute(ShaderProgram.POSITION_ATTRIBUTE);
+        shader.disableVertexAttribute(ShaderProgram.COLOR_ATTRIBUTE);
+        Gdx.gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Write the cell quads of a chunk, with the same 1-pixel border the cells always had, and upload them
+     */
+    private void uploadChunk(int chunk) {
+        int minX = dirtyChunks.getChunkMinX(chunk);
+        int minY = dirtyChunks.getChunkMinY(chunk);
+        int maxX = minX + dirtyChunks.getChunkWidth(chunk);
+        int maxY = minY + dirtyChunks.getChunkHeight(chunk);
+
+        chunkVertices.clear();
+        for (int y = minY; y < maxY; y++) {
+            for (int x = minX; x < maxX; x++) {
+                float color = world.isWalkable(x, y) ? WALKABLE_COLOR : BLOCKED_COLOR;
+                putQuad(chunkVertices, x * cellSize + 1, y * cellSize + 1,
+                    (x + 1) * cellSize - 1, (y + 1) * cellSize - 1, color);
+            }
+        }
+        chunkVertices.flip();
+        Gdx.gl.glBufferSubData(GL20.GL_ARRAY_BUFFER, chunkFirstVertex[chunk] * FLOATS_PER_VERTEX * 4,
+            chunkVertices.limit() * 4, chunkVertices);
+    }
+
+    /**
+     * Write the grid lines as thin quads, starting at firstVertex; the buffer must be bound
+     */
+    private void uploadLines(int firstVertex) {
+        float gridWidth = world.getWidth() * cellSize;
+        float gridHeight = world.getHeight() * cellSize;
+        FloatBuffer lines = BufferUtils.newFloatBuffer((world.getWidth() + world.getHeight() + 2) * FLOATS_PER_QUAD);
+        for (int x = 0; x <= world.getWidth(); x++) {
+            float lineX = x * cellSize;
+            putQuad(lines, lineX - 0.5f, 0, lineX + 0.5f, gridHeight, LINE_COLOR);
+        }
+        for (int y = 0; y <= world.getHeight(); y++) {
+            float lineY = y * cellSize;
+            putQuad(lines, 0, lineY - 0.5f, gridWidth, lineY + 0.5f, LINE_COLOR);
+        }
+        lines.flip();
+        Gdx.gl.glBufferSubData(GL20.GL_ARRAY_BUFFER, firstVertex * FLOATS_PER_VERTEX * 4, lines.limit() * 4, lines);
+    }
+
+    /**
+     * Two triangles covering the rectangle from (x1, y1) to (x2, y2)
+     */
+    private static void putQuad(FloatBuffer out, float x1, float y1, float x2, float y2, float color) {
+        out.put(x1).put(y1).put(color);
+        out.put(x2).put(y1).put(color);
+        out.put(x2).put(y2).put(color);
+        out.put(x2).put(y2).put(color);
+        out.put(x1).put(y2).put(color);
+        out.put(x1).put(y1).put(color);
+    }
+
+    @Override
+    public void dispose() {
+        if (world != null) {
+            world.removeListener(dirtyChunks);
+        }
+        if (bufferHandle != 0) {
+            Gdx.gl.glDeleteBuffer(bufferHandle);
+            bufferHandle = 0;
+        }
+        shader.dispose();
+    }
+
+    public GridDirtyChunks getDirtyChunks() { return dirtyChunks; }
+}
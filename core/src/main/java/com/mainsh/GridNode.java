@@ -16,6 +16,12 @@ public class GridNode {
     // Array of connections to neighboring nodes
     private Array<Connection<GridNode>> connections;
 
+    // One connection per Connectivity direction, created the first time the step is allowed and reused after
+    private GridConnection[] connectionsByDirection;
+
+    // Connection mask the list was last built from, -1 before the first build
+    private int connectionMask = -1;
+
     public GridNode(int x, int y, int index, boolean walkable) {
         this.x = x;
         this.y = y;
@@ -37,4 +43,18 @@ public class GridNode {
     public void addConnection(GridConnection connection) {
         connections.add(connection);
     }
+
+    public GridConnection getConnection(int direction) {
+        return connectionsByDirection == null ? null : connectionsByDirection[direction];
+    }
+
+    public void setConnection(int direction, GridConnection connection) {
+        if (connectionsByDirection == null) {
+            connectionsByDirection = new GridConnection[8];
+        }
+        connectionsByDirection[direction] = connection;
+    }
+
+    public int getConnectionMask() { return connectionMask; }
+    public void setConnectionMask(int connectionMask) { this.connectionMask = connectionMask; }
 }
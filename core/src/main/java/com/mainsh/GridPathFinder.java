@@ -0,0 +1,18 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A search engine over GridWorld cell indices
+ */
+public interface GridPathFinder {
+    /**
+     * Find a path between two cell indices, writing every cell on it (start first) into out
+     */
+    boolean findPath(int start, int goal, IntArray out);
+
+    /**
+     * Number of nodes expanded by the last search
+     */
+    int getExpandedCount();
+}
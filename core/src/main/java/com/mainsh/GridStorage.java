@@ -0,0 +1,13 @@
+package com.mainsh;
+
+/**
+ * Backing layout used by a GridWorld
+ */
+public enum GridStorage {
+    // One GridNode object per cell, each holding its own list of GridConnection objects
+    NODES,
+
+    // Flat primitive arrays; neighbours are computed from the cell index and
+    // GridNode objects are only created when something asks for them
+    FLAT
+}
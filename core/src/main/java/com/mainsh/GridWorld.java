@@ -3,133 +3,360 @@ package com.mainsh;
 import com.badlogic.gdx.ai.pfa.Connection;
 import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
 import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
 import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
 import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
 
 public class GridWorld implements IndexedGraph<GridNode> {
+    // Highest cost a cell can have
+    public static final int MAX_COST = 255;
+
+    // Most GridNode views a FLAT grid keeps cached
+    static final int FLAT_NODE_CACHE_SIZE = 1 << 14;
+
     private int width;
     private int height;
     private GridNode[][] nodes;
     private int nodeCount;
 
-    // Manhattan distance heuristic for A*
-    private ManhattanDistance heuristic = new ManhattanDistance();
+    // Backing layout chosen at construction
+    private final GridStorage storage;
+
+    // Neighbours each cell is connected to
+    private final Connectivity connectivity;
+
+    // Walkability of every cell, one bit per cell indexed by y * width + x
+    private final long[] walkableBits;
+
+    // Steps allowed out of each cell, bit d set when the step in Connectivity direction d is allowed.
+    // Kept current by every edit, so gdx connection lists are only rebuilt from it when a search asks
+    private final byte[] connectionMasks;
+
+    // Index offset of a step in each Connectivity direction
+    private final int[] stepOffsets = new int[8];
+
+    // Movement cost of entering each cell, 1 to MAX_COST stored as an unsigned byte
+    private final byte[] costs;
 
-    // Pathfinder instance
+    // Number of cells at each cost, so the cheapest and dearest cost stay known without a scan
+    private final int[] costCounts = new int[MAX_COST + 1];
+    private int minCost = 1;
+    private int maxCost = 1;
+
+    // GridNode views created on demand in FLAT mode, direct-mapped by index so the cache stays bounded.
+    // A view pushed out by another is only dropped from the cache; whoever still holds it can keep
+    // using it, though later edits no longer update its walkable flag
+    private GridNode[] flatNodes;
+    private int flatNodeMask;
+
+    // Manhattan distance heuristic for A* on 4-way grids, octile distance when diagonals are allowed
+    private Heuristic<GridNode> heuristic;
+
+    // gdx-ai A* over GridNode objects, created on the first such query of a NODES grid. It keeps a record
+    // per cell, see GridFootprint.estimateSearchBytes. Each record holds on to the node it was made for,
+    // which FLAT views can't allow, so FLAT grids answer GridNode queries with the index-based A*
     private IndexedAStarPathFinder<GridNode> pathfinder;
 
+    // Index-based search engines, created on first use
+    private GridAStar gridAStar;
+    private JumpPointSearch jumpPointSearch;
+    private JumpPointSearchPlus jumpPointSearchPlus;
+    private HierarchicalPathfinder hierarchicalPathfinder;
+    private BidirectionalAStar bidirectionalAStar;
+
+    // Connected regions, so searches between cells that can't reach each other are rejected up front
+    private RegionIndex regionIndex;
+
+    // Notified after every cell edit
+    private final Array<GridListener> listeners = new Array<GridListener>();
+
+    // Incremented by every edit, so copies and caches can tell when they are stale
+    private int version;
+
+    // Nesting depth of beginEdit/endEdit, and the bounds of the cells edited inside the outermost batch
+    private int editDepth;
+    private int dirtyMinX;
+    private int dirtyMinY;
+    private int dirtyMaxX;
+    private int dirtyMaxY;
+
     public GridWorld(int width, int height) {
+        this(width, height, GridStorage.NODES);
+    }
+
+    public GridWorld(int width, int height, GridStorage storage) {
+        this(width, height, storage, Connectivity.FOUR);
+    }
+
+    public GridWorld(int width, int height, GridStorage storage, Connectivity connectivity) {
+        // Initially, all nodes are walkable with unit cost
+        this(width, height, storage, connectivity, openCells(width * height), unitCosts(width * height), null);
+    }
+
+    /**
+     * Build a grid around existing layers, as GridMapFile does; the arrays are used as they are, not copied.
+     * Connection masks are computed when null
+     */
+    GridWorld(int width, int height, GridStorage storage, Connectivity connectivity,
+              long[] walkableBits, byte[] costs, byte[] connectionMasks) {
         this.width = width;
         this.height = height;
         this.nodeCount = width * height;
+        this.storage = storage;
+        this.connectivity = connectivity;
+        this.heuristic = connectivity.allowsDiagonals() ? new OctileDistance(this) : new ManhattanDistance(this);
+
+        this.walkableBits = walkableBits;
+        this.costs = costs;
+        for (int i = 0; i < nodeCount; i++) {
+            costCounts[costs[i] & 0xFF]++;
+        }
+        updateCostRange();
+
+        for (int direction = 0; direction < 8; direction++) {
+            stepOffsets[direction] = Connectivity.STEP_Y[direction] * width + Connectivity.STEP_X[direction];
+        }
+        if (connectionMasks == null) {
+            connectionMasks = new byte[nodeCount];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    connectionMasks[y * width + x] = computeMask(x, y);
+                }
+            }
+        }
+        this.connectionMasks = connectionMasks;
+
+        if (storage == GridStorage.FLAT) {
+            flatNodes = new GridNode[Math.min(FLAT_NODE_CACHE_SIZE, MathUtils.nextPowerOfTwo(Math.max(nodeCount, 1)))];
+            flatNodeMask = flatNodes.length - 1;
+        } else {
+            buildNodes();
+        }
+    }
+
+    /**
+     * Walkability bits with every cell set
+     */
+    private static long[] openCells(int nodeCount) {
+        long[] bits = new long[(nodeCount + 63) >>> 6];
+        Arrays.fill(bits, -1L);
+        if ((nodeCount & 63) != 0) {
+            // Bits past the last cell stay clear
+            bits[bits.length - 1] = (1L << nodeCount) - 1;
+        }
+        return bits;
+    }
+
+    private static byte[] unitCosts(int nodeCount) {
+        byte[] costs = new byte[nodeCount];
+        Arrays.fill(costs, (byte) 1);
+        return costs;
+    }
+
+    /**
+     * Allocate one GridNode per cell and connect it to its neighbours
+     */
+    private void buildNodes() {
         this.nodes = new GridNode[width][height];
 
         // Initialize all nodes
         int index = 0;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                // Initially, all nodes are walkable
-                nodes[x][y] = new GridNode(x, y, index++, true);
+                nodes[x][y] = new GridNode(x, y, index, isWalkable(index));
+                index++;
             }
         }
 
         // Connect neighboring nodes
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                GridNode node = nodes[x][y];
-
-                // Connect to adjacent nodes (4-way movement)
-                // North
-                if (y < height - 1) {
-                    connectNodes(node, nodes[x][y + 1]);
-                }
-                // East
-                if (x < width - 1) {
-                    connectNodes(node, nodes[x + 1][y]);
-                }
-                // South
-                if (y > 0) {
-                    connectNodes(node, nodes[x][y - 1]);
-                }
-                // West
-                if (x > 0) {
-                    connectNodes(node, nodes[x - 1][y]);
-                }
-
-                // For 8-way movement, add diagonal connections
-                // Northeast
-                // if (x < width - 1 && y < height - 1) {
-                //     connectNodes(node, nodes[x + 1][y + 1]);
-                // }
-                // Southeast
-                // if (x < width - 1 && y > 0) {
-                //     connectNodes(node, nodes[x + 1][y - 1]);
-                // }
-                // Southwest
-                // if (x > 0 && y > 0) {
-                //     connectNodes(node, nodes[x - 1][y - 1]);
-                // }
-                // Northwest
-                // if (x > 0 && y < height - 1) {
-                //     connectNodes(node, nodes[x - 1][y + 1]);
-                // }
+                getConnections(nodes[x][y]);
             }
         }
-
-        // Create the A* pathfinder
-        pathfinder = new IndexedAStarPathFinder<GridNode>(this);
     }
 
     /**
-     * Helper method to connect two nodes
+     * Allowed steps out of (x, y) worked out from the walkability bits, bit d for Connectivity direction d
      */
-    private void connectNodes(GridNode fromNode, GridNode toNode) {
-        // Only connect if both nodes are walkable
-        if (fromNode.isWalkable() && toNode.isWalkable()) {
-            fromNode.addConnection(new GridConnection(fromNode, toNode));
+    private byte computeMask(int x, int y) {
+        if (!isWalkable(x, y)) {
+            return 0;
+        }
+        int mask = 0;
+        // North, East, South, West
+        for (int direction = 0; direction < 4; direction++) {
+            if (isWalkable(x + Connectivity.STEP_X[direction], y + Connectivity.STEP_Y[direction])) {
+                mask |= 1 << direction;
+            }
         }
+        // Northeast, Southeast, Southwest, Northwest, as the corner rule allows
+        for (int direction = 4; direction < connectivity.getDirectionCount(); direction++) {
+            if (canMoveDiagonally(x, y, Connectivity.STEP_X[direction], Connectivity.STEP_Y[direction])) {
+                mask |= 1 << direction;
+            }
+        }
+        return (byte) mask;
     }
 
     /**
-     * Set whether a node is walkable and update connections
+     * Set whether a node is walkable and update connections.
+     * Only the masks of the cell and its neighbours are touched, nothing is allocated;
+     * connection lists catch up the next time a search asks for them
      */
     public void setWalkable(int x, int y, boolean walkable) {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             return; // Out of bounds
         }
 
-        GridNode node = nodes[x][y];
-        node.setWalkable(walkable);
+        int index = toIndex(x, y);
+        if (isWalkable(index) == walkable) {
+            return; // Nothing changes
+        }
+        if (walkable) {
+            walkableBits[index >>> 6] |= 1L << index;
+        } else {
+            walkableBits[index >>> 6] &= ~(1L << index);
+        }
 
-        // Clear existing connections
-        node.getConnections().clear();
+        GridNode node = storage == GridStorage.FLAT ? flatNodes[index & flatNodeMask] : nodes[x][y];
+        if (node != null && node.getIndex() == index) {
+            node.setWalkable(walkable);
+        }
+        updateMasks(x, y);
 
-        // If the node is now walkable, reconnect it to neighbors
-        if (walkable) {
-            // North
-            if (y < height - 1 && nodes[x][y + 1].isWalkable()) {
-                connectNodes(node, nodes[x][y + 1]);
-                connectNodes(nodes[x][y + 1], node);
+        if (editDepth > 0) {
+            // Listeners hear about the whole batch in endEdit
+            dirtyMinX = Math.min(dirtyMinX, x);
+            dirtyMinY = Math.min(dirtyMinY, y);
+            dirtyMaxX = Math.max(dirtyMaxX, x);
+            dirtyMaxY = Math.max(dirtyMaxY, y);
+            return;
+        }
+
+        version++;
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).cellChanged(x, y);
+        }
+    }
+
+    /**
+     * Recompute the masks of a cell and of its neighbours after its walkability changed.
+     * With diagonals a cell also decides whether the steps cutting past its corners are allowed,
+     * so all eight neighbours are recomputed
+     */
+    private void updateMasks(int x, int y) {
+        connectionMasks[toIndex(x, y)] = computeMask(x, y);
+        int directions = connectivity.getDirectionCount();
+        for (int direction = 0; direction < directions; direction++) {
+            int neighbourX = x + Connectivity.STEP_X[direction];
+            int neighbourY = y + Connectivity.STEP_Y[direction];
+            if (isInBounds(neighbourX, neighbourY)) {
+                connectionMasks[toIndex(neighbourX, neighbourY)] = computeMask(neighbourX, neighbourY);
             }
-            // East
-            if (x < width - 1 && nodes[x + 1][y].isWalkable()) {
-                connectNodes(node, nodes[x + 1][y]);
-                connectNodes(nodes[x + 1][y], node);
+        }
+    }
+
+    /**
+     * Start a batch of walkability edits. Until the matching endEdit, setWalkable only updates the grid;
+     * the version moves once and listeners hear about the batch once, through regionChanged. Batches may nest
+     */
+    public void beginEdit() {
+        if (editDepth++ == 0) {
+            dirtyMinX = dirtyMinY = Integer.MAX_VALUE;
+            dirtyMaxX = dirtyMaxY = Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Finish a batch started by beginEdit, notifying listeners of the rectangle bounding the edited cells
+     */
+    public void endEdit() {
+        if (editDepth == 0) {
+            throw new IllegalStateException("endEdit without a matching beginEdit");
+        }
+        if (--editDepth > 0 || dirtyMinX > dirtyMaxX) {
+            return; // Still nested, or nothing changed
+        }
+
+        version++;
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).regionChanged(dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY);
+        }
+    }
+
+    /**
+     * Set the walkability of every cell in a rectangle (corners inclusive, clipped to the grid) as one batch
+     */
+    public void fillWalkable(int minX, int minY, int maxX, int maxY, boolean walkable) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, width - 1);
+        maxY = Math.min(maxY, height - 1);
+
+        beginEdit();
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                setWalkable(x, y, walkable);
             }
-            // South
-            if (y > 0 && nodes[x][y - 1].isWalkable()) {
-                connectNodes(node, nodes[x][y - 1]);
-                connectNodes(nodes[x][y - 1], node);
+        }
+        endEdit();
+    }
+
+    /**
+     * Make a FLAT copy of the cells. Searches on the copy can run on another thread while this grid keeps changing
+     */
+    public GridWorld snapshot() {
+        GridWorld copy = new GridWorld(width, height, GridStorage.FLAT, connectivity);
+        System.arraycopy(walkableBits, 0, copy.walkableBits, 0, walkableBits.length);
+        System.arraycopy(connectionMasks, 0, copy.connectionMasks, 0, connectionMasks.length);
+        System.arraycopy(costs, 0, copy.costs, 0, costs.length);
+        System.arraycopy(costCounts, 0, copy.costCounts, 0, costCounts.length);
+        copy.minCost = minCost;
+        copy.maxCost = maxCost;
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Bring a copy made by snapshot() up to date, replaying only the cells that differ.
+     * Walkability changes reach listeners as one batch, cost changes cell by cell
+     */
+    public void syncFrom(GridWorld source) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException("Cannot sync a " + width + "x" + height
+                + " grid from a " + source.width + "x" + source.height + " grid");
+        }
+
+        beginEdit();
+        for (int word = 0; word < walkableBits.length; word++) {
+            long changed = walkableBits[word] ^ source.walkableBits[word];
+            while (changed != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                setWalkable(index % width, index / width, source.isWalkable(index));
             }
-            // West
-            if (x > 0 && nodes[x - 1][y].isWalkable()) {
-                connectNodes(node, nodes[x - 1][y]);
-                connectNodes(nodes[x - 1][y], node);
+        }
+        endEdit();
+        for (int index = 0; index < nodeCount; index++) {
+            if (costs[index] != source.costs[index]) {
+                setCost(index % width, index / width, source.getCost(index));
             }
-
-            // Add diagonals for 8-way movement if needed
         }
+        version = source.version;
+    }
+
+    public void addListener(GridListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GridListener listener) {
+        listeners.removeValue(listener, true);
     }
 
     /**
@@ -139,29 +366,282 @@ public class GridWorld implements IndexedGraph<GridNode> {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             return null; // Out of bounds
         }
+        if (storage == GridStorage.FLAT) {
+            return getFlatNode(toIndex(x, y));
+        }
         return nodes[x][y];
     }
 
+    /**
+     * Get the node view for an index in FLAT mode, creating it when it isn't cached. Grids no larger than
+     * the cache always get the same view back for a cell
+     */
+    GridNode getFlatNode(int index) {
+        int slot = index & flatNodeMask;
+        GridNode node = flatNodes[slot];
+        if (node == null || node.getIndex() != index) {
+            node = new GridNode(index % width, index / width, index, isWalkable(index));
+            flatNodes[slot] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Whether the cell at a position can be walked on; false when out of bounds
+     */
+    public boolean isWalkable(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        return isWalkable(toIndex(x, y));
+    }
+
+    /**
+     * Whether the cell with the given index can be walked on
+     */
+    public boolean isWalkable(int index) {
+        return (walkableBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Whether a diagonal step from (x, y) by (dx, dy) is allowed: the destination must be walkable,
+     * and the cells beside the step must satisfy the corner rule. Always false on 4-way grids
+     */
+    public boolean canMoveDiagonally(int x, int y, int dx, int dy) {
+        if (connectivity == Connectivity.FOUR || !isWalkable(x + dx, y + dy)) {
+            return false;
+        }
+        boolean besideX = isWalkable(x + dx, y);
+        boolean besideY = isWalkable(x, y + dy);
+        return connectivity == Connectivity.EIGHT ? besideX || besideY : besideX && besideY;
+    }
+
+    /**
+     * Allowed steps out of the cell with the given index, bit d set for Connectivity direction d; 0 for a blocked cell
+     */
+    public int getConnectionMask(int index) {
+        return connectionMasks[index] & 0xFF;
+    }
+
+    /**
+     * Whether the step out of the cell with the given index in a Connectivity direction is allowed
+     */
+    public boolean canStep(int index, int direction) {
+        return (connectionMasks[index] & (1 << direction)) != 0;
+    }
+
+    /**
+     * Movement cost of entering the cell with the given index
+     */
+    public int getCost(int index) {
+        return costs[index] & 0xFF;
+    }
+
+    /**
+     * Set the movement cost of entering a cell, from 1 to MAX_COST. Connections are left alone
+     */
+    public void setCost(int x, int y, int cost) {
+        paintCost(x, y, x, y, cost);
+    }
+
+    /**
+     * Set the movement cost of every cell in a rectangle (corners inclusive, clipped to the grid).
+     * Listeners hear about the whole rectangle at once
+     */
+    public void paintCost(int minX, int minY, int maxX, int maxY, int cost) {
+        if (cost < 1 || cost > MAX_COST) {
+            throw new IllegalArgumentException("Cell cost must be between 1 and " + MAX_COST + ": " + cost);
+        }
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, width - 1);
+        maxY = Math.min(maxY, height - 1);
+        if (minX > maxX || minY > maxY) {
+            return; // Out of bounds
+        }
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int index = toIndex(minX, y), end = toIndex(maxX, y); index <= end; index++) {
+                costCounts[costs[index] & 0xFF]--;
+                costs[index] = (byte) cost;
+            }
+        }
+        costCounts[cost] += (maxX - minX + 1) * (maxY - minY + 1);
+        updateCostRange();
+
+        version++;
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).costsChanged(minX, minY, maxX, maxY);
+        }
+    }
+
+    /**
+     * Find the cheapest and dearest cost in use from the histogram
+     */
+    private void updateCostRange() {
+        minCost = 1;
+        while (minCost < MAX_COST && costCounts[minCost] == 0) {
+            minCost++;
+        }
+        maxCost = MAX_COST;
+        while (maxCost > minCost && costCounts[maxCost] == 0) {
+            maxCost--;
+        }
+    }
+
+    /**
+     * Cheapest cost of any cell; heuristics scale by it to stay admissible
+     */
+    public int getMinCost() {
+        return minCost;
+    }
+
+    /**
+     * Whether every cell costs the same, which searches that count steps instead of costs rely on
+     */
+    public boolean isUniformCost() {
+        return minCost == maxCost;
+    }
+
+    public int toIndex(int x, int y) {
+        return y * width + x;
+    }
+
     /**
      * Find path between start and goal positions
      */
     public GraphPath<GridNode> findPath(int startX, int startY, int goalX, int goalY) {
-        GridNode startNode = getNode(startX, startY);
-        GridNode goalNode = getNode(goalX, goalY);
-
-        if (startNode == null || goalNode == null) {
+        if (!isInBounds(startX, startY) || !isInBounds(goalX, goalY)) {
             return null; // Invalid coordinates
         }
+        if (!getRegionIndex().isConnected(toIndex(startX, startY), toIndex(goalX, goalY))) {
+            return null; // Different regions, no need to search
+        }
 
         // Create path object to store the result
         GraphPath<GridNode> path = new DefaultGraphPath<>();
 
+        if (storage == GridStorage.FLAT) {
+            IntArray cells = new IntArray();
+            if (!getPathFinder(PathAlgorithm.INDEXED_ASTAR).findPath(toIndex(startX, startY), toIndex(goalX, goalY), cells)) {
+                return null;
+            }
+            for (int i = 0; i < cells.size; i++) {
+                path.add(getFlatNode(cells.get(i)));
+            }
+            return path;
+        }
+
         // Find the path
-        boolean pathFound = pathfinder.searchNodePath(startNode, goalNode, heuristic, path);
+        if (pathfinder == null) {
+            pathfinder = new IndexedAStarPathFinder<GridNode>(this);
+        }
+        boolean pathFound = pathfinder.searchNodePath(nodes[startX][startY], nodes[goalX][goalY], heuristic, path);
 
         return pathFound ? path : null;
     }
 
+    /**
+     * Find path between start and goal positions using the index-based A* engine.
+     * The cell indices of the path (start first) are written into out; nothing is allocated once warmed up
+     */
+    public boolean findPath(int startX, int startY, int goalX, int goalY, IntArray out) {
+        return findPath(startX, startY, goalX, goalY, PathAlgorithm.INDEXED_ASTAR, out);
+    }
+
+    /**
+     * Find path between start and goal positions with the chosen algorithm, writing cell indices (start first) into out
+     */
+    public boolean findPath(int startX, int startY, int goalX, int goalY, PathAlgorithm algorithm, IntArray out) {
+        if (!isInBounds(startX, startY) || !isInBounds(goalX, goalY)) {
+            out.clear();
+            return false; // Invalid coordinates
+        }
+        if (!getRegionIndex().isConnected(toIndex(startX, startY), toIndex(goalX, goalY))) {
+            out.clear();
+            return false; // Different regions, no need to search
+        }
+
+        if (algorithm == PathAlgorithm.ASTAR && storage == GridStorage.NODES) {
+            out.clear();
+            GraphPath<GridNode> path = findPath(startX, startY, goalX, goalY);
+            if (path == null) {
+                return false;
+            }
+            for (int i = 0; i < path.getCount(); i++) {
+                out.add(path.get(i).getIndex());
+            }
+            return true;
+        }
+
+        if (algorithm == PathAlgorithm.ASTAR) {
+            // No gdx-ai search over FLAT views, see pathfinder
+            algorithm = PathAlgorithm.INDEXED_ASTAR;
+        }
+        return getPathFinder(algorithm).findPath(toIndex(startX, startY), toIndex(goalX, goalY), out);
+    }
+
+    /**
+     * Get the index-based engine for an algorithm, creating it on first use
+     */
+    public GridPathFinder getPathFinder(PathAlgorithm algorithm) {
+        switch (algorithm) {
+            case JPS:
+                if (jumpPointSearch == null) {
+                    jumpPointSearch = new JumpPointSearch(this);
+                }
+                return jumpPointSearch;
+            case JPS_PLUS:
+                if (jumpPointSearchPlus == null) {
+                    // Jump tables follow every later edit
+                    jumpPointSearchPlus = new JumpPointSearchPlus(this);
+                    addListener(jumpPointSearchPlus);
+                }
+                return jumpPointSearchPlus;
+            case HPA:
+                if (hierarchicalPathfinder == null) {
+                    // Clusters rebuild themselves on later edits
+                    hierarchicalPathfinder = new HierarchicalPathfinder(this);
+                    addListener(hierarchicalPathfinder);
+                }
+                return hierarchicalPathfinder;
+            case BIDIRECTIONAL_ASTAR:
+                if (bidirectionalAStar == null) {
+                    bidirectionalAStar = new BidirectionalAStar(this);
+                }
+                return bidirectionalAStar;
+            case INDEXED_ASTAR:
+                if (gridAStar == null) {
+                    gridAStar = new GridAStar(this);
+                }
+                return gridAStar;
+            default:
+                throw new IllegalArgumentException("No index-based engine for " + algorithm);
+        }
+    }
+
+    /**
+     * Get the connected-region index, building it on first use; it follows every later edit
+     */
+    public RegionIndex getRegionIndex() {
+        if (regionIndex == null) {
+            regionIndex = new RegionIndex(this);
+        }
+        return regionIndex;
+    }
+
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public int getX(int index) {
+        return index % width;
+    }
+
+    public int getY(int index) {
+        return index / width;
+    }
+
     @Override
     public int getIndex(GridNode node) {
         return node.getIndex();
@@ -174,9 +654,55 @@ public class GridWorld implements IndexedGraph<GridNode> {
 
     @Override
     public Array<Connection<GridNode>> getConnections(GridNode fromNode) {
+        int mask = connectionMasks[fromNode.getIndex()] & 0xFF;
+        if (fromNode.getConnectionMask() != mask) {
+            rebuildConnections(fromNode, mask);
+        }
         return fromNode.getConnections();
     }
 
+    /**
+     * Refill the connection list of a node from its mask. Each node keeps one connection per direction once
+     * created, so after a step has been seen once, toggling it back and forth never allocates
+     */
+    private void rebuildConnections(GridNode node, int mask) {
+        Array<Connection<GridNode>> connections = node.getConnections();
+        connections.clear();
+        // North, East, South, West, then Northeast, Southeast, Southwest, Northwest
+        for (int direction = 0; direction < 8; direction++) {
+            if ((mask & (1 << direction)) == 0) {
+                continue;
+            }
+            GridConnection connection = node.getConnection(direction);
+            if (connection == null) {
+                int index = node.getIndex() + stepOffsets[direction];
+                if (storage == GridStorage.FLAT) {
+                    // Looks its view up when asked, so cached views never keep each other alive
+                    connection = new FlatGridConnection(this, node, index, direction >= 4);
+                } else {
+                    connection = new GridConnection(this, node, nodes[index % width][index / width]);
+                }
+                node.setConnection(direction, connection);
+            }
+            connections.add(connection);
+        }
+        node.setConnectionMask(mask);
+    }
+
     public int getWidth() { return width; }
     public int getHeight() { return height; }
+    public GridStorage getStorage() { return storage; }
+    public Connectivity getConnectivity() { return connectivity; }
+    public Heuristic<GridNode> getHeuristic() { return heuristic; }
+
+    /**
+     * Replace the heuristic used for GridNode searches, e.g. with a LandmarkHeuristic; it must never overestimate
+     */
+    public void setHeuristic(Heuristic<GridNode> heuristic) { this.heuristic = heuristic; }
+    public int getVersion() { return version; }
+
+    // Live backing layers for GridMapFile, not copies
+    long[] getWalkableBits() { return walkableBits; }
+    byte[] getCosts() { return costs; }
+    byte[] getConnectionMasks() { return connectionMasks; }
 }
@@ -0,0 +1,498 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical pathfinding (HPA*) over a GridWorld.
+ * The grid is cut into square clusters. Where two clusters share a run of walkable cells an entrance
+ * is placed (one in the middle of short runs, one at each end of long ones), and the cells on either
+ * side become abstract nodes. Each cluster caches the distances between its abstract nodes, so a query
+ * only searches the small abstract graph and then refines each hop with a search inside one cluster.
+ * On 8-way grids the searches inside a cluster step diagonally too, while clusters are still
+ * entered through their straight entrances. Paths are near-optimal rather than optimal; when start and
+ * goal are in the same or neighbouring clusters a direct search over those clusters competes with the
+ * abstract route, so short trips don't detour through far entrances.
+ * Edits only rebuild the cluster holding the cell, plus the neighbouring cluster when the cell sits
+ * on a shared border.
+ */
+public class HierarchicalPathfinder implements GridPathFinder, GridListener {
+    // Runs of at least this many walkable cells get an entrance at each end instead of one in the middle
+    private static final int LONG_ENTRANCE = 6;
+
+    private final GridWorld world;
+    private final int width;
+    private final int height;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+
+    // Abstract node cells of each cluster and the cached costs between them (row-major, count x count)
+    private final IntArray[] clusterNodes;
+    private final float[][] clusterCosts;
+
+    // One bit per cell, set when the cell is an abstract node
+    private final long[] abstractBits;
+
+    // Abstract search state, indexed by cell
+    private final IndexedNodeHeap open;
+    private final float[] costSoFar;
+    private final int[] parent;
+    private final int[] seen;
+    private final int[] closed;
+    private int generation;
+
+    // Search confined to one cluster, indexed by cell
+    private final IndexedNodeHeap localOpen;
+    private final float[] localCost;
+    private final int[] localParent;
+    private final int[] localSeen;
+    private int localGeneration;
+
+    // Costs from the start and goal of the current query to the abstract nodes of their clusters
+    private final FloatArray startCosts = new FloatArray();
+    private final FloatArray goalCosts = new FloatArray();
+    private final IntArray abstractPath = new IntArray();
+
+    private int expandedCount;
+
+    public HierarchicalPathfinder(GridWorld world) {
+        this(world, 16);
+    }
+
+    public HierarchicalPathfinder(GridWorld world, int clusterSize) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.height = world.getHeight();
+        this.clusterSize = clusterSize;
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clustersY = (height + clusterSize - 1) / clusterSize;
+
+        int nodeCount = world.getNodeCount();
+        this.abstractBits = new long[(nodeCount + 63) >>> 6];
+        this.open = new IndexedNodeHeap(nodeCount);
+        this.costSoFar = new float[nodeCount];
+        this.parent = new int[nodeCount];
+        this.seen = new int[nodeCount];
+        this.closed = new int[nodeCount];
+        this.localOpen = new IndexedNodeHeap(nodeCount);
+        this.localCost = new float[nodeCount];
+        this.localParent = new int[nodeCount];
+        this.localSeen = new int[nodeCount];
+
+        int clusterCount = clustersX * clustersY;
+        this.clusterNodes = new IntArray[clusterCount];
+        this.clusterCosts = new float[clusterCount][];
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            clusterNodes[cluster] = new IntArray();
+            findEntrances(cluster);
+        }
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            computeCosts(cluster);
+        }
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        int cluster = clusterOf(x, y);
+        rebuildCluster(cluster);
+
+        // A border cell also moves the entrances on the other side of the border
+        int localX = x % clusterSize;
+        int localY = y % clusterSize;
+        if (localX == 0 && x > 0) rebuildCluster(clusterOf(x - 1, y));
+        if (localX == clusterSize - 1 && x < width - 1) rebuildCluster(clusterOf(x + 1, y));
+        if (localY == 0 && y > 0) rebuildCluster(clusterOf(x, y - 1));
+        if (localY == clusterSize - 1 && y < height - 1) rebuildCluster(clusterOf(x, y + 1));
+    }
+
+    @Override
+    public void regionChanged(int minX, int minY, int maxX, int maxY) {
+        // Cells on a border move the entrances on the other side too, so reach one cell past the rectangle
+        int fromX = Math.max(0, minX - 1) / clusterSize;
+        int fromY = Math.max(0, minY - 1) / clusterSize;
+        int toX = Math.min(width - 1, maxX + 1) / clusterSize;
+        int toY = Math.min(height - 1, maxY + 1) / clusterSize;
+        for (int clusterY = fromY; clusterY <= toY; clusterY++) {
+            for (int clusterX = fromX; clusterX <= toX; clusterX++) {
+                rebuildCluster(clusterY * clustersX + clusterX);
+            }
+        }
+    }
+
+    @Override
+    public void costsChanged(int minX, int minY, int maxX, int maxY) {
+        // Entrances only depend on walkability, so just the cached costs of the covered clusters go stale
+        for (int clusterY = minY / clusterSize; clusterY <= maxY / clusterSize; clusterY++) {
+            for (int clusterX = minX / clusterSize; clusterX <= maxX / clusterSize; clusterX++) {
+                computeCosts(clusterY * clustersX + clusterX);
+            }
+        }
+    }
+
+    private void rebuildCluster(int cluster) {
+        findEntrances(cluster);
+        computeCosts(cluster);
+    }
+
+    /**
+     * Collect the abstract nodes of a cluster from the entrances on its four borders
+     */
+    private void findEntrances(int cluster) {
+        IntArray nodes = clusterNodes[cluster];
+        for (int i = 0; i < nodes.size; i++) {
+            int cell = nodes.get(i);
+            abstractBits[cell >>> 6] &= ~(1L << cell);
+        }
+        nodes.clear();
+
+        int left = (cluster % clustersX) * clusterSize;
+        int bottom = (cluster / clustersX) * clusterSize;
+        int right = Math.min(left + clusterSize, width) - 1;
+        int top = Math.min(bottom + clusterSize, height) - 1;
+
+        // Walk each border, pairing our edge cells with the cells just outside
+        if (left > 0) scanBorder(nodes, left, bottom, 0, 1, top - bottom + 1, -1, 0);
+        if (right < width - 1) scanBorder(nodes, right, bottom, 0, 1, top - bottom + 1, 1, 0);
+        if (bottom > 0) scanBorder(nodes, left, bottom, 1, 0, right - left + 1, 0, -1);
+        if (top < height - 1) scanBorder(nodes, left, top, 1, 0, right - left + 1, 0, 1);
+
+        for (int i = 0; i < nodes.size; i++) {
+            int cell = nodes.get(i);
+            abstractBits[cell >>> 6] |= 1L << cell;
+        }
+    }
+
+    /**
+     * Find the runs along one border where both sides are walkable and add their entrance cells
+     */
+    private void scanBorder(IntArray nodes, int x, int y, int stepX, int stepY, int length, int outX, int outY) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean open = i < length
+                && world.isWalkable(x + i * stepX, y + i * stepY)
+                && world.isWalkable(x + i * stepX + outX, y + i * stepY + outY);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+                    addNode(nodes, world.toIndex(x + runStart * stepX, y + runStart * stepY));
+                    addNode(nodes, world.toIndex(x + runEnd * stepX, y + runEnd * stepY));
+                } else {
+                    int middle = (runStart + runEnd) / 2;
+                    addNode(nodes, world.toIndex(x + middle * stepX, y + middle * stepY));
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void addNode(IntArray nodes, int cell) {
+        // Corner cells can sit on two borders
+        if (!nodes.contains(cell)) {
+            nodes.add(cell);
+        }
+    }
+
+    /**
+     * Cache the cost between every pair of abstract nodes in a cluster
+     */
+    private void computeCosts(int cluster) {
+        IntArray nodes = clusterNodes[cluster];
+        int count = nodes.size;
+        float[] costs = clusterCosts[cluster];
+        if (costs == null || costs.length != count * count) {
+            costs = new float[count * count];
+            clusterCosts[cluster] = costs;
+        }
+
+        for (int i = 0; i < count; i++) {
+            searchCluster(nodes.get(i), cluster, -1);
+            for (int j = 0; j < count; j++) {
+                int cell = nodes.get(j);
+                costs[i * count + j] = localSeen[cell] == localGeneration ? localCost[cell] : Float.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray out) {
+        out.clear();
+        expandedCount = 0;
+        if (!world.isWalkable(start) || !world.isWalkable(goal)) {
+            return false;
+        }
+
+        int startCluster = clusterOf(start % width, start / width);
+        int goalCluster = clusterOf(goal % width, goal / width);
+
+        // Connect start and goal to the abstract nodes of their clusters
+        float direct = collectCosts(goal, goalCluster, goalCosts, start, true);
+        if (startCluster != goalCluster) {
+            // Next door, the way through the entrances can be a long detour around a short direct route,
+            // so the two clusters are also searched together
+            direct = isNeighbour(startCluster, goalCluster) ? searchDirect(start, goal, startCluster, goalCluster)
+                : Float.POSITIVE_INFINITY;
+        }
+        collectCosts(start, startCluster, startCosts, -1, false);
+
+        if (!searchAbstract(start, goal, startCluster, goalCluster, direct)) {
+            return false;
+        }
+
+        // Refine each abstract hop into cells
+        out.add(start);
+        for (int i = 1; i < abstractPath.size; i++) {
+            int from = abstractPath.get(i - 1);
+            int to = abstractPath.get(i);
+            int fromCluster = clusterOf(from % width, from / width);
+            int toCluster = clusterOf(to % width, to / width);
+            if (from == start && to == goal) {
+                // The direct route, inside the start and goal clusters
+                searchClusters(from, fromCluster, toCluster, to);
+            } else if (fromCluster != toCluster) {
+                // Crossing an entrance is a single step
+                out.add(to);
+                continue;
+            } else {
+                searchCluster(from, fromCluster, to);
+            }
+            int mark = out.size;
+            for (int cell = to; cell != from; cell = localParent[cell]) {
+                out.add(cell);
+            }
+            for (int first = mark, last = out.size - 1; first < last; first++, last--) {
+                out.swap(first, last);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Search a cluster from source and store the cost between source and each of its abstract nodes.
+     * Costs are paid on entering a cell, so when toSource is set they are turned around to run into source
+     * (exact for straight steps; with diagonal steps over uneven costs the turned cost is an estimate).
+     * Returns the cost between source and other, or infinity when other is not reachable inside the cluster
+     */
+    private float collectCosts(int source, int cluster, FloatArray costs, int other, boolean toSource) {
+        searchCluster(source, cluster, -1);
+        IntArray nodes = clusterNodes[cluster];
+        costs.clear();
+        for (int i = 0; i < nodes.size; i++) {
+            costs.add(localCostBetween(source, nodes.get(i), toSource));
+        }
+        return other >= 0 ? localCostBetween(source, other, toSource) : Float.POSITIVE_INFINITY;
+    }
+
+    private float localCostBetween(int source, int cell, boolean toSource) {
+        if (localSeen[cell] != localGeneration) {
+            return Float.POSITIVE_INFINITY;
+        }
+        if (toSource) {
+            return localCost[cell] - world.getCost(cell) + world.getCost(source);
+        }
+        return localCost[cell];
+    }
+
+    /**
+     * Cost of the cheapest route from start to goal that stays inside the box spanning their two clusters,
+     * or infinity when there is none
+     */
+    private float searchDirect(int start, int goal, int startCluster, int goalCluster) {
+        searchClusters(start, startCluster, goalCluster, goal);
+        return localSeen[goal] == localGeneration ? localCost[goal] : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * A* over the abstract graph plus the temporary start and goal nodes; fills abstractPath
+     */
+    private boolean searchAbstract(int start, int goal, int startCluster, int goalCluster, float direct) {
+        abstractPath.clear();
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        open.clear();
+
+        seen[start] = generation;
+        costSoFar[start] = 0;
+        parent[start] = -1;
+        open.push(start, heuristic(start, goal));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (current == goal) {
+                for (int node = goal; node != -1; node = parent[node]) {
+                    abstractPath.add(node);
+                }
+                abstractPath.reverse();
+                return true;
+            }
+            closed[current] = generation;
+            expandedCount++;
+
+            float currentCost = costSoFar[current];
+            int currentX = current % width;
+            int currentY = current / width;
+            int cluster = clusterOf(currentX, currentY);
+            IntArray nodes = clusterNodes[cluster];
+
+            if (current == start) {
+                for (int i = 0; i < nodes.size; i++) {
+                    relax(current, nodes.get(i), startCosts.get(i), goal);
+                }
+                relax(current, goal, direct, goal);
+            } else if (isAbstract(current)) {
+                // Cached costs to the other abstract nodes of this cluster
+                int count = nodes.size;
+                int row = nodes.indexOf(current) * count;
+                float[] costs = clusterCosts[cluster];
+                for (int j = 0; j < count; j++) {
+                    relax(current, nodes.get(j), currentCost + costs[row + j], goal);
+                }
+            }
+
+            if (cluster == goalCluster && isAbstract(current)) {
+                relax(current, goal, currentCost + goalCosts.get(nodes.indexOf(current)), goal);
+            }
+
+            // Entrances to neighbouring clusters
+            if (isAbstract(current)) {
+                if (currentY < height - 1) relaxEntrance(current, current + width, cluster, currentCost, goal);
+                if (currentX < width - 1) relaxEntrance(current, current + 1, cluster, currentCost, goal);
+                if (currentY > 0) relaxEntrance(current, current - width, cluster, currentCost, goal);
+                if (currentX > 0) relaxEntrance(current, current - 1, cluster, currentCost, goal);
+            }
+        }
+        return false;
+    }
+
+    private void relaxEntrance(int current, int next, int cluster, float currentCost, int goal) {
+        if (isAbstract(next) && clusterOf(next % width, next / width) != cluster) {
+            relax(current, next, currentCost + world.getCost(next), goal);
+        }
+    }
+
+    private void relax(int current, int next, float cost, int goal) {
+        if (cost == Float.POSITIVE_INFINITY || next == current || closed[next] == generation) {
+            return;
+        }
+        if (seen[next] == generation && cost >= costSoFar[next]) {
+            return;
+        }
+        seen[next] = generation;
+        costSoFar[next] = cost;
+        parent[next] = current;
+        open.push(next, cost + heuristic(next, goal));
+    }
+
+    /**
+     * Dijkstra from source that never leaves the cluster; stops early once target is settled (or runs out with -1)
+     */
+    private void searchCluster(int source, int cluster, int target) {
+        searchClusters(source, cluster, cluster, target);
+    }
+
+    /**
+     * Same as searchCluster, confined to the box spanning two clusters instead
+     */
+    private void searchClusters(int source, int firstCluster, int secondCluster, int target) {
+        if (++localGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(localSeen, 0);
+            localGeneration = 1;
+        }
+        localOpen.clear();
+
+        int firstX = firstCluster % clustersX;
+        int firstY = firstCluster / clustersX;
+        int secondX = secondCluster % clustersX;
+        int secondY = secondCluster / clustersX;
+        int left = Math.min(firstX, secondX) * clusterSize;
+        int bottom = Math.min(firstY, secondY) * clusterSize;
+        int right = Math.min((Math.max(firstX, secondX) + 1) * clusterSize, width) - 1;
+        int top = Math.min((Math.max(firstY, secondY) + 1) * clusterSize, height) - 1;
+
+        localSeen[source] = localGeneration;
+        localCost[source] = 0;
+        localParent[source] = -1;
+        localOpen.push(source, 0);
+        boolean diagonals = world.getConnectivity().allowsDiagonals();
+
+        while (!localOpen.isEmpty()) {
+            int current = localOpen.pop();
+            if (current == target) {
+                return;
+            }
+            int x = current % width;
+            int y = current / width;
+            float cost = localCost[current];
+            if (y < top) visitLocal(current, current + width, cost, 1);
+            if (x < right) visitLocal(current, current + 1, cost, 1);
+            if (y > bottom) visitLocal(current, current - width, cost, 1);
+            if (x > left) visitLocal(current, current - 1, cost, 1);
+
+            if (diagonals) {
+                float diagonal = Connectivity.DIAGONAL_COST;
+                if (y < top && x < right && world.canMoveDiagonally(x, y, 1, 1)) {
+                    visitLocal(current, current + width + 1, cost, diagonal);
+                }
+                if (y > bottom && x < right && world.canMoveDiagonally(x, y, 1, -1)) {
+                    visitLocal(current, current - width + 1, cost, diagonal);
+                }
+                if (y > bottom && x > left && world.canMoveDiagonally(x, y, -1, -1)) {
+                    visitLocal(current, current - width - 1, cost, diagonal);
+                }
+                if (y < top && x > left && world.canMoveDiagonally(x, y, -1, 1)) {
+                    visitLocal(current, current + width - 1, cost, diagonal);
+                }
+            }
+        }
+    }
+
+    private void visitLocal(int current, int next, float currentCost, float stepCost) {
+        if (!world.isWalkable(next)) {
+            return;
+        }
+        float cost = currentCost + world.getCost(next) * stepCost;
+        if (localSeen[next] == localGeneration && cost >= localCost[next]) {
+            return;
+        }
+        localSeen[next] = localGeneration;
+        localCost[next] = cost;
+        localParent[next] = current;
+        localOpen.push(next, cost);
+    }
+
+    private boolean isAbstract(int cell) {
+        return (abstractBits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Whether two clusters share a border or a corner
+     */
+    private boolean isNeighbour(int cluster, int other) {
+        return Math.abs(cluster % clustersX - other % clustersX) <= 1 && Math.abs(cluster / clustersX - other / clustersX) <= 1;
+    }
+
+    private int clusterOf(int x, int y) {
+        return (y / clusterSize) * clustersX + x / clusterSize;
+    }
+
+    private float heuristic(int index, int goal) {
+        return world.getConnectivity().distance(index % width - goal % width, index / width - goal / width)
+            * world.getMinCost();
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+}
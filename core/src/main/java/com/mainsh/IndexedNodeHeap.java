@@ -0,0 +1,145 @@
+package com.mainsh;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node indices keyed by a float, with decrease-key.
+ * All storage is allocated up front so pushes and pops never allocate.
+ */
+public final class IndexedNodeHeap {
+    // Node indices in heap order
+    private final int[] heap;
+
+    // Key of each node while it is in the heap
+    private final float[] keys;
+
+    // Position of each node in the heap, or -1 when absent
+    private final int[] positions;
+
+    private int size;
+
+    public IndexedNodeHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new float[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Insert a node, or lower its key if it is already queued with a larger one
+     */
+    public void push(int node, float key) {
+        int position = positions[node];
+        if (position < 0) {
+            keys[node] = key;
+            heap[size] = node;
+            positions[node] = size;
+            siftUp(size++);
+        } else if (key < keys[node]) {
+            keys[node] = key;
+            siftUp(position);
+        }
+    }
+
+    /**
+     * Remove and return the node with the smallest key
+     */
+    public int pop() {
+        int top = heap[0];
+        positions[top] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Remove a queued node regardless of its position
+     */
+    public void remove(int node) {
+        int position = positions[node];
+        if (position < 0) {
+            return;
+        }
+        positions[node] = -1;
+        if (position == --size) {
+            return;
+        }
+        int last = heap[size];
+        heap[position] = last;
+        positions[last] = position;
+        siftUp(position);
+        siftDown(positions[last]);
+    }
+
+    public boolean contains(int node) {
+        return positions[node] >= 0;
+    }
+
+    public float peekKey() {
+        return keys[heap[0]];
+    }
+
+    public float getKey(int node) {
+        return keys[node];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empty the heap in O(size) so it can be reused for the next search
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int node = heap[position];
+        float key = keys[node];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heap[position];
+        float key = keys[node];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
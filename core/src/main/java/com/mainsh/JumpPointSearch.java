@@ -0,0 +1,239 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Jump Point Search for 4-way grids where every move costs the same.
+ * Paths are pruned to a canonical order: horizontal runs are taken first, and a vertical run only
+ * turns horizontal where an obstacle forces it. Only the cells where such a turn can happen (jump
+ * points) are pushed onto the open list; the cells in between are filled back in when the path is built.
+ * Weighted and 8-way grids break the pruning, so there queries are handed to the plain A* engine.
+ */
+public class JumpPointSearch implements GridPathFinder {
+    protected final GridWorld world;
+    protected final int width;
+    protected final int height;
+
+    // Open list of jump points keyed by f = g + h
+    private final IndexedNodeHeap open;
+
+    // Best known cost from the start, valid when seen[i] == generation
+    private final float[] costSoFar;
+
+    // Jump point we reached each jump point from, valid when seen[i] == generation
+    private final int[] parent;
+
+    // Generation stamps for "reached in this search" and "expanded in this search"
+    private final int[] seen;
+    private final int[] closed;
+    private int generation;
+
+    // Number of jump points expanded by the last search
+    private int expandedCount;
+
+    // Engine for queries the pruning can't handle; the world's shared A* engine when null
+    private GridPathFinder fallback;
+
+    // Goal of the search in progress
+    protected int goal;
+    protected int goalX;
+    protected int goalY;
+
+    public JumpPointSearch(GridWorld world) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.height = world.getHeight();
+
+        int nodeCount = world.getNodeCount();
+        this.open = new IndexedNodeHeap(nodeCount);
+        this.costSoFar = new float[nodeCount];
+        this.parent = new int[nodeCount];
+        this.seen = new int[nodeCount];
+        this.closed = new int[nodeCount];
+    }
+
+    /**
+     * Use this engine instead of the world's shared one for weighted and 8-way queries, so searches on
+     * other threads never touch the world's engines
+     */
+    void setFallback(GridPathFinder fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean findPath(int start, int goal, IntArray out) {
+        out.clear();
+        expandedCount = 0;
+        if (!world.isWalkable(start) || !world.isWalkable(goal)) {
+            return false;
+        }
+        if (!world.isUniformCost() || world.getConnectivity() != Connectivity.FOUR) {
+            GridPathFinder engine = fallback != null ? fallback : world.getPathFinder(PathAlgorithm.INDEXED_ASTAR);
+            boolean found = engine.findPath(start, goal, out);
+            expandedCount = engine.getExpandedCount();
+            return found;
+        }
+
+        nextGeneration();
+        open.clear();
+
+        this.goal = goal;
+        this.goalX = goal % width;
+        this.goalY = goal / width;
+
+        seen[start] = generation;
+        costSoFar[start] = 0;
+        parent[start] = -1;
+        open.push(start, heuristic(start));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (current == goal) {
+                buildPath(goal, out);
+                return true;
+            }
+            closed[current] = generation;
+            expandedCount++;
+            expand(current);
+        }
+
+        return false;
+    }
+
+    /**
+     * Jump in every direction the canonical ordering allows from a jump point
+     */
+    private void expand(int current) {
+        int x = current % width;
+        int y = current / width;
+        int from = parent[current];
+
+        if (from == -1) {
+            // The start may leave in any direction
+            addSuccessor(current, jumpHorizontal(x, y, 1));
+            addSuccessor(current, jumpHorizontal(x, y, -1));
+            addSuccessor(current, jumpVertical(x, y, 1));
+            addSuccessor(current, jumpVertical(x, y, -1));
+            return;
+        }
+
+        int dx = Integer.signum(x - from % width);
+        int dy = Integer.signum(y - from / width);
+        if (dx != 0) {
+            // Horizontal runs may continue or turn either way
+            addSuccessor(current, jumpHorizontal(x, y, dx));
+            addSuccessor(current, jumpVertical(x, y, 1));
+            addSuccessor(current, jumpVertical(x, y, -1));
+        } else {
+            // Vertical runs continue, and only turn where the cell beside the previous one is blocked
+            addSuccessor(current, jumpVertical(x, y, dy));
+            if (isForced(x - 1, y, dy)) {
+                addSuccessor(current, jumpHorizontal(x, y, -1));
+            }
+            if (isForced(x + 1, y, dy)) {
+                addSuccessor(current, jumpHorizontal(x, y, 1));
+            }
+        }
+    }
+
+    /**
+     * Whether the side cell (x, y) of a vertical run moving in dy can only be reached by turning here
+     */
+    protected boolean isForced(int x, int y, int dy) {
+        return world.isWalkable(x, y) && !world.isWalkable(x, y - dy);
+    }
+
+    /**
+     * Scan from (x, y) along the row, returning the next jump point or -1
+     */
+    protected int jumpHorizontal(int x, int y, int dx) {
+        while (true) {
+            x += dx;
+            if (!world.isWalkable(x, y)) {
+                return -1;
+            }
+            int index = y * width + x;
+            if (index == goal) {
+                return index;
+            }
+            // A cell is worth stopping at when a vertical run from it leads somewhere
+            if (jumpVertical(x, y, 1) != -1 || jumpVertical(x, y, -1) != -1) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Scan from (x, y) along the column, returning the next jump point or -1
+     */
+    protected int jumpVertical(int x, int y, int dy) {
+        while (true) {
+            y += dy;
+            if (!world.isWalkable(x, y)) {
+                return -1;
+            }
+            int index = y * width + x;
+            if (index == goal || isForced(x - 1, y, dy) || isForced(x + 1, y, dy)) {
+                return index;
+            }
+        }
+    }
+
+    private void addSuccessor(int current, int next) {
+        if (next == -1 || closed[next] == generation) {
+            return;
+        }
+
+        // Jump points share a row or column, so the distance is the Manhattan distance
+        float cost = costSoFar[current] + Math.abs(next % width - current % width)
+            + Math.abs(next / width - current / width);
+        if (seen[next] == generation && cost >= costSoFar[next]) {
+            return;
+        }
+
+        seen[next] = generation;
+        costSoFar[next] = cost;
+        parent[next] = current;
+        open.push(next, cost + heuristic(next));
+    }
+
+    private float heuristic(int index) {
+        return Math.abs(index % width - goalX) + Math.abs(index / width - goalY);
+    }
+
+    /**
+     * Walk the jump point chain back from the goal, filling in the straight runs between them
+     */
+    private void buildPath(int goal, IntArray out) {
+        int node = goal;
+        out.add(node);
+        while (parent[node] != -1) {
+            int from = parent[node];
+            int step = from / width == node / width ? Integer.signum(from - node) : Integer.signum(from - node) * width;
+            for (int cell = node + step; cell != from; cell += step) {
+                out.add(cell);
+            }
+            out.add(from);
+            node = from;
+        }
+        out.reverse();
+    }
+
+    /**
+     * Advance the generation stamp, wiping the stamp arrays when it wraps around
+     */
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+}
@@ -0,0 +1,165 @@
+package com.mainsh;
+
+/**
+ * Jump Point Search with the jump distances of every cell precomputed (JPS+).
+ * For each cell and direction the table holds the distance to the next jump point when positive,
+ * or minus the number of free cells before a wall otherwise, so a jump is a single lookup.
+ * The goal is handled at query time: when a run crosses the goal's row or column it stops there.
+ * The tables are kept in sync through GridListener; an edit only recomputes the three columns
+ * around the cell and the rows whose jump points those columns changed.
+ */
+public class JumpPointSearchPlus extends JumpPointSearch implements GridListener {
+    private static final int NORTH = 0;
+    private static final int EAST = 1;
+    private static final int SOUTH = 2;
+    private static final int WEST = 3;
+
+    // Jump distance per direction, indexed by direction * nodeCount + cell
+    private final int[] distances;
+    private final int nodeCount;
+
+    // Per row, which of the edited columns had a vertical jump point before the edit
+    private final byte[] previousJumps;
+
+    public JumpPointSearchPlus(GridWorld world) {
+        super(world);
+        this.nodeCount = world.getNodeCount();
+        this.distances = new int[4 * nodeCount];
+        this.previousJumps = new byte[height];
+
+        for (int x = 0; x < width; x++) {
+            buildColumn(x);
+        }
+        for (int y = 0; y < height; y++) {
+            buildRow(y);
+        }
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        // Forced neighbours look one column to each side, so the edit reaches three columns
+        int fromColumn = Math.max(0, x - 1);
+        int toColumn = Math.min(width - 1, x + 1);
+
+        for (int row = 0; row < height; row++) {
+            previousJumps[row] = 0;
+            for (int column = fromColumn; column <= toColumn; column++) {
+                if (hasVerticalJump(row * width + column)) {
+                    previousJumps[row] |= 1 << (column - fromColumn);
+                }
+            }
+        }
+
+        for (int column = fromColumn; column <= toColumn; column++) {
+            buildColumn(column);
+        }
+
+        // Only rows where a cell gained or lost a vertical jump point change horizontally
+        for (int row = 0; row < height; row++) {
+            int jumps = 0;
+            for (int column = fromColumn; column <= toColumn; column++) {
+                if (hasVerticalJump(row * width + column)) {
+                    jumps |= 1 << (column - fromColumn);
+                }
+            }
+            if (row == y || jumps != previousJumps[row]) {
+                buildRow(row);
+            }
+        }
+    }
+
+    @Override
+    public void regionChanged(int minX, int minY, int maxX, int maxY) {
+        // A batch can move jump points in any row, so after the affected columns every row is rebuilt
+        for (int column = Math.max(0, minX - 1); column <= Math.min(width - 1, maxX + 1); column++) {
+            buildColumn(column);
+        }
+        for (int row = 0; row < height; row++) {
+            buildRow(row);
+        }
+    }
+
+    @Override
+    public void costsChanged(int minX, int minY, int maxX, int maxY) {
+        // Jump distances only depend on walkability
+    }
+
+    /**
+     * Whether a vertical run from this cell reaches a jump point in either direction
+     */
+    private boolean hasVerticalJump(int index) {
+        return distances[NORTH * nodeCount + index] > 0 || distances[SOUTH * nodeCount + index] > 0;
+    }
+
+    private void buildColumn(int x) {
+        // North distances depend on the cell above, so fill them top-down
+        for (int y = height - 1; y >= 0; y--) {
+            distances[NORTH * nodeCount + y * width + x] = verticalDistance(x, y, 1);
+        }
+        for (int y = 0; y < height; y++) {
+            distances[SOUTH * nodeCount + y * width + x] = verticalDistance(x, y, -1);
+        }
+    }
+
+    private int verticalDistance(int x, int y, int dy) {
+        int next = y + dy;
+        if (!world.isWalkable(x, y) || !world.isWalkable(x, next)) {
+            return 0;
+        }
+        if (isForced(x - 1, next, dy) || isForced(x + 1, next, dy)) {
+            return 1;
+        }
+        int distance = distances[(dy > 0 ? NORTH : SOUTH) * nodeCount + next * width + x];
+        return distance > 0 ? distance + 1 : distance - 1;
+    }
+
+    private void buildRow(int y) {
+        // East distances depend on the cell to the right, so fill them right to left
+        for (int x = width - 1; x >= 0; x--) {
+            distances[EAST * nodeCount + y * width + x] = horizontalDistance(x, y, 1);
+        }
+        for (int x = 0; x < width; x++) {
+            distances[WEST * nodeCount + y * width + x] = horizontalDistance(x, y, -1);
+        }
+    }
+
+    private int horizontalDistance(int x, int y, int dx) {
+        int next = x + dx;
+        if (!world.isWalkable(x, y) || !world.isWalkable(next, y)) {
+            return 0;
+        }
+        int nextIndex = y * width + next;
+        if (hasVerticalJump(nextIndex)) {
+            return 1;
+        }
+        int distance = distances[(dx > 0 ? EAST : WEST) * nodeCount + nextIndex];
+        return distance > 0 ? distance + 1 : distance - 1;
+    }
+
+    @Override
+    protected int jumpHorizontal(int x, int y, int dx) {
+        int index = y * width + x;
+        int distance = distances[(dx > 0 ? EAST : WEST) * nodeCount + index];
+        int reach = Math.abs(distance);
+
+        // Stop in the goal's column if the run crosses it, a vertical run may finish from there
+        int toGoal = (goalX - x) * dx;
+        if (toGoal > 0 && toGoal <= reach) {
+            return y * width + goalX;
+        }
+        return distance > 0 ? index + distance * dx : -1;
+    }
+
+    @Override
+    protected int jumpVertical(int x, int y, int dy) {
+        int index = y * width + x;
+        int distance = distances[(dy > 0 ? NORTH : SOUTH) * nodeCount + index];
+        int reach = Math.abs(distance);
+
+        int toGoal = (goalY - y) * dy;
+        if (x == goalX && toGoal > 0 && toGoal <= reach) {
+            return goal;
+        }
+        return distance > 0 ? index + distance * dy * width : -1;
+    }
+}
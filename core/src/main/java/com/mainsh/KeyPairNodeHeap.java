@@ -0,0 +1,141 @@
+package com.mainsh;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node indices keyed by a pair of floats compared lexicographically, the key D* Lite
+ * needs: ties on the first key go to the smaller second key.
+ * All storage is allocated up front so pushes and pops never allocate.
+ */
+final class KeyPairNodeHeap {
+    // Node indices in heap order
+    private final int[] heap;
+
+    // Keys of each node while it is in the heap
+    private final float[] firstKeys;
+    private final float[] secondKeys;
+
+    // Position of each node in the heap, or -1 when absent
+    private final int[] positions;
+
+    private int size;
+
+    KeyPairNodeHeap(int capacity) {
+        heap = new int[capacity];
+        firstKeys = new float[capacity];
+        secondKeys = new float[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Insert a node that isn't queued yet
+     */
+    void push(int node, float first, float second) {
+        firstKeys[node] = first;
+        secondKeys[node] = second;
+        heap[size] = node;
+        positions[node] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Remove and return the node with the smallest key
+     */
+    int pop() {
+        int top = heap[0];
+        positions[top] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Remove a queued node regardless of its position
+     */
+    void remove(int node) {
+        int position = positions[node];
+        if (position < 0) {
+            return;
+        }
+        positions[node] = -1;
+        if (position == --size) {
+            return;
+        }
+        int last = heap[size];
+        heap[position] = last;
+        positions[last] = position;
+        siftUp(position);
+        siftDown(positions[last]);
+    }
+
+    float peekFirstKey() {
+        return firstKeys[heap[0]];
+    }
+
+    float peekSecondKey() {
+        return secondKeys[heap[0]];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Whether key (first, second) sorts before (otherFirst, otherSecond)
+     */
+    static boolean less(float first, float second, float otherFirst, float otherSecond) {
+        return first < otherFirst || (first == otherFirst && second < otherSecond);
+    }
+
+    private boolean less(int a, int b) {
+        return less(firstKeys[a], secondKeys[a], firstKeys[b], secondKeys[b]);
+    }
+
+    private void siftUp(int position) {
+        int node = heap[position];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (!less(node, parent)) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], node)) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
@@ -0,0 +1,451 @@
+package com.mainsh;
+
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * ALT heuristic (A*, landmarks, triangle inequality) for large maps that rarely change.
+ * A few landmarks are spread around the border of the grid and the cost of reaching every cell from each
+ * of them is stored; since cost(L, goal) <= cost(L, cell) + cost(cell, goal), the largest difference over
+ * the landmarks never overestimates. On mazes this is far closer to the real cost than Manhattan or
+ * octile distance, which stay as the floor of the estimate.
+ * The tables are built in parallel, one Dijkstra per landmark, and can be written out and read back so
+ * startup doesn't pay for them again. Closing cells only makes real costs longer, so the tables stay
+ * admissible; opening a cell or repainting costs makes them stale and the estimate drops back to the plain
+ * distance until they are rebuilt. Register the heuristic with GridWorld.addListener for that, and either
+ * call recompute() or call update() once per frame to rebuild them in the background.
+ */
+public class LandmarkHeuristic implements Heuristic<GridNode>, GridListener, Disposable {
+    // "ALT" and a format number, at the start of a serialized table
+    private static final int MAGIC = 0x414C5401;
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+
+    private final GridWorld world;
+    private final int width;
+    private final Connectivity connectivity;
+
+    // Landmark cells, and the cost of reaching every cell from each of them (infinite where unreachable)
+    private final int[] landmarks;
+    private float[][] distances;
+
+    // Whether the tables still describe the grid; when not, only the plain distance is used
+    private boolean valid;
+
+    // Pool the tables are built on, created on first use and kept until dispose()
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executor;
+
+    // Background rebuild: tables filled from a copy of the grid, swapped in by update() once done.
+    // staleSinceRebuild records edits made after the copy was taken, which the new tables don't cover
+    private GridWorld rebuildGrid;
+    private float[][] rebuildDistances;
+    private final List<Future<?>> rebuildFutures = new ArrayList<Future<?>>();
+    private boolean staleSinceRebuild;
+
+    private LandmarkHeuristic(GridWorld world, int[] landmarks) {
+        this(world, landmarks, new float[landmarks.length][world.getNodeCount()]);
+    }
+
+    /**
+     * Wrap tables that are already filled in, as GridMapFile does; they count as valid
+     */
+    LandmarkHeuristic(GridWorld world, int[] landmarks, float[][] distances) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.connectivity = world.getConnectivity();
+        this.landmarks = landmarks;
+        this.distances = distances;
+        this.valid = true;
+    }
+
+    /**
+     * Pick count landmarks and build their tables on every available core
+     */
+    public static LandmarkHeuristic compute(GridWorld world, int count) {
+        return compute(world, count, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static LandmarkHeuristic compute(GridWorld world, int count, int threads) {
+        LandmarkHeuristic heuristic = new LandmarkHeuristic(world, selectLandmarks(world, count));
+        heuristic.threads = threads;
+        heuristic.recompute();
+        return heuristic;
+    }
+
+    /**
+     * Read tables written by write(), or compute them and write them to file when they are missing or
+     * were built for a different map
+     */
+    public static LandmarkHeuristic load(GridWorld world, int count, FileHandle file) {
+        if (file.exists()) {
+            try (InputStream input = file.read()) {
+                LandmarkHeuristic heuristic = read(world, input);
+                if (heuristic.getLandmarkCount() == count) {
+                    return heuristic;
+                }
+            } catch (IOException e) {
+                // Built for another map or unreadable, fall through and rebuild
+            }
+        }
+
+        LandmarkHeuristic heuristic = compute(world, count);
+        try (OutputStream output = file.write(false)) {
+            heuristic.write(output);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write landmark tables to " + file, e);
+        }
+        return heuristic;
+    }
+
+    @Override
+    public float estimate(GridNode node, GridNode endNode) {
+        return estimate(node.getIndex(), endNode.getIndex());
+    }
+
+    /**
+     * Lower bound on the cost of moving from one cell to another
+     */
+    public float estimate(int from, int to) {
+        int dx = from % width - to % width;
+        int dy = from / width - to / width;
+        float best = connectivity.distance(dx, dy) * world.getMinCost();
+        if (!valid) {
+            return best;
+        }
+
+        for (float[] table : distances) {
+            float toCost = table[to];
+            float fromCost = table[from];
+            // Landmarks that can't reach both cells say nothing about them
+            if (toCost != INFINITY && fromCost != INFINITY && toCost - fromCost > best) {
+                best = toCost - fromCost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Rebuild the tables for the current grid, keeping the landmarks, and wait for them. A background
+     * rebuild in progress is finished first and thrown away
+     */
+    public void recompute() {
+        if (!rebuildFutures.isEmpty()) {
+            try {
+                waitForAll(rebuildFutures);
+            } catch (GdxRuntimeException e) {
+                // Its tables are discarded anyway
+            }
+            rebuildFutures.clear();
+        }
+        List<Future<?>> futures = submitTables(world, distances);
+        waitForAll(futures);
+        valid = true;
+    }
+
+    /**
+     * Keep the tables up to date without blocking; call once per frame from the thread that edits the grid.
+     * Stale tables are rebuilt in the background from a copy of the grid, and estimates stay on the plain
+     * distance until the new tables are swapped in here
+     */
+    public void update() {
+        if (!rebuildFutures.isEmpty()) {
+            for (int i = 0; i < rebuildFutures.size(); i++) {
+                if (!rebuildFutures.get(i).isDone()) {
+                    return;
+                }
+            }
+            waitForAll(rebuildFutures);
+            rebuildFutures.clear();
+
+            float[][] built = rebuildDistances;
+            rebuildDistances = distances;
+            distances = built;
+            // An opened cell since the copy was taken may still beat the new tables
+            valid = !staleSinceRebuild;
+        }
+
+        if (!valid) {
+            if (rebuildGrid == null) {
+                rebuildGrid = world.snapshot();
+                rebuildDistances = new float[landmarks.length][world.getNodeCount()];
+            } else if (rebuildGrid.getVersion() != world.getVersion()) {
+                rebuildGrid.syncFrom(world);
+            }
+            staleSinceRebuild = false;
+            rebuildFutures.addAll(submitTables(rebuildGrid, rebuildDistances));
+        }
+    }
+
+    /**
+     * Whether a background rebuild is running
+     */
+    public boolean isRebuilding() {
+        return !rebuildFutures.isEmpty();
+    }
+
+    /**
+     * Start one Dijkstra per landmark over grid on the pool
+     */
+    private List<Future<?>> submitTables(GridWorld grid, float[][] tables) {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, landmarks.length)), runnable -> {
+                Thread thread = new Thread(runnable, "LandmarkHeuristic");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < landmarks.length; i++) {
+            final int landmark = i;
+            futures.add(executor.submit((Callable<Void>) () -> {
+                fillDistances(grid, landmarks[landmark], tables[landmark]);
+                return null;
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Wait for every future, even after one has failed, so no table is still being written on return
+     */
+    private static void waitForAll(List<Future<?>> futures) {
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            while (true) {
+                try {
+                    futures.get(i).get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new GdxRuntimeException("Building landmark tables failed", failure);
+        }
+    }
+
+    /**
+     * Stop the pool; a background rebuild in progress is abandoned
+     */
+    @Override
+    public void dispose() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        rebuildFutures.clear();
+    }
+
+    /**
+     * Dijkstra out of one landmark; only reads the grid, so several can run at once
+     */
+    private static void fillDistances(GridWorld world, int landmark, float[] table) {
+        Arrays.fill(table, INFINITY);
+        if (!world.isWalkable(landmark)) {
+            return;
+        }
+
+        IndexedNodeHeap open = new IndexedNodeHeap(table.length);
+        table[landmark] = 0;
+        open.push(landmark, 0);
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            float currentCost = table[current];
+            int mask = world.getConnectionMask(current);
+            while (mask != 0) {
+                int direction = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int next = current + Connectivity.STEP_Y[direction] * world.getWidth() + Connectivity.STEP_X[direction];
+                // Moving into a cell costs that cell's cost, as in the searches
+                float cost = currentCost + world.getCost(next) * Connectivity.stepCost(direction);
+                if (cost < table[next]) {
+                    table[next] = cost;
+                    open.push(next, cost);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spread count landmarks evenly around the border, each moved to the nearest walkable cell.
+     * Landmarks behind the goal as seen from the start give the tightest bounds, and the border is
+     * behind most goals
+     */
+    private static int[] selectLandmarks(GridWorld world, int count) {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        int perimeter = 2 * (width + height) - 4;
+        IntArray chosen = new IntArray();
+        for (int i = 0; i < count; i++) {
+            // Walk the border counter-clockwise from the bottom-left corner
+            int position = (int) ((long) i * perimeter / count);
+            int x;
+            int y;
+            if (position < width) {
+                x = position;
+                y = 0;
+            } else if (position < width + height - 1) {
+                x = width - 1;
+                y = position - width + 1;
+            } else if (position < 2 * width + height - 2) {
+                x = width - 1 - (position - width - height + 2);
+                y = height - 1;
+            } else {
+                x = 0;
+                y = height - 1 - (position - 2 * width - height + 3);
+            }
+
+            int cell = nearestWalkable(world, x, y);
+            if (cell != -1 && !chosen.contains(cell)) {
+                chosen.add(cell);
+            }
+        }
+        return chosen.toArray();
+    }
+
+    /**
+     * Closest walkable cell to (x, y) by Chebyshev distance, or -1 when the grid is fully blocked
+     */
+    private static int nearestWalkable(GridWorld world, int x, int y) {
+        int maxRadius = Math.max(world.getWidth(), world.getHeight());
+        for (int radius = 0; radius < maxRadius; radius++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) == radius && world.isWalkable(x + dx, y + dy)) {
+                        return world.toIndex(x + dx, y + dy);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        // A blocked cell only makes routes longer, an opened one may make them shorter
+        if (world.isWalkable(x, y)) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void costsChanged(int minX, int minY, int maxX, int maxY) {
+        invalidate();
+    }
+
+    @Override
+    public void regionChanged(int minX, int minY, int maxX, int maxY) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        valid = false;
+        staleSinceRebuild = true;
+    }
+
+    /**
+     * Write the landmarks and tables, tagged with the map they were built for
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(MAGIC);
+        data.writeInt(world.getWidth());
+        data.writeInt(world.getHeight());
+        data.writeInt(connectivity.ordinal());
+        data.writeLong(mapChecksum(world));
+        data.writeInt(landmarks.length);
+        for (int landmark : landmarks) {
+            data.writeInt(landmark);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(world.getNodeCount() * 4);
+        for (float[] table : distances) {
+            buffer.clear();
+            buffer.asFloatBuffer().put(table);
+            data.write(buffer.array());
+        }
+        data.flush();
+    }
+
+    /**
+     * Read tables written by write(); fails when they were built for a different map
+     */
+    public static LandmarkHeuristic read(GridWorld world, InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a landmark table");
+        }
+        if (data.readInt() != world.getWidth() || data.readInt() != world.getHeight()
+            || data.readInt() != world.getConnectivity().ordinal() || data.readLong() != mapChecksum(world)) {
+            throw new IOException("Landmark tables were built for a different map");
+        }
+
+        int[] landmarks = new int[data.readInt()];
+        for (int i = 0; i < landmarks.length; i++) {
+            landmarks[i] = data.readInt();
+        }
+        LandmarkHeuristic heuristic = new LandmarkHeuristic(world, landmarks);
+
+        byte[] bytes = new byte[world.getNodeCount() * 4];
+        for (float[] table : heuristic.distances) {
+            data.readFully(bytes);
+            ByteBuffer.wrap(bytes).asFloatBuffer().get(table);
+        }
+        return heuristic;
+    }
+
+    /**
+     * Checksum of every cell's cost, 0 for blocked cells
+     */
+    private static long mapChecksum(GridWorld world) {
+        CRC32 checksum = new CRC32();
+        byte[] row = new byte[world.getWidth()];
+        for (int y = 0; y < world.getHeight(); y++) {
+            for (int x = 0; x < row.length; x++) {
+                int index = world.toIndex(x, y);
+                row[x] = (byte) (world.isWalkable(index) ? world.getCost(index) : 0);
+            }
+            checksum.update(row, 0, row.length);
+        }
+        return checksum.getValue();
+    }
+
+    public boolean isValid() { return valid; }
+    public int getLandmarkCount() { return landmarks.length; }
+    public int getLandmark(int i) { return landmarks[i]; }
+
+    // Live table of one landmark, for GridMapFile
+    float[] getTable(int i) { return distances[i]; }
+}
@@ -3,9 +3,23 @@ package com.mainsh;
 import com.badlogic.gdx.ai.pfa.Heuristic;
 
 public class ManhattanDistance implements Heuristic<GridNode> {
+    // Grid whose cheapest cell cost scales the estimate; null for unit costs
+    private final GridWorld world;
+
+    public ManhattanDistance() {
+        this(null);
+    }
+
+    public ManhattanDistance(GridWorld world) {
+        this.world = world;
+    }
+
     @Override
     public float estimate(GridNode node, GridNode goal) {
         // Calculate Manhattan distance: |x1 - x2| + |y1 - y2|
-        return Math.abs(node.getX() - goal.getX()) + Math.abs(node.getY() - goal.getY());
+        float distance = Math.abs(node.getX() - goal.getX()) + Math.abs(node.getY() - goal.getY());
+
+        // Every step costs at least the cheapest cell, so this never overestimates
+        return world == null ? distance : distance * world.getMinCost();
     }
 }
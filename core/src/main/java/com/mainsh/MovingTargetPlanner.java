@@ -0,0 +1,294 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Incremental planner for an agent chasing a moving target, in the style of Moving Target D* Lite.
+ * The search runs forward from a root cell (where the agent was when the planner last started over)
+ * and keeps its g/rhs values between calls. When the target moves, the queued keys are corrected with
+ * the km offset instead of being recomputed, and cell edits only re-queue the cells around the edit,
+ * so a re-plan repairs just the part of the search that changed. While the agent stays on a shortest
+ * path out of the root the answer is read from the existing search tree; once it has wandered off,
+ * the planner starts over from the agent's cell.
+ * Keep one planner per agent and register it with GridWorld.addListener.
+ */
+public class MovingTargetPlanner implements GridPathFinder, GridListener {
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+
+    // Relative slack when matching costs; diagonal costs summed in different orders can differ in the last bits
+    private static final float COST_EPSILON = 1e-5f;
+
+    private final GridWorld world;
+    private final int width;
+    private final int height;
+    private final Connectivity connectivity;
+    private final int directions;
+
+    // Cells whose g and rhs differ, keyed by [min(g, rhs) + h + km, min(g, rhs)] compared in that order.
+    // The second key settles ties, so the target is never taken as done while a cell that could still
+    // change its cost sorts level with it
+    private final KeyPairNodeHeap open;
+
+    // Cost from the root as of the last expansion, and the one-step lookahead of it
+    private final float[] g;
+    private final float[] rhs;
+
+    // g and rhs are only valid where stamp == generation; anything else reads as infinity
+    private final int[] stamp;
+    private int generation;
+
+    private int root = -1;
+    private int target = -1;
+    private float km;
+
+    // Cheapest cell cost when the search started; the heuristic is scaled by it
+    private int heuristicScale;
+
+    // Cells expanded by the last call, and how many calls had to start over
+    private int expandedCount;
+    private int restartCount;
+
+    public MovingTargetPlanner(GridWorld world) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.height = world.getHeight();
+        this.connectivity = world.getConnectivity();
+        this.directions = connectivity.getDirectionCount();
+
+        int nodeCount = world.getNodeCount();
+        this.open = new KeyPairNodeHeap(nodeCount);
+        this.g = new float[nodeCount];
+        this.rhs = new float[nodeCount];
+        this.stamp = new int[nodeCount];
+    }
+
+    /**
+     * Plan from start to goal, reusing whatever the previous calls already worked out
+     */
+    @Override
+    public boolean findPath(int start, int goal, IntArray out) {
+        out.clear();
+        expandedCount = 0;
+        if (!world.isWalkable(start) || !world.isWalkable(goal)) {
+            return false;
+        }
+
+        if (root == -1 || !world.isWalkable(root) || world.getMinCost() != heuristicScale) {
+            // Queued keys are only comparable while the heuristic scale stays the same
+            restart(start, goal);
+        } else if (goal != target) {
+            // Old keys stay lower bounds once they are offset by how far the target moved
+            km += heuristic(target, goal);
+            target = goal;
+        }
+        computeShortestPath();
+
+        if (!extractPath(start, out) && (start != root || getG(target) != INFINITY)) {
+            // The agent has left the search tree (or the root got cut off), or the tree can't be walked back
+            // even though it reaches the target: start over from the agent
+            restart(start, goal);
+            computeShortestPath();
+            extractPath(start, out);
+        }
+        return out.size > 0;
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        if (root == -1) {
+            return;
+        }
+        // With diagonals the cell also decides which steps may cut past its corners, so all eight neighbours are affected
+        updateVertex(world.toIndex(x, y));
+        updateNeighbours(x, y);
+    }
+
+    /**
+     * Forget the search and start a new one rooted at start
+     */
+    public void restart(int start, int goal) {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        open.clear();
+        root = start;
+        target = goal;
+        km = 0;
+        heuristicScale = world.getMinCost();
+        restartCount++;
+
+        touch(root);
+        rhs[root] = 0;
+        open.push(root, calculateKey(root), Math.min(getG(root), getRhs(root)));
+    }
+
+    private void computeShortestPath() {
+        while (!open.isEmpty() && (getRhs(target) != getG(target) || KeyPairNodeHeap.less(open.peekFirstKey(),
+            open.peekSecondKey(), calculateKey(target), Math.min(getG(target), getRhs(target))))) {
+            float oldKey = open.peekFirstKey();
+            float oldSecondKey = open.peekSecondKey();
+            int current = open.pop();
+            expandedCount++;
+
+            float newKey = calculateKey(current);
+            float newSecondKey = Math.min(getG(current), getRhs(current));
+            if (KeyPairNodeHeap.less(oldKey, oldSecondKey, newKey, newSecondKey)) {
+                // Queued before the target moved; requeue with its up-to-date key
+                open.push(current, newKey, newSecondKey);
+                continue;
+            }
+
+            if (getG(current) > getRhs(current)) {
+                g[current] = rhs[current];
+            } else {
+                g[current] = INFINITY;
+                updateVertex(current);
+            }
+            updateNeighbours(current % width, current / width);
+        }
+    }
+
+    private void updateNeighbours(int x, int y) {
+        for (int direction = 0; direction < directions; direction++) {
+            int neighbourX = x + Connectivity.STEP_X[direction];
+            int neighbourY = y + Connectivity.STEP_Y[direction];
+            if (world.isInBounds(neighbourX, neighbourY)) {
+                updateVertex(neighbourY * width + neighbourX);
+            }
+        }
+    }
+
+    /**
+     * Whether the grid allows a step from (x, y) in direction, given (x, y) is walkable
+     */
+    private boolean canStep(int x, int y, int direction) {
+        return world.canStep(y * width + x, direction);
+    }
+
+    /**
+     * Recompute rhs from the neighbours and requeue the cell if it became inconsistent
+     */
+    private void updateVertex(int index) {
+        touch(index);
+        if (index != root) {
+            float best = INFINITY;
+            if (world.isWalkable(index)) {
+                int x = index % width;
+                int y = index / width;
+                float cost = world.getCost(index);
+                for (int direction = 0; direction < directions; direction++) {
+                    if (canStep(x, y, direction)) {
+                        int next = index + Connectivity.STEP_Y[direction] * width + Connectivity.STEP_X[direction];
+                        best = Math.min(best, getG(next) + cost * Connectivity.stepCost(direction));
+                    }
+                }
+            }
+            rhs[index] = best;
+        }
+
+        open.remove(index);
+        if (g[index] != rhs[index]) {
+            open.push(index, calculateKey(index), Math.min(g[index], rhs[index]));
+        }
+    }
+
+    /**
+     * Walk back from the target along cells whose g accounts for the step, steering towards start.
+     * Fails when start is not on a shortest path out of the root
+     */
+    private boolean extractPath(int start, IntArray out) {
+        out.clear();
+        float startCost = getG(start);
+        if (getG(target) == INFINITY || startCost == INFINITY) {
+            return false;
+        }
+
+        int startX = start % width;
+        int startY = start / width;
+        int current = target;
+        out.add(current);
+        while (current != start) {
+            float cost = getG(current);
+            if (cost <= startCost) {
+                out.clear();
+                return false;
+            }
+
+            float cellCost = world.getCost(current);
+            int x = current % width;
+            int y = current / width;
+            int best = -1;
+            float bestDistance = INFINITY;
+            for (int direction = 0; direction < directions; direction++) {
+                if (!canStep(x, y, direction)) {
+                    continue;
+                }
+                int next = current + Connectivity.STEP_Y[direction] * width + Connectivity.STEP_X[direction];
+                float nextCost = getG(next);
+                if (!sameCost(nextCost + cellCost * Connectivity.stepCost(direction), cost)
+                    || !sameCost(nextCost, getRhs(next))) {
+                    continue;
+                }
+                float distance = connectivity.distance(next % width - startX, next / width - startY);
+                if (distance < bestDistance) {
+                    best = next;
+                    bestDistance = distance;
+                }
+            }
+            if (best == -1) {
+                out.clear();
+                return false;
+            }
+            current = best;
+            out.add(current);
+        }
+        out.reverse();
+        return true;
+    }
+
+    private static boolean sameCost(float a, float b) {
+        return Math.abs(a - b) <= COST_EPSILON * Math.max(1, Math.min(a, b));
+    }
+
+    /**
+     * First part of the key of a cell; the second part is min(g, rhs)
+     */
+    private float calculateKey(int index) {
+        return Math.min(getG(index), getRhs(index)) + heuristic(index, target) + km;
+    }
+
+    private float heuristic(int from, int to) {
+        return connectivity.distance(from % width - to % width, from / width - to / width) * heuristicScale;
+    }
+
+    private float getG(int index) {
+        return stamp[index] == generation ? g[index] : INFINITY;
+    }
+
+    private float getRhs(int index) {
+        return stamp[index] == generation ? rhs[index] : INFINITY;
+    }
+
+    /**
+     * Make g and rhs of a cell from an earlier generation read as infinity
+     */
+    private void touch(int index) {
+        if (stamp[index] != generation) {
+            stamp[index] = generation;
+            g[index] = INFINITY;
+            rhs[index] = INFINITY;
+        }
+    }
+
+    @Override
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    public int getRestartCount() {
+        return restartCount;
+    }
+}
@@ -19,5 +19,7 @@ public class MyGame extends Game {
         Gdx.app.log("MyGame", "Press 'O' to place obstacles");
         Gdx.app.log("MyGame", "Press 'C' to clear obstacles");
         Gdx.app.log("MyGame", "Press 'R' to reset the grid");
+        Gdx.app.log("MyGame", "Press 'I' to toggle incremental re-planning");
+        Gdx.app.log("MyGame", "Press 'D' to cycle 4-way, 8-way and 8-way without corner cutting movement");
     }
 }
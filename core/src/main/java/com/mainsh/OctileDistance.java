@@ -0,0 +1,25 @@
+package com.mainsh;
+
+import com.badlogic.gdx.ai.pfa.Heuristic;
+
+public class OctileDistance implements Heuristic<GridNode> {
+    // Grid whose cheapest cell cost scales the estimate; null for unit costs
+    private final GridWorld world;
+
+    public OctileDistance() {
+        this(null);
+    }
+
+    public OctileDistance(GridWorld world) {
+        this.world = world;
+    }
+
+    @Override
+    public float estimate(GridNode node, GridNode goal) {
+        // Diagonal steps while both axes still differ, straight ones for the rest
+        float distance = Connectivity.EIGHT.distance(node.getX() - goal.getX(), node.getY() - goal.getY());
+
+        // Every step costs at least the cheapest cell, so this never overestimates
+        return world == null ? distance : distance * world.getMinCost();
+    }
+}
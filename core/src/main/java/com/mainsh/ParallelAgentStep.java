@@ -0,0 +1,131 @@
+package com.mainsh;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * One simulation step of an AgentSystem (waypoint movement, then separation) with the agents split into
+ * chunks that run on a fork-join pool. The result is bit-identical to the serial step for any thread count:
+ * - Waypoint movement only reads and writes an agent's own state.
+ * - Separation reads neighbour positions from the AgentSpatialHash, which is built serially between the two
+ *   phases and is the read buffer, and writes only the agent it is working on in the AgentSystem, the write
+ *   buffer. Neighbours are visited in the hash's order whatever chunk an agent lands in.
+ * So each agent goes through the same float operations in the same order however the work is split.
+ * Chunk tasks are kept and reinitialized between steps, so nothing is allocated once they exist.
+ */
+public class ParallelAgentStep {
+    // Chunks per thread, so a thread that finishes early can take another; and the smallest chunk worth a task
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private final ForkJoinPool pool;
+
+    // Inputs of the current step, read by the chunk tasks
+    private AgentSystem agents;
+    private AgentSpatialHash hash;
+    private SeparationSteering separation;
+    private float delta;
+
+    private ChunkTask[] chunks = new ChunkTask[0];
+    private final StepTask stepTask = new StepTask();
+
+    public ParallelAgentStep(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Move every agent along its waypoints, rebuild hash from the new positions, then push agents apart
+     */
+    public void step(AgentSystem agents, AgentSpatialHash hash, SeparationSteering separation, float delta) {
+        this.agents = agents;
+        this.hash = hash;
+        this.separation = separation;
+        this.delta = delta;
+        try {
+            stepTask.reinitialize();
+            pool.invoke(stepTask);
+        } finally {
+            this.agents = null;
+            this.hash = null;
+            this.separation = null;
+        }
+    }
+
+    /**
+     * Run the serial step; what step() must match bit for bit
+     */
+    public static void stepSerial(AgentSystem agents, AgentSpatialHash hash, SeparationSteering separation, float delta) {
+        agents.update(delta);
+        hash.build(agents);
+        separation.apply(agents, hash, delta);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public int getThreads() { return pool.getParallelism(); }
+
+    /**
+     * Split count items into chunks and run them all, the first on this thread
+     */
+    private void runChunks(boolean moving, int count) {
+        int chunkCount = Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD, count / MIN_CHUNK_SIZE));
+        if (chunks.length < chunkCount) {
+            ChunkTask[] grown = new ChunkTask[chunkCount];
+            System.arraycopy(chunks, 0, grown, 0, chunks.length);
+            for (int i = chunks.length; i < chunkCount; i++) {
+                grown[i] = new ChunkTask();
+            }
+            chunks = grown;
+        }
+
+        for (int i = 0; i < chunkCount; i++) {
+            ChunkTask chunk = chunks[i];
+            chunk.reinitialize();
+            chunk.moving = moving;
+            chunk.from = (int) ((long) count * i / chunkCount);
+            chunk.to = (int) ((long) count * (i + 1) / chunkCount);
+        }
+        for (int i = 1; i < chunkCount; i++) {
+            chunks[i].fork();
+        }
+        chunks[0].invoke();
+        for (int i = 1; i < chunkCount; i++) {
+            chunks[i].join();
+        }
+    }
+
+    // Tasks are never serialized, though RecursiveAction is Serializable
+    @SuppressWarnings("serial")
+    private final class StepTask extends RecursiveAction {
+        @Override
+        protected void compute() {
+            runChunks(true, agents.getCount());
+            hash.build(agents);
+            runChunks(false, hash.getCount());
+        }
+    }
+
+    /**
+     * Agents from..to for waypoint movement, or hash slots from..to for separation
+     */
+    @SuppressWarnings("serial")
+    private final class ChunkTask extends RecursiveAction {
+        boolean moving;
+        int from;
+        int to;
+
+        @Override
+        protected void compute() {
+            if (moving) {
+                agents.update(delta, from, to);
+            } else {
+                separation.apply(agents, hash, delta, from, to);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.mainsh;
+
+/**
+ * Search algorithms GridWorld can run for a single query
+ */
+public enum PathAlgorithm {
+    // gdx-ai IndexedAStarPathFinder over GridNode/GridConnection objects; FLAT grids run INDEXED_ASTAR
+    ASTAR,
+
+    // GridAStar on cell indices
+    INDEXED_ASTAR,
+
+    // Jump Point Search; uniform-cost 4-way grids only, anything else runs INDEXED_ASTAR
+    JPS,
+
+    // Jump Point Search with precomputed jump distances; same restrictions as JPS
+    JPS_PLUS,
+
+    // Hierarchical A* over clusters of the grid; near-optimal paths
+    HPA,
+
+    // A* from both ends at once, meeting in the middle; optimal paths
+    BIDIRECTIONAL_ASTAR
+}
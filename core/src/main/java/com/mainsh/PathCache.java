@@ -0,0 +1,281 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Bounded LRU cache of path results in front of GridWorld.findPath, keyed by start and goal cell.
+ * Entries are only served at the grid version the cache last saw; the cache listens to the grid and
+ * on each edit evicts just the entries the edit can affect:
+ * - a path through or next to the edited cell, diagonals included
+ * - a path the cell could now shorten, i.e. one costing more than the cheapest conceivable route through the cell
+ * - every "no path" result once a cell opens up
+ * Repainted costs are handled the same way as opened cells, for the whole painted rectangle at once.
+ * If the grid changes without the cache hearing about it, everything is dropped on the next lookup.
+ */
+public class PathCache implements GridListener {
+    private final GridWorld world;
+    private final PathAlgorithm algorithm;
+    private final int capacity;
+    private final int width;
+
+    // Entries by start << 32 | goal, and the same entries linked from least to most recently used
+    private final LongMap<Entry> entries = new LongMap<Entry>();
+    private Entry oldest;
+    private Entry newest;
+
+    // Grid version the entries are valid at
+    private int version;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public PathCache(GridWorld world, int capacity) {
+        this(world, PathAlgorithm.INDEXED_ASTAR, capacity);
+    }
+
+    public PathCache(GridWorld world, PathAlgorithm algorithm, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.world = world;
+        this.algorithm = algorithm;
+        this.capacity = capacity;
+        this.width = world.getWidth();
+        this.version = world.getVersion();
+        world.addListener(this);
+    }
+
+    /**
+     * Same contract as GridWorld.findPath, answered from the cache when possible
+     */
+    public boolean findPath(int startX, int startY, int goalX, int goalY, IntArray out) {
+        out.clear();
+        if (!world.isInBounds(startX, startY) || !world.isInBounds(goalX, goalY)) {
+            return false;
+        }
+        if (version != world.getVersion()) {
+            // Edits we weren't told about
+            clear();
+            version = world.getVersion();
+        }
+
+        int start = world.toIndex(startX, startY);
+        int goal = world.toIndex(goalX, goalY);
+        long key = ((long) start << 32) | goal;
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hitCount++;
+            unlink(entry);
+            link(entry);
+            if (entry.found) {
+                out.addAll(entry.cells);
+            }
+            return entry.found;
+        }
+
+        missCount++;
+        boolean found = world.findPath(startX, startY, goalX, goalY, algorithm, out);
+        entry = new Entry(key, start, goal, found, out);
+        entries.put(key, entry);
+        link(entry);
+        if (entries.size > capacity) {
+            remove(oldest);
+        }
+        return found;
+    }
+
+    /**
+     * Append an entry as the most recently used
+     */
+    private void link(Entry entry) {
+        entry.previous = newest;
+        entry.next = null;
+        if (newest != null) {
+            newest.next = entry;
+        } else {
+            oldest = entry;
+        }
+        newest = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            oldest = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        } else {
+            newest = entry.previous;
+        }
+    }
+
+    private void remove(Entry entry) {
+        unlink(entry);
+        entries.remove(entry.key);
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        version = world.getVersion();
+        int index = world.toIndex(x, y);
+        boolean opened = world.isWalkable(index);
+
+        evict(x, y, x, y, opened);
+    }
+
+    @Override
+    public void costsChanged(int minX, int minY, int maxX, int maxY) {
+        version = world.getVersion();
+        evict(minX, minY, maxX, maxY, true);
+    }
+
+    @Override
+    public void regionChanged(int minX, int minY, int maxX, int maxY) {
+        // Cells may have opened anywhere in the batch
+        version = world.getVersion();
+        evict(minX, minY, maxX, maxY, true);
+    }
+
+    /**
+     * Drop the entries an edit of the rectangle can affect; improvements only matter when cells got cheaper or opened
+     */
+    private void evict(int minX, int minY, int maxX, int maxY, boolean canImprove) {
+        int minCost = world.getMinCost();
+        Entry entry = oldest;
+        while (entry != null) {
+            Entry next = entry.next;
+            boolean stale = canImprove
+                ? entry.couldImprove(minX, minY, maxX, maxY, minCost)
+                : entry.touches(minX, minY, maxX, maxY);
+            if (stale) {
+                remove(entry);
+                evictionCount++;
+            }
+            entry = next;
+        }
+    }
+
+    public void clear() {
+        evictionCount += entries.size;
+        entries.clear();
+        oldest = null;
+        newest = null;
+    }
+
+    public void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    public float getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (float) hitCount / lookups;
+    }
+
+    public float getMissRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (float) missCount / lookups;
+    }
+
+    public long getHitCount() { return hitCount; }
+    public long getMissCount() { return missCount; }
+    public long getEvictionCount() { return evictionCount; }
+    public int size() { return entries.size; }
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Gap between a coordinate and a range, 0 when inside it
+     */
+    private static int gap(int value, int min, int max) {
+        return Math.max(0, Math.max(min - value, value - max));
+    }
+
+    /**
+     * A cached result with the bounding box of its path, so most edits are rejected without scanning the cells
+     */
+    private final class Entry {
+        final long key;
+        final int startX;
+        final int startY;
+        final int goalX;
+        final int goalY;
+        final boolean found;
+        final int[] cells;
+        final float cost;
+        int minX, minY, maxX, maxY;
+
+        // Neighbours in the use order
+        Entry previous;
+        Entry next;
+
+        Entry(long key, int start, int goal, boolean found, IntArray path) {
+            this.key = key;
+            this.startX = start % width;
+            this.startY = start / width;
+            this.goalX = goal % width;
+            this.goalY = goal / width;
+            this.found = found;
+            this.cells = found ? path.toArray() : null;
+
+            float total = 0;
+            minX = maxX = startX;
+            minY = maxY = startY;
+            if (found) {
+                for (int i = 0; i < cells.length; i++) {
+                    int x = cells[i] % width;
+                    int y = cells[i] / width;
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                    if (i > 0) {
+                        boolean diagonal = x != cells[i - 1] % width && y != cells[i - 1] / width;
+                        total += world.getCost(cells[i]) * (diagonal ? Connectivity.DIAGONAL_COST : 1);
+                    }
+                }
+            }
+            this.cost = total;
+        }
+
+        /**
+         * Whether the path runs through the rectangle or next to it
+         */
+        boolean touches(int left, int bottom, int right, int top) {
+            if (!found || right < minX - 1 || left > maxX + 1 || top < minY - 1 || bottom > maxY + 1) {
+                return false;
+            }
+            // Diagonal neighbours count, a step past a corner depends on them
+            for (int cell : cells) {
+                if (gap(cell % width, left, right) <= 1 && gap(cell / width, bottom, top) <= 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether an edit of the rectangle might give a different or cheaper answer. Every step costs at
+         * least minCost, so a route through the rectangle costs at least that times the steps via it
+         */
+        boolean couldImprove(int left, int bottom, int right, int top, int minCost) {
+            if (!found) {
+                return true;
+            }
+            // A step moves at most one cell per axis and costs at least minCost, so neither the path nor a
+            // cheaper route gets further from the start than cost / minCost cells; one more for neighbours
+            float reach = cost / minCost + 1;
+            if (gap(startX, left, right) > reach || gap(startY, bottom, top) > reach) {
+                return false;
+            }
+            Connectivity connectivity = world.getConnectivity();
+            float steps = connectivity.distance(gap(startX, left, right), gap(startY, bottom, top))
+                + connectivity.distance(gap(goalX, left, right), gap(goalY, bottom, top));
+            return steps * minCost < cost || touches(left, bottom, right, top);
+        }
+    }
+}
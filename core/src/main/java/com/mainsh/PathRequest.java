@@ -0,0 +1,46 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * One path query for BatchPathfinder. Requests are meant to be kept and reused by their agent;
+ * the result is written into the request's own path array.
+ */
+public class PathRequest {
+    /**
+     * Called on the thread that delivers the batch (normally the render thread)
+     */
+    public interface Callback {
+        void pathReady(PathRequest request);
+    }
+
+    public int startX;
+    public int startY;
+    public int goalX;
+    public int goalY;
+
+    // Each worker runs its own engine for this algorithm
+    public PathAlgorithm algorithm = PathAlgorithm.INDEXED_ASTAR;
+
+    // Optional, invoked once the result has been delivered
+    public Callback callback;
+
+    // Result: cell indices from start to goal, valid when found is true
+    public final IntArray path = new IntArray();
+    public boolean found;
+
+    public PathRequest() {
+    }
+
+    public PathRequest(int startX, int startY, int goalX, int goalY) {
+        set(startX, startY, goalX, goalY);
+    }
+
+    public PathRequest set(int startX, int startY, int goalX, int goalY) {
+        this.startX = startX;
+        this.startY = startY;
+        this.goalX = goalX;
+        this.goalY = goalY;
+        return this;
+    }
+}
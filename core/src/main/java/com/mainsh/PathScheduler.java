@@ -0,0 +1,187 @@
+package com.mainsh;
+
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.ai.msg.Telegraph;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinderQueue;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Runs path requests through gdx-ai's PathFinderQueue with a fixed time budget per frame.
+ * A search that doesn't fit in one frame is suspended and resumed on the next, so a long query
+ * never causes a frame spike. Call update() once per frame; finished paths are handed to each
+ * request's listener from inside update(), on the render thread. Requests whose start and goal lie in
+ * different regions are never searched; they fail on the next update().
+ * The grid must use NODES storage: gdx-ai's search keeps the node objects it has seen, which FLAT views
+ * don't stay the same for.
+ */
+public class PathScheduler implements Telegraph {
+    // Message codes used between the scheduler and the queue
+    private static final int REQUEST_PATH = 1;
+    private static final int PATH_READY = 2;
+
+    /**
+     * Receives a finished search; the path is only valid during the call
+     */
+    public interface Listener {
+        void pathReady(GraphPath<GridNode> path, boolean found);
+    }
+
+    private final GridWorld world;
+    private final PathFinderQueue<GridNode> queue;
+    private final MessageDispatcher dispatcher = new MessageDispatcher();
+    private final Heuristic<GridNode> heuristic;
+    private final Pool<Request> requestPool = new Pool<Request>() {
+        @Override
+        protected Request newObject() {
+            return new Request();
+        }
+    };
+
+    // Requests rejected without a search, delivered on the next update
+    private final Array<Request> unreachable = new Array<Request>();
+
+    // Search time allowed per frame
+    private long budgetNanos;
+
+    // Requests submitted but not delivered yet, including the one being searched
+    private int pendingCount;
+
+    // Submit-to-delivery latency of finished requests
+    private float lastLatencyMillis;
+    private float maxLatencyMillis;
+    private float averageLatencyMillis;
+    private int lastExecutionFrames;
+    private int completedCount;
+
+    public PathScheduler(GridWorld world, float budgetMillis) {
+        if (world.getStorage() != GridStorage.NODES) {
+            throw new IllegalArgumentException("PathScheduler needs a NODES grid, got " + world.getStorage());
+        }
+        this.world = world;
+        this.heuristic = world.getHeuristic();
+        this.queue = new PathFinderQueue<GridNode>(new IndexedAStarPathFinder<GridNode>(world));
+        setBudgetMillis(budgetMillis);
+    }
+
+    /**
+     * Queue a search from start to goal. Returns false when either position is outside the grid
+     */
+    public boolean request(int startX, int startY, int goalX, int goalY, Listener listener) {
+        GridNode startNode = world.getNode(startX, startY);
+        GridNode goalNode = world.getNode(goalX, goalY);
+        if (startNode == null || goalNode == null) {
+            return false;
+        }
+
+        Request request = requestPool.obtain();
+        request.startNode = startNode;
+        request.endNode = goalNode;
+        request.heuristic = heuristic;
+        request.dispatcher = dispatcher;
+        request.responseMessageCode = PATH_READY;
+        request.listener = listener;
+        request.submitTime = TimeUtils.nanoTime();
+
+        pendingCount++;
+        if (!world.getRegionIndex().isConnected(startNode.getIndex(), goalNode.getIndex())) {
+            // The search would explore the whole region before giving up
+            request.pathFound = false;
+            request.executionFrames = 0;
+            unreachable.add(request);
+            return true;
+        }
+        dispatcher.dispatchMessage(this, queue, REQUEST_PATH, request);
+        return true;
+    }
+
+    /**
+     * Spend up to the frame budget searching; finished requests are delivered before this returns
+     */
+    public void update() {
+        for (int i = 0; i < unreachable.size; i++) {
+            deliver(unreachable.get(i));
+        }
+        unreachable.clear();
+
+        if (pendingCount > 0) {
+            queue.run(budgetNanos);
+        }
+    }
+
+    @Override
+    public boolean handleMessage(Telegram telegram) {
+        deliver((Request) telegram.extraInfo);
+        return true;
+    }
+
+    private void deliver(Request request) {
+        pendingCount--;
+
+        float latency = (TimeUtils.nanoTime() - request.submitTime) / 1000000f;
+        lastLatencyMillis = latency;
+        maxLatencyMillis = Math.max(maxLatencyMillis, latency);
+        averageLatencyMillis += (latency - averageLatencyMillis) / ++completedCount;
+        lastExecutionFrames = request.executionFrames;
+
+        request.listener.pathReady(request.resultPath, request.pathFound);
+        requestPool.free(request);
+    }
+
+    public void setBudgetMillis(float budgetMillis) {
+        this.budgetNanos = (long) (budgetMillis * 1000000f);
+    }
+
+    public float getBudgetMillis() {
+        return budgetNanos / 1000000f;
+    }
+
+    /**
+     * Requests waiting or being searched
+     */
+    public int getQueueDepth() {
+        return pendingCount;
+    }
+
+    public float getLastLatencyMillis() { return lastLatencyMillis; }
+    public float getMaxLatencyMillis() { return maxLatencyMillis; }
+    public float getAverageLatencyMillis() { return averageLatencyMillis; }
+    public int getLastExecutionFrames() { return lastExecutionFrames; }
+    public int getCompletedCount() { return completedCount; }
+
+    /**
+     * Pooled request carrying its listener and submit time
+     */
+    private static class Request extends PathFinderRequest<GridNode> implements Pool.Poolable {
+        Listener listener;
+        long submitTime;
+
+        Request() {
+            resultPath = new DefaultGraphPath<GridNode>();
+        }
+
+        @Override
+        public void reset() {
+            startNode = null;
+            endNode = null;
+            heuristic = null;
+            resultPath.clear();
+            executionFrames = 0;
+            pathFound = false;
+            status = SEARCH_NEW;
+            statusChanged = false;
+            client = null;
+            responseMessageCode = 0;
+            dispatcher = null;
+            listener = null;
+            submitTime = 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mainsh;
+
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * String pulling for grid paths: keeps only the cells where the path has to turn, dropping every cell that
+ * a straight line from the previous kept cell can skip. A line may skip cells only if every cell it
+ * passes through is walkable, checked with a supercover walk that sees every cell the line touches. A line
+ * through the exact corner where four cells meet needs both side cells open. It must also cost no more per
+ * cell than the stretch of path it replaces, so the path doesn't cut across terrain the search went around.
+ * Points are cell centres scaled by a cell size, written as x, y pairs into a FloatArray the caller reuses.
+ */
+public class PathSmoother {
+    private final GridWorld world;
+
+    // Path cells as x, y pairs, reused between calls
+    private final IntArray cells = new IntArray();
+
+    public PathSmoother(GridWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Smooth a path of cell indices, as written by a GridPathFinder
+     */
+    public void smooth(IntArray path, float cellSize, FloatArray out) {
+        cells.clear();
+        for (int i = 0; i < path.size; i++) {
+            int index = path.get(i);
+            cells.add(world.getX(index), world.getY(index));
+        }
+        smoothCells(cellSize, out);
+    }
+
+    /**
+     * Smooth a path of nodes, as found by the gdx pathfinder
+     */
+    public void smooth(GraphPath<GridNode> path, float cellSize, FloatArray out) {
+        cells.clear();
+        for (int i = 0; i < path.getCount(); i++) {
+            GridNode node = path.get(i);
+            cells.add(node.getX(), node.getY());
+        }
+        smoothCells(cellSize, out);
+    }
+
+    private void smoothCells(float cellSize, FloatArray out) {
+        out.clear();
+        int count = cells.size / 2;
+        if (count == 0) {
+            return;
+        }
+
+        int anchor = 0;
+        addPoint(anchor, cellSize, out);
+        // Costliest cell on the path since the anchor, not counting the anchor itself
+        int maxCost = 0;
+        for (int i = 1; i < count; i++) {
+            maxCost = Math.max(maxCost, cellCost(i));
+            if (i - anchor < 2) {
+                continue;
+            }
+            if (!isClear(cells.get(2 * anchor), cells.get(2 * anchor + 1), cells.get(2 * i), cells.get(2 * i + 1), maxCost)) {
+                // The line to this cell is blocked, so the previous one is a corner
+                anchor = i - 1;
+                addPoint(anchor, cellSize, out);
+                maxCost = cellCost(i);
+            }
+        }
+        if (anchor != count - 1) {
+            addPoint(count - 1, cellSize, out);
+        }
+    }
+
+    private int cellCost(int i) {
+        return world.getCost(world.toIndex(cells.get(2 * i), cells.get(2 * i + 1)));
+    }
+
+    private void addPoint(int i, float cellSize, FloatArray out) {
+        out.add((cells.get(2 * i) + 0.5f) * cellSize, (cells.get(2 * i + 1) + 0.5f) * cellSize);
+    }
+
+    /**
+     * Whether a straight line between two cell centres crosses only walkable cells costing at most maxCost.
+     * Walks the cells in the order the line enters them, stepping both ways at once where it passes
+     * exactly through a corner
+     */
+    public boolean isClear(int fromX, int fromY, int toX, int toY, int maxCost) {
+        int dx = Math.abs(toX - fromX);
+        int dy = Math.abs(toY - fromY);
+        int stepX = toX > fromX ? 1 : -1;
+        int stepY = toY > fromY ? 1 : -1;
+
+        int x = fromX;
+        int y = fromY;
+        int movedX = 0;
+        int movedY = 0;
+        while (movedX < dx || movedY < dy) {
+            // Sign tells whether the line next crosses a vertical or a horizontal cell border
+            long decision = (1L + 2 * movedX) * dy - (1L + 2 * movedY) * dx;
+            if (decision == 0) {
+                // Through a corner: the cells on both sides are touched too
+                if (!isOpen(x + stepX, y, maxCost) || !isOpen(x, y + stepY, maxCost)) {
+                    return false;
+                }
+                x += stepX;
+                y += stepY;
+                movedX++;
+                movedY++;
+            } else if (decision < 0) {
+                x += stepX;
+                movedX++;
+            } else {
+                y += stepY;
+                movedY++;
+            }
+            if (!isOpen(x, y, maxCost)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isOpen(int x, int y, int maxCost) {
+        return world.isWalkable(x, y) && world.getCost(world.toIndex(x, y)) <= maxCost;
+    }
+}
@@ -17,9 +17,15 @@ public class PathfindingScreen implements Screen {
     private static final int GRID_HEIGHT = 15;
     private static final int CELL_SIZE = 32;
 
+    // Landmarks for the A* heuristic; Manhattan distance is a poor guide through the walls
+    private static final int LANDMARK_COUNT = 8;
+
     // Our grid world
     private GridWorld gridWorld;
 
+    // ALT heuristic over the current grid, rebuilt in the background when edits make it stale
+    private LandmarkHeuristic landmarks;
+
     // Start and goal positions
     private int startX = 1;
     private int startY = 1;
@@ -53,6 +59,7 @@ public class PathfindingScreen implements Screen {
 
         // Set up some obstacles for demonstration
         setupObstacles();
+        createLandmarks();
 
         // Calculate initial path
         calculatePath();
@@ -169,16 +176,28 @@ public class PathfindingScreen implements Screen {
      * Reset the grid to its initial state
      */
     private void resetGrid() {
+        landmarks.dispose();
         gridWorld = new GridWorld(GRID_WIDTH, GRID_HEIGHT);
         setupObstacles();
+        createLandmarks();
         calculatePath();
         Gdx.app.log("PathfindingScreen", "Grid Reset");
     }
 
+    /**
+     * Build the landmark tables for the current grid and use them as its A* heuristic
+     */
+    private void createLandmarks() {
+        landmarks = LandmarkHeuristic.compute(gridWorld, LANDMARK_COUNT);
+        gridWorld.setHeuristic(landmarks);
+        gridWorld.addListener(landmarks);
+    }
+
     /**
      * Calculate the path from start to goal
      */
     private void calculatePath() {
+        // Stale tables estimate with the plain distance until the background rebuild is swapped in
         currentPath = gridWorld.findPath(startX, startY, goalX, goalY);
 
         if (currentPath == null) {
@@ -190,6 +209,8 @@ public class PathfindingScreen implements Screen {
 
     @Override
     public void render(float delta) {
+        landmarks.update();
+
         // Clear the screen
         Gdx.gl.glClearColor(0.1f, 0.1f, 0.1f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
@@ -289,5 +310,6 @@ public class PathfindingScreen implements Screen {
     @Override
     public void dispose() {
         shapeRenderer.dispose();
+        landmarks.dispose();
     }
 }
@@ -6,14 +6,15 @@ import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
 import com.badlogic.gdx.ai.pfa.GraphPath;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.InputAdapter;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.utils.TimeUtils;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 
 /**
  * A screen that demonstrates A* pathfinding with an enemy following the cursor
@@ -22,6 +23,8 @@ public class PathfindingWithEnemyScreen implements Screen {
     private final MyGame game;
     private OrthographicCamera camera;
     private ShapeRenderer shapeRenderer;
+    // Cells and grid lines, cached on the GPU and rebuilt only where the grid changes
+    private GridMeshRenderer gridRenderer;
 
     // Grid world dimensions
     private static final int GRID_WIDTH = 20;
@@ -31,8 +34,12 @@ public class PathfindingWithEnemyScreen implements Screen {
     // Our grid world
     private GridWorld gridWorld;
 
-    // Enemy properties
-    private Vector2 enemyPosition;
+    // Enemy properties; its position and path live in the agent system, along with any extra
+    // enemies spawned with 'E' that follow the same path
+    private AgentSystem agents;
+    private int enemy;
+    private AgentSpatialHash agentHash = new AgentSpatialHash(CELL_SIZE);
+    private SeparationSteering separation;
     private float enemyRadius = 10f;
     private float enemySpeed = 120f; // pixels per second
     private int enemyGridX = 1;
@@ -45,12 +52,61 @@ public class PathfindingWithEnemyScreen implements Screen {
 
     // The current path for the enemy to follow
     private GraphPath<GridNode> currentPath;
-    private Array<Vector2> pathWaypoints;
-    private int currentWaypointIndex = 0;
+    // Corner points of the smoothed path as x, y pairs in world coordinates
+    private final FloatArray pathWaypoints = new FloatArray();
+    private PathSmoother pathSmoother;
+
+    // Unprojection scratch for input events
+    private final Vector3 touchPoint = new Vector3();
+
+    // Enemies move in fixed steps, independent of the frame rate; frames draw them between the last two steps
+    private static final float SIMULATION_RATE = 20; // steps per second
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    private final FixedTimestep simulationClock = new FixedTimestep(SIMULATION_RATE, MAX_STEPS_PER_FRAME);
+
+    // Pathfinding settings, in simulated time
+    private float timeSinceRepath = 0;
+    private static final float PATHFINDING_INTERVAL = 0.5f; // seconds between path recalculations
+
+    // Background path searches, time-sliced across frames
+    private static final float PATHFINDING_BUDGET_MS = 2f; // search time allowed per frame
+    private PathScheduler pathScheduler;
+    private boolean pathRequestPending = false;
+    private boolean repathWhenReady = false;
+    private DefaultGraphPath<GridNode> scheduledPath = new DefaultGraphPath<GridNode>();
+    private final PathScheduler.Listener pathListener = new PathScheduler.Listener() {
+        @Override
+        public void pathReady(GraphPath<GridNode> path, boolean found) {
+            pathRequestPending = false;
+            Gdx.app.debug("PathfindingScreen", "Path delivered after " + pathScheduler.getLastLatencyMillis()
+                + " ms over " + pathScheduler.getLastExecutionFrames() + " frames, queue depth "
+                + pathScheduler.getQueueDepth());
+
+            // The scheduler reuses its result path, so keep our own copy
+            scheduledPath.clear();
+            if (found) {
+                for (int i = 0; i < path.getCount(); i++) {
+                    scheduledPath.add(path.get(i));
+                }
+            }
+            setCurrentPath(found ? scheduledPath : null);
+
+            // The grid or cursor changed while this search was running
+            if (repathWhenReady) {
+                repathWhenReady = false;
+                calculatePath();
+            }
+        }
+    };
 
-    // Pathfinding settings
-    private long lastPathfindingTime = 0;
-    private static final long PATHFINDING_INTERVAL = 500; // ms between path recalculations
+    // Movement rule for the grid, cycled with 'D'
+    private Connectivity connectivity = Connectivity.FOUR;
+
+    // Incremental re-planning (toggled with 'I') instead of a fresh A* search per recalculation
+    private boolean incrementalPlanning = false;
+    private MovingTargetPlanner planner;
+    private IntArray plannedCells = new IntArray();
+    private DefaultGraphPath<GridNode> plannedPath = new DefaultGraphPath<GridNode>();
 
     // Input handling
     private int selectedX = -1;
@@ -70,18 +126,19 @@ public class PathfindingWithEnemyScreen implements Screen {
         shapeRenderer = new ShapeRenderer();
 
         // Initialize the grid world
-        gridWorld = new GridWorld(GRID_WIDTH, GRID_HEIGHT);
+        gridWorld = new GridWorld(GRID_WIDTH, GRID_HEIGHT, GridStorage.NODES, connectivity);
 
         // Set up some obstacles for demonstration
         setupObstacles();
+        createPlanner();
+        createPathScheduler();
+        gridRenderer = new GridMeshRenderer(gridWorld, CELL_SIZE);
 
         // Initialize enemy and cursor positions
-        enemyPosition = new Vector2(enemyGridX * CELL_SIZE + CELL_SIZE / 2, enemyGridY * CELL_SIZE + CELL_SIZE / 2);
+        agents = new AgentSystem(16, 2.0f);
+        enemy = agents.add(enemyGridX * CELL_SIZE + CELL_SIZE / 2, enemyGridY * CELL_SIZE + CELL_SIZE / 2, enemySpeed);
         cursorPosition = new Vector2(cursorGridX * CELL_SIZE + CELL_SIZE / 2, cursorGridY * CELL_SIZE + CELL_SIZE / 2);
 
-        // Initialize waypoints array
-        pathWaypoints = new Array<Vector2>();
-
         // Initial path calculation
         calculatePath();
 
@@ -91,12 +148,11 @@ public class PathfindingWithEnemyScreen implements Screen {
             @Override
             public boolean touchDown(int screenX, int screenY, int pointer, int button) {
                 // Convert screen coordinates to world coordinates
-                Vector3 worldCoords = new Vector3(screenX, screenY, 0);
-                camera.unproject(worldCoords);
+                camera.unproject(touchPoint.set(screenX, screenY, 0));
 
                 // Convert to grid coordinates
-                int gridX = (int)(worldCoords.x / CELL_SIZE);
-                int gridY = (int)(worldCoords.y / CELL_SIZE);
+                int gridX = (int)(touchPoint.x / CELL_SIZE);
+                int gridY = (int)(touchPoint.y / CELL_SIZE);
 
                 if (gridX >= 0 && gridX < GRID_WIDTH && gridY >= 0 && gridY < GRID_HEIGHT) {
                     selectedX = gridX;
@@ -120,18 +176,16 @@ public class PathfindingWithEnemyScreen implements Screen {
             @Override
             public boolean touchDragged(int screenX, int screenY, int pointer) {
                 // Update cursor position
-                Vector3 worldCoords = new Vector3(screenX, screenY, 0);
-                camera.unproject(worldCoords);
-                updateCursorPosition(worldCoords.x, worldCoords.y);
+                camera.unproject(touchPoint.set(screenX, screenY, 0));
+                updateCursorPosition(touchPoint.x, touchPoint.y);
                 return true;
             }
 
             @Override
             public boolean mouseMoved(int screenX, int screenY) {
                 // Update cursor position
-                Vector3 worldCoords = new Vector3(screenX, screenY, 0);
-                camera.unproject(worldCoords);
-                updateCursorPosition(worldCoords.x, worldCoords.y);
+                camera.unproject(touchPoint.set(screenX, screenY, 0));
+                updateCursorPosition(touchPoint.x, touchPoint.y);
                 return true;
             }
 
@@ -148,6 +202,20 @@ public class PathfindingWithEnemyScreen implements Screen {
                         removeObstacle = true;
                         Gdx.app.log("PathfindingScreen", "Clear Obstacle Mode");
                         break;
+                    case Keys.I:
+                        incrementalPlanning = !incrementalPlanning;
+                        Gdx.app.log("PathfindingScreen", "Incremental Planning " + (incrementalPlanning ? "On" : "Off"));
+                        calculatePath();
+                        break;
+                    case Keys.D:
+                        cycleConnectivity();
+                        break;
+                    case Keys.E:
+                        // Another enemy on top of the first; separation spreads them out
+                        int spawned = agents.add(agents.getX(enemy), agents.getY(enemy), enemySpeed);
+                        agents.setPath(spawned, pathWaypoints);
+                        Gdx.app.log("PathfindingScreen", agents.getCount() + " enemies");
+                        break;
                     case Keys.R:
                         // Reset the grid
                         resetGrid();
@@ -210,35 +278,72 @@ public class PathfindingWithEnemyScreen implements Screen {
      * Reset the grid to its initial state
      */
     private void resetGrid() {
-        gridWorld = new GridWorld(GRID_WIDTH, GRID_HEIGHT);
+        gridWorld = new GridWorld(GRID_WIDTH, GRID_HEIGHT, GridStorage.NODES, connectivity);
         setupObstacles();
+        createPlanner();
+        createPathScheduler();
+        gridRenderer.setWorld(gridWorld);
         calculatePath();
         Gdx.app.log("PathfindingScreen", "Grid Reset");
     }
 
+    /**
+     * Switch to the next movement rule, keeping the obstacles placed so far
+     */
+    private void cycleConnectivity() {
+        Connectivity[] values = Connectivity.values();
+        connectivity = values[(connectivity.ordinal() + 1) % values.length];
+
+        GridWorld previous = gridWorld;
+        gridWorld = new GridWorld(GRID_WIDTH, GRID_HEIGHT, GridStorage.NODES, connectivity);
+        gridWorld.syncFrom(previous);
+        createPlanner();
+        createPathScheduler();
+        gridRenderer.setWorld(gridWorld);
+        calculatePath();
+        Gdx.app.log("PathfindingScreen", "Movement: " + connectivity);
+    }
+
     /**
      * Calculate the path from enemy to cursor
      */
     private void calculatePath() {
         // Update enemy grid position
-        enemyGridX = (int)(enemyPosition.x / CELL_SIZE);
-        enemyGridY = (int)(enemyPosition.y / CELL_SIZE);
+        enemyGridX = (int)(agents.getX(enemy) / CELL_SIZE);
+        enemyGridY = (int)(agents.getY(enemy) / CELL_SIZE);
 
         // Clamp to grid bounds
         enemyGridX = Math.max(0, Math.min(enemyGridX, GRID_WIDTH - 1));
         enemyGridY = Math.max(0, Math.min(enemyGridY, GRID_HEIGHT - 1));
 
-        // Find path from enemy to cursor
-        currentPath = gridWorld.findPath(enemyGridX, enemyGridY, cursorGridX, cursorGridY);
+        // Restart the re-plan timer
+        timeSinceRepath = 0;
 
-        // Update path waypoints
-        updatePathWaypoints();
+        if (!incrementalPlanning) {
+            // Search in the background; the enemy keeps following its current waypoints until the path arrives
+            if (pathRequestPending) {
+                repathWhenReady = true;
+            } else {
+                pathRequestPending = pathScheduler.request(enemyGridX, enemyGridY, cursorGridX, cursorGridY, pathListener);
+            }
+            return;
+        }
 
-        // Reset waypoint index
-        currentWaypointIndex = 0;
+        // Find path from enemy to cursor
+        setCurrentPath(planIncrementally());
+    }
+
+    /**
+     * Replace the path the enemy follows
+     */
+    private void setCurrentPath(GraphPath<GridNode> path) {
+        currentPath = path;
 
-        // Update last pathfinding time
-        lastPathfindingTime = TimeUtils.millis();
+        // Update path waypoints and start every enemy on the first one
+        updatePathWaypoints();
+        for (int agent = 0; agent < agents.getCount(); agent++) {
+            agents.setPath(agent, pathWaypoints);
+        }
 
         if (currentPath == null) {
             Gdx.app.log("PathfindingScreen", "No path found!");
@@ -248,27 +353,61 @@ public class PathfindingWithEnemyScreen implements Screen {
     }
 
     /**
-     * Convert path nodes to world coordinates for smooth movement
+     * Create the path scheduler for the current grid; requests for the previous grid are dropped with it
      */
-    private void updatePathWaypoints() {
-        // Clear existing waypoints
-        pathWaypoints.clear();
+    private void createPathScheduler() {
+        pathScheduler = new PathScheduler(gridWorld, PATHFINDING_BUDGET_MS);
+        pathRequestPending = false;
+        repathWhenReady = false;
+    }
 
-        if (currentPath != null && currentPath.getCount() > 0) {
-            // Add waypoints for each node in the path (converting to world coordinates)
-            for (int i = 0; i < currentPath.getCount(); i++) {
-                GridNode node = currentPath.get(i);
-                // Use center of cell for smoother movement
-                pathWaypoints.add(new Vector2(
-                    node.getX() * CELL_SIZE + CELL_SIZE / 2,
-                    node.getY() * CELL_SIZE + CELL_SIZE / 2
-                ));
-            }
+    /**
+     * Create the incremental planner and path smoother for the current grid; the planner follows obstacle
+     * edits as a listener
+     */
+    private void createPlanner() {
+        planner = new MovingTargetPlanner(gridWorld);
+        gridWorld.addListener(planner);
+        pathSmoother = new PathSmoother(gridWorld);
+        separation = new SeparationSteering(2 * enemyRadius, enemySpeed / 2);
+        separation.setObstacles(gridWorld, CELL_SIZE);
+    }
+
+    /**
+     * Re-plan with the incremental planner, repairing its previous search instead of starting over
+     */
+    private GraphPath<GridNode> planIncrementally() {
+        if (!gridWorld.getRegionIndex().isConnected(enemyGridX, enemyGridY, cursorGridX, cursorGridY)) {
+            return null; // Cursor is walled off, the planner would search everything it can reach
+        }
+        boolean found = planner.findPath(gridWorld.toIndex(enemyGridX, enemyGridY),
+            gridWorld.toIndex(cursorGridX, cursorGridY), plannedCells);
+        Gdx.app.debug("PathfindingScreen", "Incremental re-plan expanded " + planner.getExpandedCount() + " nodes");
+
+        if (!found) {
+            return null;
+        }
+        plannedPath.clear();
+        for (int i = 0; i < plannedCells.size; i++) {
+            int cell = plannedCells.get(i);
+            plannedPath.add(gridWorld.getNode(gridWorld.getX(cell), gridWorld.getY(cell)));
+        }
+        return plannedPath;
+    }
+
+    /**
+     * Reduce the path to the cell centres where it turns, in world coordinates
+     */
+    private void updatePathWaypoints() {
+        if (currentPath == null) {
+            pathWaypoints.clear();
+        } else {
+            pathSmoother.smooth(currentPath, CELL_SIZE, pathWaypoints);
         }
     }
 
     /**
-     * Update enemy position to follow the path
+     * Advance enemies along the path by one simulation step
      */
     private void updateEnemyPosition(float delta) {
         if (pathWaypoints.size == 0) {
@@ -276,39 +415,31 @@ public class PathfindingWithEnemyScreen implements Screen {
         }
 
         // Check if we should recalculate the path
-        if (TimeUtils.millis() - lastPathfindingTime > PATHFINDING_INTERVAL) {
+        timeSinceRepath += delta;
+        if (timeSinceRepath > PATHFINDING_INTERVAL) {
             calculatePath();
         }
 
-        // Get current waypoint
-        if (currentWaypointIndex < pathWaypoints.size) {
-            Vector2 currentWaypoint = pathWaypoints.get(currentWaypointIndex);
-
-            // Calculate direction to waypoint
-            Vector2 direction = new Vector2(
-                currentWaypoint.x - enemyPosition.x,
-                currentWaypoint.y - enemyPosition.y
-            );
-
-            // Check if we've reached the waypoint (with a small tolerance)
-            float distance = direction.len();
-            if (distance < 2.0f) {
-                // Move to next waypoint
-                currentWaypointIndex++;
-            } else {
-                // Normalize direction and scale by speed
-                direction.nor().scl(enemySpeed * delta);
+        // Head for the current waypoint, moving on once within 2 pixels of it
+        agents.update(delta);
 
-                // Update enemy position
-                enemyPosition.add(direction);
-            }
-        }
+        // Keep enemies from piling up on each other
+        agentHash.build(agents);
+        separation.apply(agents, agentHash, delta);
     }
 
     @Override
     public void render(float delta) {
-        // Update enemy position
-        updateEnemyPosition(delta);
+        // Run queued path searches within this frame's budget
+        pathScheduler.update();
+
+        // Run the simulation steps due by now, keeping the positions before the last one to draw from
+        int steps = simulationClock.advance(delta);
+        for (int i = 0; i < steps; i++) {
+            agents.storePositions();
+            updateEnemyPosition(simulationClock.getStep());
+        }
+        float alpha = simulationClock.getAlpha();
 
         // Clear the screen
         Gdx.gl.glClearColor(0.1f, 0.1f, 0.1f, 1);
@@ -317,33 +448,14 @@ public class PathfindingWithEnemyScreen implements Screen {
         // Update camera
         camera.update();
 
+        // Draw cells (obstacles red, others dark gray) and grid lines in one call
+        gridRenderer.render(camera.combined);
+
         // Set projection matrix
         shapeRenderer.setProjectionMatrix(camera.combined);
 
-        // Draw grid
         shapeRenderer.begin(ShapeType.Filled);
 
-        // Draw cells
-        for (int x = 0; x < GRID_WIDTH; x++) {
-            for (int y = 0; y < GRID_HEIGHT; y++) {
-                GridNode node = gridWorld.getNode(x, y);
-
-                if (node != null) {
-                    if (!node.isWalkable()) {
-                        // Obstacle (red)
-                        shapeRenderer.setColor(0.8f, 0.2f, 0.2f, 1);
-                    } else {
-                        // Normal cell (dark gray)
-                        shapeRenderer.setColor(0.2f, 0.2f, 0.2f, 1);
-                    }
-
-                    // Draw cell with a small border
-                    shapeRenderer.rect(x * CELL_SIZE + 1, y * CELL_SIZE + 1,
-                        CELL_SIZE - 2, CELL_SIZE - 2);
-                }
-            }
-        }
-
         // Draw the path if it exists
         if (currentPath != null) {
             shapeRenderer.setColor(0.2f, 0.7f, 0.2f, 1); // Green path
@@ -357,27 +469,16 @@ public class PathfindingWithEnemyScreen implements Screen {
 
         shapeRenderer.end();
 
-        // Draw grid lines
         shapeRenderer.begin(ShapeType.Line);
-        shapeRenderer.setColor(0.3f, 0.3f, 0.3f, 1); // Gray
-
-        for (int x = 0; x <= GRID_WIDTH; x++) {
-            shapeRenderer.line(x * CELL_SIZE, 0, x * CELL_SIZE, GRID_HEIGHT * CELL_SIZE);
-        }
-
-        for (int y = 0; y <= GRID_HEIGHT; y++) {
-            shapeRenderer.line(0, y * CELL_SIZE, GRID_WIDTH * CELL_SIZE, y * CELL_SIZE);
-        }
 
         // Draw waypoints and connections if path exists
         if (pathWaypoints.size > 0) {
             shapeRenderer.setColor(0.0f, 0.8f, 0.8f, 1); // Cyan
 
             // Draw lines between waypoints
-            for (int i = 0; i < pathWaypoints.size - 1; i++) {
-                Vector2 current = pathWaypoints.get(i);
-                Vector2 next = pathWaypoints.get(i + 1);
-                shapeRenderer.line(current, next);
+            for (int i = 2; i < pathWaypoints.size; i += 2) {
+                shapeRenderer.line(pathWaypoints.get(i - 2), pathWaypoints.get(i - 1),
+                    pathWaypoints.get(i), pathWaypoints.get(i + 1));
             }
         }
 
@@ -386,9 +487,11 @@ public class PathfindingWithEnemyScreen implements Screen {
         // Draw enemy and cursor
         shapeRenderer.begin(ShapeType.Filled);
 
-        // Draw enemy (blue circle)
+        // Draw enemies (blue circles)
         shapeRenderer.setColor(0.2f, 0.4f, 0.8f, 1);
-        shapeRenderer.circle(enemyPosition.x, enemyPosition.y, enemyRadius);
+        for (int agent = 0; agent < agents.getCount(); agent++) {
+            shapeRenderer.circle(agents.getInterpolatedX(agent, alpha), agents.getInterpolatedY(agent, alpha), enemyRadius);
+        }
 
         // Draw cursor (yellow circle)
         shapeRenderer.setColor(1.0f, 0.8f, 0.2f, 1);
@@ -427,5 +530,6 @@ public class PathfindingWithEnemyScreen implements Screen {
     @Override
     public void dispose() {
         shapeRenderer.dispose();
+        gridRenderer.dispose();
     }
 }
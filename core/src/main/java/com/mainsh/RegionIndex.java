@@ -0,0 +1,366 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Connected-component labels for every cell, so a search between cells that can't reach each other is
+ * rejected in O(1) instead of exploring the whole reachable area first. Each cell holds a region id and
+ * ids are merged through a union-find, so opening a cell just unions the regions it now touches.
+ * Closing a cell may split its region: the cells around it are grouped by whether they still touch
+ * inside the 3x3 block, which settles most edits at once. When several groups are left they are flooded
+ * in lockstep until all but one have met another group or run out of cells; only the pieces that ran out
+ * get new ids, so the work is bounded by the smaller pieces instead of the whole region.
+ * Batched edits relabel the grid in one flood on the next query.
+ * GridWorld keeps one for its searches, see GridWorld.getRegionIndex.
+ */
+public class RegionIndex implements GridListener {
+    // Region id of blocked cells
+    public static final int BLOCKED = 0;
+
+    private final GridWorld world;
+    private final int width;
+    private final int nodeCount;
+
+    // Index offset of a step in each Connectivity direction
+    private final int[] stepOffsets = new int[8];
+
+    // Region id of each cell; ids are resolved through parents
+    private final int[] labels;
+
+    // Union-find over region ids, an id is a region of its own when parents[id] == id
+    private final int[] parents;
+    private int nextId;
+    private int regionCount;
+
+    // Grid version the labels are valid at; a batch marks them stale until the next query
+    private int version;
+    private boolean stale;
+
+    // Flood state: cells reached in the current generation and the seed group that reached them
+    private final int[] visited;
+    private final int[] owners;
+    private int generation;
+    private final IntArray queue = new IntArray();
+
+    // Seed groups around a closed cell, with the cells each has reached in order and how many it expanded
+    private final int[] seeds = new int[8];
+    private final int[] groupParents = new int[8];
+    private final IntArray[] groupCells = new IntArray[8];
+    private final int[] groupHeads = new int[8];
+
+    // Cells flooded by the last update or rebuild
+    private int updatedCount;
+
+    public RegionIndex(GridWorld world) {
+        this.world = world;
+        this.width = world.getWidth();
+        this.nodeCount = world.getNodeCount();
+        for (int direction = 0; direction < 8; direction++) {
+            stepOffsets[direction] = Connectivity.STEP_Y[direction] * width + Connectivity.STEP_X[direction];
+        }
+        for (int i = 0; i < groupCells.length; i++) {
+            groupCells[i] = new IntArray();
+        }
+
+        this.labels = new int[nodeCount];
+        // A close creates at most seven ids and an open one; ids are compacted by a rebuild before they run out
+        this.parents = new int[nodeCount + 16];
+        this.visited = new int[nodeCount];
+        this.owners = new int[nodeCount];
+        rebuild();
+        world.addListener(this);
+    }
+
+    /**
+     * Whether a path can exist between two cells, i.e. both are walkable and in the same region
+     */
+    public boolean isConnected(int from, int to) {
+        sync();
+        return labels[from] != BLOCKED && find(labels[from]) == find(labels[to]);
+    }
+
+    public boolean isConnected(int fromX, int fromY, int toX, int toY) {
+        return isConnected(world.toIndex(fromX, fromY), world.toIndex(toX, toY));
+    }
+
+    /**
+     * Region id of a cell, BLOCKED for a blocked cell. Ids are only comparable until the next edit
+     */
+    public int getRegion(int index) {
+        sync();
+        return labels[index] == BLOCKED ? BLOCKED : find(labels[index]);
+    }
+
+    public int getRegionCount() {
+        sync();
+        return regionCount;
+    }
+
+    /**
+     * Cells flooded by the last update or rebuild
+     */
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    private void sync() {
+        if (stale || version != world.getVersion()) {
+            // Edits we weren't told about, or a batch
+            rebuild();
+        }
+    }
+
+    /**
+     * Label every region from scratch with one flood per region
+     */
+    public void rebuild() {
+        Arrays.fill(labels, BLOCKED);
+        nextId = BLOCKED + 1;
+        regionCount = 0;
+        updatedCount = 0;
+
+        for (int cell = 0; cell < nodeCount; cell++) {
+            if (labels[cell] != BLOCKED || !world.isWalkable(cell)) {
+                continue;
+            }
+            int id = newId();
+            labels[cell] = id;
+            queue.clear();
+            queue.add(cell);
+            for (int head = 0; head < queue.size; head++) {
+                int current = queue.get(head);
+                int mask = world.getConnectionMask(current);
+                while (mask != 0) {
+                    int direction = Integer.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    int next = current + stepOffsets[direction];
+                    if (labels[next] == BLOCKED) {
+                        labels[next] = id;
+                        queue.add(next);
+                    }
+                }
+            }
+            updatedCount += queue.size;
+        }
+
+        version = world.getVersion();
+        stale = false;
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        if (stale) {
+            return; // Relabelled on the next query anyway
+        }
+        version = world.getVersion();
+        updatedCount = 0;
+
+        int index = world.toIndex(x, y);
+        boolean walkable = world.isWalkable(index);
+        if (walkable == (labels[index] != BLOCKED)) {
+            return;
+        }
+        if (nextId + 8 >= parents.length) {
+            // Out of ids, start over with compact ones
+            rebuild();
+            return;
+        }
+
+        if (walkable) {
+            cellOpened(index);
+        } else {
+            cellClosed(x, y, index);
+        }
+    }
+
+    @Override
+    public void costsChanged(int minX, int minY, int maxX, int maxY) {
+        // Regions only depend on walkability
+        version = world.getVersion();
+    }
+
+    @Override
+    public void regionChanged(int minX, int minY, int maxX, int maxY) {
+        stale = true;
+    }
+
+    /**
+     * Join the cell to every region it can step into
+     */
+    private void cellOpened(int index) {
+        int id = BLOCKED;
+        int mask = world.getConnectionMask(index);
+        while (mask != 0) {
+            int direction = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            int region = find(labels[index + stepOffsets[direction]]);
+            if (id == BLOCKED) {
+                id = region;
+            } else if (region != id) {
+                parents[region] = id;
+                regionCount--;
+            }
+        }
+        labels[index] = id == BLOCKED ? newId() : id;
+    }
+
+    /**
+     * Split the cell's region if closing the cell disconnected it
+     */
+    private void cellClosed(int x, int y, int index) {
+        int region = find(labels[index]);
+        labels[index] = BLOCKED;
+
+        // Every step the edit removed started or ended next to the cell, so its 3x3 block holds all the seeds
+        int seedCount = 0;
+        for (int direction = 0; direction < 8; direction++) {
+            int neighbourX = x + Connectivity.STEP_X[direction];
+            int neighbourY = y + Connectivity.STEP_Y[direction];
+            if (world.isInBounds(neighbourX, neighbourY)) {
+                int neighbour = index + stepOffsets[direction];
+                if (labels[neighbour] != BLOCKED && find(labels[neighbour]) == region) {
+                    groupParents[seedCount] = seedCount;
+                    seeds[seedCount++] = neighbour;
+                }
+            }
+        }
+        if (seedCount == 0) {
+            regionCount--; // The region was just this cell
+            return;
+        }
+
+        // Seeds that still step into each other belong together
+        int groups = seedCount;
+        for (int i = 0; i < seedCount; i++) {
+            for (int j = i + 1; j < seedCount; j++) {
+                if (touches(seeds[i], seeds[j]) && unionGroups(i, j)) {
+                    groups--;
+                }
+            }
+        }
+        if (groups == 1) {
+            return;
+        }
+
+        nextGeneration();
+        for (int i = 0; i < seedCount; i++) {
+            groupCells[i].clear();
+            groupCells[i].add(seeds[i]);
+            groupHeads[i] = 0;
+            visited[seeds[i]] = generation;
+            owners[seeds[i]] = i;
+        }
+
+        // Expand one cell per group in turn while more than one group is still growing
+        int open = groups;
+        while (open > 1) {
+            for (int group = 0; group < seedCount && open > 1; group++) {
+                IntArray cells = groupCells[group];
+                if (groupHeads[group] == cells.size) {
+                    continue;
+                }
+                int current = cells.get(groupHeads[group]++);
+                updatedCount++;
+
+                int mask = world.getConnectionMask(current);
+                while (mask != 0) {
+                    int direction = Integer.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    int next = current + stepOffsets[direction];
+                    if (visited[next] != generation) {
+                        visited[next] = generation;
+                        owners[next] = group;
+                        cells.add(next);
+                    } else if (unionGroups(owners[next], group)) {
+                        open--; // Met another group, they are one piece
+                    }
+                }
+
+                int root = findGroup(group);
+                if (groupHeads[group] == cells.size && isExhausted(root, seedCount)) {
+                    // Nothing left to reach, this piece is cut off from the rest
+                    relabel(root, seedCount, newId());
+                    open--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether one step leads from cell a to the neighbouring cell b
+     */
+    private boolean touches(int a, int b) {
+        int dx = b % width - a % width;
+        int dy = b / width - a / width;
+        for (int direction = 0; direction < 8; direction++) {
+            if (Connectivity.STEP_X[direction] == dx && Connectivity.STEP_Y[direction] == dy) {
+                return world.canStep(a, direction);
+            }
+        }
+        return false;
+    }
+
+    private boolean isExhausted(int root, int seedCount) {
+        for (int group = 0; group < seedCount; group++) {
+            if (findGroup(group) == root && groupHeads[group] < groupCells[group].size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void relabel(int root, int seedCount, int id) {
+        for (int group = 0; group < seedCount; group++) {
+            if (findGroup(group) == root) {
+                IntArray cells = groupCells[group];
+                for (int i = 0; i < cells.size; i++) {
+                    labels[cells.get(i)] = id;
+                }
+            }
+        }
+    }
+
+    private int newId() {
+        int id = nextId++;
+        parents[id] = id;
+        regionCount++;
+        return id;
+    }
+
+    private int find(int id) {
+        while (parents[id] != id) {
+            parents[id] = parents[parents[id]];
+            id = parents[id];
+        }
+        return id;
+    }
+
+    private int findGroup(int group) {
+        while (groupParents[group] != group) {
+            group = groupParents[group];
+        }
+        return group;
+    }
+
+    /**
+     * Merge two seed groups; false when they already were one
+     */
+    private boolean unionGroups(int a, int b) {
+        a = findGroup(a);
+        b = findGroup(b);
+        if (a == b) {
+            return false;
+        }
+        groupParents[a] = b;
+        return true;
+    }
+
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mainsh;
+
+/**
+ * Local avoidance by separation: agents closer than radius push each other apart, harder the more they
+ * overlap, at up to pushSpeed units per second. Neighbours come from an AgentSpatialHash built this frame.
+ * Every push is worked out from the positions the hash captured and written back to the AgentSystem, so
+ * the result doesn't depend on the order agents are visited in. With a grid set, a push that would move an
+ * agent into a blocked cell is cancelled along that axis.
+ */
+public class SeparationSteering {
+    private final float radius;
+    private final float pushSpeed;
+
+    // Obstacles to keep agents out of, with the size of a grid cell in world units; world may be null
+    private GridWorld world;
+    private float worldCellSize;
+
+    public SeparationSteering(float radius, float pushSpeed) {
+        this.radius = radius;
+        this.pushSpeed = pushSpeed;
+    }
+
+    /**
+     * Keep pushes from moving agents into blocked cells of world, whose cells are cellSize units across
+     */
+    public void setObstacles(GridWorld world, float cellSize) {
+        this.world = world;
+        this.worldCellSize = cellSize;
+    }
+
+    /**
+     * Push apart every agent indexed by hash, which must have been built from agents
+     */
+    public void apply(AgentSystem agents, AgentSpatialHash hash, float delta) {
+        apply(agents, hash, delta, 0, hash.getCount());
+    }
+
+    /**
+     * Push apart the agents in hash slots fromSlot (inclusive) to toSlot (exclusive). Slices never write
+     * to the same agent, so separate slices can run at once
+     */
+    void apply(AgentSystem agents, AgentSpatialHash hash, float delta, int fromSlot, int toSlot) {
+        float[] positionX = agents.getPositionX();
+        float[] positionY = agents.getPositionY();
+        int[] bucketStart = hash.getBucketStart();
+        int[] sortedAgent = hash.getSortedAgent();
+        float[] sortedX = hash.getSortedX();
+        float[] sortedY = hash.getSortedY();
+        int[] sortedCellX = hash.getSortedCellX();
+        int[] sortedCellY = hash.getSortedCellY();
+
+        boolean dense = hash.isDense();
+        float radiusSquared = radius * radius;
+        float maxStep = pushSpeed * delta;
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            int agent = sortedAgent[slot];
+            float x = sortedX[slot];
+            float y = sortedY[slot];
+            float pushX = 0;
+            float pushY = 0;
+
+            int minCellX = hash.cellOf(x - radius);
+            int maxCellX = hash.cellOf(x + radius);
+            int minCellY = hash.cellOf(y - radius);
+            int maxCellY = hash.cellOf(y + radius);
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    int from;
+                    int end;
+                    if (dense) {
+                        // The cells of this row are consecutive buckets, so their agents are one run of slots
+                        from = hash.rowStart(minCellX, cellY);
+                        end = hash.rowEnd(maxCellX, cellY);
+                        cellX = maxCellX;
+                    } else {
+                        int bucket = hash.bucketOf(cellX, cellY);
+                        from = bucketStart[bucket];
+                        end = bucketStart[bucket + 1];
+                    }
+
+                    for (int other = from; other < end; other++) {
+                        if (other == slot || !dense && (sortedCellX[other] != cellX || sortedCellY[other] != cellY)) {
+                            continue;
+                        }
+                        float dx = x - sortedX[other];
+                        float dy = y - sortedY[other];
+                        float distanceSquared = dx * dx + dy * dy;
+                        if (distanceSquared >= radiusSquared) {
+                            continue;
+                        }
+                        if (distanceSquared == 0) {
+                            // Exactly on top of each other: split along x by id, so the two go opposite ways
+                            pushX += agent < sortedAgent[other] ? -1 : 1;
+                            continue;
+                        }
+                        // Away from the neighbour, 1 when touching its centre and 0 at the edge of the radius
+                        float distance = (float) Math.sqrt(distanceSquared);
+                        float weight = (radius - distance) / (radius * distance);
+                        pushX += dx * weight;
+                        pushY += dy * weight;
+                    }
+                }
+            }
+
+            if (pushX == 0 && pushY == 0) {
+                continue;
+            }
+            // However many neighbours push, an agent moves at most pushSpeed
+            float length = (float) Math.sqrt(pushX * pushX + pushY * pushY);
+            float scale = maxStep / Math.max(1, length);
+            float newX = x + pushX * scale;
+            float newY = y + pushY * scale;
+            if (world != null) {
+                if (!isOpen(newX, y)) {
+                    newX = x;
+                }
+                if (!isOpen(newX, newY)) {
+                    newY = y;
+                }
+            }
+            positionX[agent] = newX;
+            positionY[agent] = newY;
+        }
+    }
+
+    private boolean isOpen(float x, float y) {
+        return world.isWalkable((int) Math.floor(x / worldCellSize), (int) Math.floor(y / worldCellSize));
+    }
+
+    public float getRadius() { return radius; }
+    public float getPushSpeed() { return pushSpeed; }
+}
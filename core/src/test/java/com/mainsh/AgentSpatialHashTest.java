@@ -0,0 +1,95 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * nearest() must return the same distances as sorting every agent, for dense and hashed buckets, and must
+ * finish when fewer agents exist than asked for, however large the radius
+ */
+class AgentSpatialHashTest {
+    private static final int ROUNDS = 300;
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(465L);
+        AgentSpatialHash hash = new AgentSpatialHash(2);
+        IntArray out = new IntArray();
+        for (int round = 0; round < ROUNDS; round++) {
+            int count = random.nextInt(40);
+            // Alternate tight clusters, which keep the buckets dense, with agents spread far apart
+            float spread = round % 2 == 0 ? 10 : 5000;
+            float[] xs = new float[count];
+            float[] ys = new float[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = (random.nextFloat() - 0.5f) * spread;
+                ys[i] = (random.nextFloat() - 0.5f) * spread;
+            }
+            hash.build(xs, ys, count);
+            if (round % 2 == 0 && count > 0) {
+                assertTrue(hash.isDense(), "Layout in round " + round);
+            }
+
+            float x = (random.nextFloat() - 0.5f) * spread * 2;
+            float y = (random.nextFloat() - 0.5f) * spread * 2;
+            int k = 1 + random.nextInt(50);
+            float maxRadius = random.nextBoolean() ? Float.MAX_VALUE : random.nextFloat() * spread;
+            String description = "round " + round + " with " + count + " agents, k " + k + ", radius " + maxRadius;
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> hash.nearest(x, y, k, maxRadius, out), description);
+
+            float[] expected = new float[count];
+            int within = 0;
+            for (int i = 0; i < count; i++) {
+                float distanceSquared = distanceSquared(xs[i], ys[i], x, y);
+                if (distanceSquared <= maxRadius * maxRadius) {
+                    expected[within++] = distanceSquared;
+                }
+            }
+            Arrays.sort(expected, 0, within);
+            assertEquals(Math.min(k, within), out.size, "Result count, " + description);
+            for (int i = 0; i < out.size; i++) {
+                int agent = out.get(i);
+                assertEquals(expected[i], distanceSquared(xs[agent], ys[agent], x, y), "Distance " + i + ", " + description);
+            }
+        }
+    }
+
+    @Test
+    void nearestFinishesWithFewerAgentsThanAsked() {
+        AgentSpatialHash hash = new AgentSpatialHash(1);
+        float[] xs = {0, 3, -1000000};
+        float[] ys = {0, 4, 1000000};
+        hash.build(xs, ys, 3);
+        assertFalse(hash.isDense());
+        IntArray out = new IntArray();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> hash.nearest(1, 1, 10, Float.POSITIVE_INFINITY, out));
+        assertEquals(3, out.size);
+        assertEquals(0, out.get(0));
+        assertEquals(1, out.get(1));
+        assertEquals(2, out.get(2));
+
+        // Far outside the agents' box, with only part of it in range
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> hash.nearest(50000, 50000, 10, 70720, out));
+        assertEquals(2, out.size);
+        assertTrue(out.contains(0) && out.contains(1));
+
+        hash.build(xs, ys, 0);
+        hash.nearest(0, 0, 4, Float.MAX_VALUE, out);
+        assertEquals(0, out.size);
+    }
+
+    private static float distanceSquared(float x, float y, float otherX, float otherY) {
+        float dx = x - otherX;
+        float dy = y - otherY;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Batches answered on worker threads must agree with A* on the live grid, for every algorithm, after the
+ * grid was edited between batches, and every request must reach its callback
+ */
+class BatchPathfinderTest {
+    private static final int BATCHES = 30;
+    private static final int REQUESTS_PER_BATCH = 40;
+
+    @Test
+    void matchesAStarAcrossEditedBatches() {
+        Random random = new Random(465L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 40, 30, GridStorage.FLAT, connectivity, 0.25f);
+            GridAStar reference = new GridAStar(world);
+            BatchPathfinder batch = new BatchPathfinder(world, 3);
+            IntArray expected = new IntArray();
+            List<PathRequest> requests = new ArrayList<PathRequest>();
+            int[] delivered = new int[1];
+            for (int i = 0; i < REQUESTS_PER_BATCH; i++) {
+                PathRequest request = new PathRequest();
+                request.algorithm = PathAlgorithm.values()[i % PathAlgorithm.values().length];
+                request.callback = ready -> delivered[0]++;
+                requests.add(request);
+            }
+
+            try {
+                for (int round = 0; round < BATCHES; round++) {
+                    for (int i = 0; i < 5; i++) {
+                        GridEdits.randomEdit(world, random, round + i);
+                    }
+                    if (round % 4 == 0) {
+                        TestGrids.paintRandomCosts(world, random);
+                    }
+                    for (PathRequest request : requests) {
+                        // A few requests leave the grid and must come back empty
+                        int range = round % 5 == 0 ? 3 : 0;
+                        request.set(random.nextInt(world.getWidth() + range), random.nextInt(world.getHeight()),
+                            random.nextInt(world.getWidth()), random.nextInt(world.getHeight() + range));
+                    }
+
+                    delivered[0] = 0;
+                    batch.findPaths(requests);
+                    assertEquals(requests.size(), delivered[0], "Callbacks in round " + round);
+                    assertFalse(batch.isBusy());
+
+                    for (PathRequest request : requests) {
+                        String description = connectivity + " round " + round + " " + request.algorithm + " from ("
+                            + request.startX + ", " + request.startY + ") to (" + request.goalX + ", " + request.goalY + ")";
+                        if (!world.isInBounds(request.startX, request.startY) || !world.isInBounds(request.goalX, request.goalY)) {
+                            assertFalse(request.found, "Out of bounds, " + description);
+                            assertEquals(0, request.path.size, "Out of bounds path, " + description);
+                            continue;
+                        }
+                        int start = world.toIndex(request.startX, request.startY);
+                        int goal = world.toIndex(request.goalX, request.goalY);
+                        boolean found = reference.findPath(start, goal, expected);
+                        assertEquals(found, request.found, "Reachability, " + description);
+                        if (!found) {
+                            continue;
+                        }
+                        TestGrids.assertValidPath(world, start, goal, request.path);
+                        if (request.algorithm != PathAlgorithm.HPA) {
+                            assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, request.path), 1e-3f,
+                                "Path cost, " + description);
+                        }
+                    }
+                }
+            } finally {
+                batch.dispose();
+            }
+        }
+    }
+}
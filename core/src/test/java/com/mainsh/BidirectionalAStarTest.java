@@ -0,0 +1,65 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bidirectional A* must return optimal paths: exactly as cheap as plain A*, for every movement rule and with
+ * costlier terrain
+ */
+class BidirectionalAStarTest {
+    private static final int GRIDS = 40;
+    private static final int QUERIES_PER_GRID = 30;
+
+    @Test
+    void matchesAStarCostOnUniformGrids() {
+        for (Connectivity connectivity : Connectivity.values()) {
+            compareWithAStar(connectivity, false, 465L);
+        }
+    }
+
+    @Test
+    void matchesAStarCostWithTerrainCosts() {
+        for (Connectivity connectivity : Connectivity.values()) {
+            compareWithAStar(connectivity, true, 466L);
+        }
+    }
+
+    private void compareWithAStar(Connectivity connectivity, boolean terrain, long seed) {
+        Random random = new Random(seed);
+        IntArray expected = new IntArray();
+        IntArray actual = new IntArray();
+        for (int grid = 0; grid < GRIDS; grid++) {
+            int width = 5 + random.nextInt(40);
+            int height = 5 + random.nextInt(40);
+            GridWorld world = TestGrids.randomGrid(random, width, height, GridStorage.FLAT, connectivity,
+                random.nextFloat() * 0.35f);
+            if (terrain) {
+                TestGrids.paintRandomCosts(world, random);
+            }
+            GridAStar reference = new GridAStar(world);
+            BidirectionalAStar search = new BidirectionalAStar(world);
+
+            for (int query = 0; query < QUERIES_PER_GRID; query++) {
+                int start = TestGrids.randomWalkableCell(world, random);
+                int goal = TestGrids.randomWalkableCell(world, random);
+                if (start < 0 || goal < 0) {
+                    break;
+                }
+
+                boolean found = reference.findPath(start, goal, expected);
+                String description = connectivity + (terrain ? " with terrain" : "") + " from " + start + " to " + goal;
+                assertEquals(found, search.findPath(start, goal, actual), "Reachability, " + description);
+                if (found) {
+                    TestGrids.assertValidPath(world, start, goal, actual);
+                    assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, actual), 1e-3f,
+                        "Path cost, " + description);
+                }
+            }
+        }
+    }
+}
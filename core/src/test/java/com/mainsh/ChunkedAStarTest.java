@@ -0,0 +1,100 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A search over a chunked world must agree with A* on the same cells held in a GridWorld, across negative
+ * coordinates and while chunks are evicted and reloaded under it, and must report when it ran out of chunks
+ */
+class ChunkedAStarTest {
+    private static final int QUERIES = 60;
+
+    // Where cell (0, 0) of the mirrored GridWorld lies in the chunked world
+    private static final int OFFSET_X = -80;
+    private static final int OFFSET_Y = -70;
+
+    @Test
+    void matchesAStarOnMirroredWorld() {
+        Random random = new Random(465L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 150, 130, GridStorage.FLAT, connectivity, 0.3f);
+            TestGrids.paintRandomCosts(world, random);
+            // A budget far below the twelve chunks the mirror spans, so searches evict chunks they still need
+            ChunkedGridWorld chunked = new ChunkedGridWorld(mirror(world), connectivity, 3);
+            ChunkedAStar search = new ChunkedAStar(chunked, 16);
+            GridAStar reference = new GridAStar(world);
+            IntArray expected = new IntArray();
+            IntArray pairs = new IntArray();
+            IntArray actual = new IntArray();
+
+            for (int query = 0; query < QUERIES; query++) {
+                // Edit both copies; an edited chunk that gets evicted reloads the edit from the mirror
+                int editX = random.nextInt(world.getWidth());
+                int editY = random.nextInt(world.getHeight());
+                boolean walkable = random.nextBoolean();
+                world.setWalkable(editX, editY, walkable);
+                chunked.setWalkable(editX + OFFSET_X, editY + OFFSET_Y, walkable);
+
+                int start = random.nextInt(world.getNodeCount());
+                int goal = random.nextInt(world.getNodeCount());
+                boolean found = world.isWalkable(start) && world.isWalkable(goal) && reference.findPath(start, goal, expected);
+                String description = connectivity + " query " + query + " from " + start + " to " + goal;
+                assertEquals(found, search.findPath(world.getX(start) + OFFSET_X, world.getY(start) + OFFSET_Y,
+                    world.getX(goal) + OFFSET_X, world.getY(goal) + OFFSET_Y, pairs), "Reachability, " + description);
+                assertFalse(search.isLimitReached(), "Limit reached, " + description);
+                if (found) {
+                    actual.clear();
+                    for (int i = 0; i < pairs.size; i += 2) {
+                        actual.add(world.toIndex(pairs.get(i) - OFFSET_X, pairs.get(i + 1) - OFFSET_Y));
+                    }
+                    TestGrids.assertValidPath(world, start, goal, actual);
+                    assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, actual), 1e-3f,
+                        "Path cost, " + description);
+                }
+            }
+            assertTrue(chunked.getEvictionCount() > 0, "No evictions on " + connectivity);
+        }
+    }
+
+    @Test
+    void givesUpPastMaxChunks() {
+        // Open everywhere, so a far goal is reachable but only through many chunks
+        ChunkedGridWorld world = new ChunkedGridWorld((chunkX, chunkY, chunk) -> { }, Connectivity.EIGHT, 64);
+        ChunkedAStar search = new ChunkedAStar(world, 4);
+        IntArray path = new IntArray();
+
+        assertFalse(search.findPath(-10, -10, -10 - 5 * GridChunk.SIZE, -10, path));
+        assertTrue(search.isLimitReached());
+        assertEquals(4, search.getChunksReached());
+        assertEquals(0, path.size);
+
+        assertTrue(search.findPath(-10, -10, -10 - GridChunk.SIZE / 2, -20, path));
+        assertFalse(search.isLimitReached());
+    }
+
+    /**
+     * A source that copies each chunk from the matching cells of world, blocked outside it
+     */
+    private static ChunkSource mirror(GridWorld world) {
+        return (chunkX, chunkY, chunk) -> {
+            for (int localY = 0; localY < GridChunk.SIZE; localY++) {
+                for (int localX = 0; localX < GridChunk.SIZE; localX++) {
+                    int x = (chunkX << GridChunk.SHIFT) + localX - OFFSET_X;
+                    int y = (chunkY << GridChunk.SHIFT) + localY - OFFSET_Y;
+                    if (!world.isInBounds(x, y) || !world.isWalkable(x, y)) {
+                        chunk.setWalkable(localX, localY, false);
+                    } else {
+                        chunk.setCost(localX, localY, world.getCost(world.toIndex(x, y)));
+                    }
+                }
+            }
+        };
+    }
+}
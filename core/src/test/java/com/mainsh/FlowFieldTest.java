@@ -0,0 +1,63 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A field repaired edit by edit must hold the same distances as one built from scratch, whether a cell was
+ * opened, closed or repainted on its own, in a batch or in a rectangle, and its paths must cost what A* finds
+ */
+class FlowFieldTest {
+    private static final int ROUNDS = 400;
+
+    @Test
+    void repairedFieldMatchesRebuild() {
+        Random random = new Random(465L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 30, 24, GridStorage.FLAT, connectivity, 0.25f);
+            TestGrids.paintRandomCosts(world, random);
+            FlowField field = new FlowField(world);
+            world.addListener(field);
+            GridAStar reference = new GridAStar(world);
+            IntArray expected = new IntArray();
+            IntArray actual = new IntArray();
+            int goal = TestGrids.randomWalkableCell(world, random);
+            field.setGoal(goal);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                if (round % 4 == 3) {
+                    // A single repainted cell goes through the same branch repair as a walkability change
+                    world.setCost(random.nextInt(world.getWidth()), random.nextInt(world.getHeight()), 1 + random.nextInt(9));
+                } else {
+                    GridEdits.randomEdit(world, random, round);
+                }
+                if (round % 50 == 49) {
+                    goal = TestGrids.randomWalkableCell(world, random);
+                    field.setGoal(goal);
+                }
+
+                String description = connectivity + " round " + round + " to " + goal;
+                FlowField fresh = new FlowField(world);
+                fresh.setGoal(goal);
+                for (int cell = 0; cell < world.getNodeCount(); cell++) {
+                    assertEquals(fresh.getDistance(cell), field.getDistance(cell), 1e-3f, "Distance of " + cell + ", " + description);
+                }
+
+                for (int query = 0; query < 5; query++) {
+                    int start = TestGrids.randomWalkableCell(world, random);
+                    boolean found = world.isWalkable(goal) && reference.findPath(start, goal, expected);
+                    assertEquals(found, field.findPath(start, goal, actual), "Reachability from " + start + ", " + description);
+                    if (found) {
+                        TestGrids.assertValidPath(world, start, goal, actual);
+                        assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, actual), 1e-3f,
+                            "Path cost from " + start + ", " + description);
+                    }
+                }
+            }
+        }
+    }
+}
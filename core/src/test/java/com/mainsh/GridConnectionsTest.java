@@ -0,0 +1,117 @@
+package com.mainsh;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.utils.Array;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The connection graph of a GridWorld must agree with its walkability bits through any sequence of edits:
+ * every mask matches the corner rule worked out from scratch, steps are allowed both ways or neither, no
+ * step leaves the grid or touches a blocked cell, and the gdx connection lists match the masks
+ */
+class GridConnectionsTest {
+    private static final int ROUNDS = 600;
+
+    @Test
+    void masksFollowRandomEdits() {
+        Random random = new Random(465L);
+        for (GridStorage storage : GridStorage.values()) {
+            for (Connectivity connectivity : Connectivity.values()) {
+                // Start among obstacles, so early edits already meet corners that block diagonal steps
+                GridWorld world = TestGrids.randomGrid(random, 23, 17, storage, connectivity, 0.3f);
+                for (int round = 0; round < ROUNDS; round++) {
+                    // Touch some connection lists first, so stale cached lists would show up
+                    for (int i = 0; i < 20; i++) {
+                        world.getConnections(world.getNode(random.nextInt(world.getWidth()), random.nextInt(world.getHeight())));
+                    }
+
+                    int version = world.getVersion();
+                    GridEdits.randomEdit(world, random, round);
+                    assertTrue(world.getVersion() <= version + 1,
+                        storage + " " + connectivity + " round " + round + ": one edit moved the version by "
+                            + (world.getVersion() - version));
+                    checkGraph(world, storage + " " + connectivity + " round " + round);
+                }
+            }
+        }
+    }
+
+    private static void checkGraph(GridWorld world, String context) {
+        Connectivity connectivity = world.getConnectivity();
+        for (int y = 0; y < world.getHeight(); y++) {
+            for (int x = 0; x < world.getWidth(); x++) {
+                String cell = context + ", cell (" + x + ", " + y + ")";
+                int index = world.toIndex(x, y);
+                int mask = world.getConnectionMask(index);
+                assertEquals(expectedMask(world, x, y), mask, "Mask of " + cell);
+
+                for (int direction = 0; direction < 8; direction++) {
+                    if ((mask & (1 << direction)) == 0) {
+                        continue;
+                    }
+                    int toX = x + Connectivity.STEP_X[direction];
+                    int toY = y + Connectivity.STEP_Y[direction];
+                    String step = "Step " + direction + " out of " + cell;
+                    assertTrue(direction < connectivity.getDirectionCount(), step + " on a " + connectivity + " grid");
+                    assertTrue(world.isInBounds(toX, toY), step + " leaves the grid");
+                    assertTrue(world.isWalkable(index) && world.isWalkable(toX, toY), step + " touches a blocked cell");
+                    assertTrue(world.canStep(world.toIndex(toX, toY), Connectivity.opposite(direction)), step + " has no way back");
+                }
+
+                GridNode node = world.getNode(x, y);
+                assertEquals(world.isWalkable(index), node.isWalkable(), "Node walkability of " + cell);
+                checkConnections(world, node, mask, cell);
+            }
+        }
+    }
+
+    /**
+     * Allowed steps out of (x, y), from the walkability bits alone
+     */
+    private static int expectedMask(GridWorld world, int x, int y) {
+        if (!world.isWalkable(x, y)) {
+            return 0;
+        }
+        Connectivity connectivity = world.getConnectivity();
+        int mask = 0;
+        for (int direction = 0; direction < connectivity.getDirectionCount(); direction++) {
+            int dx = Connectivity.STEP_X[direction];
+            int dy = Connectivity.STEP_Y[direction];
+            boolean allowed = world.isWalkable(x + dx, y + dy);
+            if (allowed && direction >= 4) {
+                boolean besideX = world.isWalkable(x + dx, y);
+                boolean besideY = world.isWalkable(x, y + dy);
+                allowed = connectivity == Connectivity.EIGHT ? besideX || besideY : besideX && besideY;
+            }
+            if (allowed) {
+                mask |= 1 << direction;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * The gdx connections of a node must list exactly the allowed steps, in direction order
+     */
+    private static void checkConnections(GridWorld world, GridNode node, int mask, String cell) {
+        Array<Connection<GridNode>> connections = world.getConnections(node);
+        assertEquals(Integer.bitCount(mask), connections.size, "Connection count of " + cell);
+
+        int i = 0;
+        for (int direction = 0; direction < 8; direction++) {
+            if ((mask & (1 << direction)) == 0) {
+                continue;
+            }
+            Connection<GridNode> connection = connections.get(i++);
+            assertSame(node, connection.getFromNode(), "Connection " + direction + " of " + cell + " starts elsewhere");
+            assertSame(world.getNode(node.getX() + Connectivity.STEP_X[direction], node.getY() + Connectivity.STEP_Y[direction]),
+                connection.getToNode(), "Connection " + direction + " of " + cell + " leads elsewhere");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.mainsh;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GridDirtyChunks must mark every chunk an edit changes, list each dirty chunk once, and cover the grid
+ * exactly with its chunks; none of it needs a GL context
+ */
+class GridDirtyChunksTest {
+    private static final int ROUNDS = 200;
+
+    @Test
+    void everyChangedCellIsInADirtyChunk() {
+        // The tracker only sees the edited rectangles, so storage and connectivity don't matter here
+        Random random = new Random(467L);
+        GridWorld world = TestGrids.randomGrid(random, 29, 19, GridStorage.FLAT, Connectivity.FOUR, 0.3f);
+        GridDirtyChunks chunks = new GridDirtyChunks(world.getWidth(), world.getHeight(), 4);
+        world.addListener(chunks);
+        boolean[] before = new boolean[world.getNodeCount()];
+
+        for (int round = 0; round < ROUNDS; round++) {
+            chunks.clear();
+            for (int i = 0; i < before.length; i++) {
+                before[i] = world.isWalkable(i);
+            }
+            GridEdits.randomEdit(world, random, round);
+
+            for (int y = 0; y < world.getHeight(); y++) {
+                for (int x = 0; x < world.getWidth(); x++) {
+                    if (before[world.toIndex(x, y)] != world.isWalkable(x, y)) {
+                        assertTrue(chunks.isCellDirty(x, y),
+                            "Round " + round + ": cell (" + x + ", " + y + ") changed but its chunk isn't dirty");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void chunksCoverTheGridExactly() {
+        GridDirtyChunks chunks = new GridDirtyChunks(500, 70, 32);
+        assertEquals(16, chunks.getColumns());
+        assertEquals(3, chunks.getRows());
+
+        int cells = 0;
+        for (int chunk = 0; chunk < chunks.getChunkCount(); chunk++) {
+            cells += chunks.getCellCount(chunk);
+        }
+        assertEquals(500 * 70, cells);
+        assertEquals(500 - 15 * 32, chunks.getChunkWidth(15));
+        assertEquals(70 - 2 * 32, chunks.getChunkHeight(2 * 16));
+    }
+
+    @Test
+    void everythingStartsDirtyAndClearForgetsIt() {
+        GridDirtyChunks chunks = new GridDirtyChunks(100, 100, 32);
+        assertEquals(chunks.getChunkCount(), chunks.getDirtyCount());
+        chunks.clear();
+        assertEquals(0, chunks.getDirtyCount());
+        for (int chunk = 0; chunk < chunks.getChunkCount(); chunk++) {
+            assertFalse(chunks.isDirty(chunk % chunks.getColumns(), chunk / chunks.getColumns()));
+        }
+    }
+
+    @Test
+    void eachDirtyChunkIsListedOnce() {
+        GridDirtyChunks chunks = new GridDirtyChunks(100, 100, 32);
+        chunks.clear();
+        chunks.cellChanged(99, 99);
+        chunks.cellChanged(98, 97);
+        chunks.regionChanged(-5, -5, 40, 3);
+        chunks.costsChanged(0, 0, 10, 10);
+
+        assertEquals(3, chunks.getDirtyCount());
+        assertTrue(chunks.isDirty(3, 3));
+        assertTrue(chunks.isDirty(0, 0));
+        assertTrue(chunks.isDirty(1, 0));
+        assertFalse(chunks.isDirty(2, 0));
+    }
+
+    @Test
+    void editsOffTheGridAreIgnored() {
+        GridDirtyChunks chunks = new GridDirtyChunks(64, 64, 32);
+        chunks.clear();
+        chunks.markCells(64, 64, 80, 80);
+        chunks.markCells(-10, -10, -1, -1);
+        assertEquals(0, chunks.getDirtyCount());
+    }
+
+    @Test
+    void rejectsEmptyGrids() {
+        assertThrows(IllegalArgumentException.class, () -> new GridDirtyChunks(0, 10, 32));
+        assertThrows(IllegalArgumentException.class, () -> new GridDirtyChunks(10, 10, 0));
+    }
+}
@@ -0,0 +1,36 @@
+package com.mainsh;
+
+import java.util.Random;
+
+/**
+ * Random grid edits for the tests, cycling through the three ways a GridWorld can be edited
+ */
+final class GridEdits {
+    private GridEdits() {
+    }
+
+    /**
+     * A single-cell edit, a batch of edits, or a rectangle fill, chosen by round
+     */
+    static void randomEdit(GridWorld world, Random random, int round) {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        switch (round % 3) {
+            case 0:
+                world.setWalkable(random.nextInt(width), random.nextInt(height), random.nextInt(3) != 0);
+                break;
+            case 1:
+                world.beginEdit();
+                for (int i = random.nextInt(12); i >= 0; i--) {
+                    world.setWalkable(random.nextInt(width), random.nextInt(height), random.nextBoolean());
+                }
+                world.endEdit();
+                break;
+            default:
+                int x = random.nextInt(width);
+                int y = random.nextInt(height);
+                world.fillWalkable(x, y, x + random.nextInt(5), y + random.nextInt(5), random.nextBoolean());
+                break;
+        }
+    }
+}
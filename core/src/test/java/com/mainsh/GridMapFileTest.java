@@ -0,0 +1,124 @@
+package com.mainsh;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A saved map must load back cell for cell into either storage, landmark tables included when they were
+ * saved, and damaged files must be rejected instead of read past their end
+ */
+class GridMapFileTest {
+    // 37 x 29 = 1073 cells, so the last walkability long is only partly used
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 29;
+
+    @TempDir
+    File directory;
+
+    @Test
+    void roundTripKeepsEveryLayer() {
+        Random random = new Random(465L);
+        for (GridStorage storage : GridStorage.values()) {
+            for (Connectivity connectivity : Connectivity.values()) {
+                GridWorld world = TestGrids.randomGrid(random, WIDTH, HEIGHT, storage, connectivity, 0.3f);
+                TestGrids.paintRandomCosts(world, random);
+                // No cell left at cost 1, so the minimum cost has to come from the file
+                world.paintCost(0, 0, WIDTH - 1, HEIGHT - 1, 3);
+                TestGrids.paintRandomCosts(world, random);
+                FileHandle file = new FileHandle(new File(directory, storage + "-" + connectivity + ".map"));
+                GridMapFile.save(world, file);
+
+                String description = storage + " " + connectivity;
+                GridWorld loaded = GridMapFile.load(file, storage);
+                assertEquals(storage, loaded.getStorage(), description);
+                assertEquals(WIDTH, loaded.getWidth(), description);
+                assertEquals(HEIGHT, loaded.getHeight(), description);
+                assertEquals(connectivity, loaded.getConnectivity(), description);
+                assertEquals(world.getMinCost(), loaded.getMinCost(), "Min cost, " + description);
+                for (int cell = 0; cell < world.getNodeCount(); cell++) {
+                    assertEquals(world.isWalkable(cell), loaded.isWalkable(cell), "Walkable " + cell + ", " + description);
+                    assertEquals(world.getCost(cell), loaded.getCost(cell), "Cost " + cell + ", " + description);
+                    assertEquals(world.getConnectionMask(cell), loaded.getConnectionMask(cell), "Mask " + cell + ", " + description);
+                }
+            }
+        }
+    }
+
+    @Test
+    void landmarksLoadOnlyWhenSaved() {
+        Random random = new Random(466L);
+        GridWorld world = TestGrids.randomGrid(random, WIDTH, HEIGHT, GridStorage.FLAT, Connectivity.EIGHT, 0.2f);
+        TestGrids.paintRandomCosts(world, random);
+        FileHandle plain = new FileHandle(new File(directory, "plain.map"));
+        FileHandle withLandmarks = new FileHandle(new File(directory, "landmarks.map"));
+        GridMapFile.save(world, plain);
+        LandmarkHeuristic landmarks = LandmarkHeuristic.compute(world, 4, 1);
+        try {
+            GridMapFile.save(world, landmarks, withLandmarks);
+
+            assertNull(GridMapFile.loadLandmarks(plain, GridMapFile.load(plain)));
+            GridWorld loaded = GridMapFile.load(withLandmarks);
+            LandmarkHeuristic loadedLandmarks = GridMapFile.loadLandmarks(withLandmarks, loaded);
+            assertNotNull(loadedLandmarks);
+            try {
+                assertEquals(landmarks.getLandmarkCount(), loadedLandmarks.getLandmarkCount());
+                for (int i = 0; i < landmarks.getLandmarkCount(); i++) {
+                    assertEquals(landmarks.getLandmark(i), loadedLandmarks.getLandmark(i), "Landmark " + i);
+                    assertArrayEquals(landmarks.getTable(i), loadedLandmarks.getTable(i), "Table " + i);
+                }
+            } finally {
+                loadedLandmarks.dispose();
+            }
+
+            GridWorld other = new GridWorld(WIDTH + 1, HEIGHT, GridStorage.FLAT, Connectivity.EIGHT);
+            assertThrows(IllegalArgumentException.class, () -> GridMapFile.loadLandmarks(withLandmarks, other));
+        } finally {
+            landmarks.dispose();
+        }
+    }
+
+    @Test
+    void rejectsDamagedFiles() {
+        GridWorld world = TestGrids.randomGrid(new Random(467L), WIDTH, HEIGHT, GridStorage.FLAT, Connectivity.FOUR, 0.2f);
+        LandmarkHeuristic landmarks = LandmarkHeuristic.compute(world, 2, 1);
+        FileHandle file = new FileHandle(new File(directory, "good.map"));
+        try {
+            GridMapFile.save(world, landmarks, file);
+        } finally {
+            landmarks.dispose();
+        }
+        byte[] bytes = file.readBytes();
+
+        FileHandle badMagic = new FileHandle(new File(directory, "magic.map"));
+        byte[] damaged = bytes.clone();
+        damaged[0] ^= 0xFF;
+        badMagic.writeBytes(damaged, false);
+        assertThrows(GdxRuntimeException.class, () -> GridMapFile.load(badMagic));
+
+        FileHandle tooShort = new FileHandle(new File(directory, "short.map"));
+        tooShort.writeBytes(Arrays.copyOf(bytes, 16), false);
+        assertThrows(GdxRuntimeException.class, () -> GridMapFile.load(tooShort));
+
+        // Cut inside the grid layers, then inside the landmark tables
+        FileHandle truncatedLayers = new FileHandle(new File(directory, "layers.map"));
+        truncatedLayers.writeBytes(Arrays.copyOf(bytes, 32 + 8 * 17 + WIDTH * HEIGHT / 2), false);
+        assertThrows(GdxRuntimeException.class, () -> GridMapFile.load(truncatedLayers));
+
+        FileHandle truncatedTables = new FileHandle(new File(directory, "tables.map"));
+        truncatedTables.writeBytes(Arrays.copyOf(bytes, bytes.length - 4), false);
+        assertThrows(GdxRuntimeException.class, () -> GridMapFile.load(truncatedTables));
+        assertThrows(GdxRuntimeException.class, () -> GridMapFile.loadLandmarks(truncatedTables, world));
+    }
+}
@@ -0,0 +1,54 @@
+package com.mainsh;
+
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GridNode queries on a FLAT grid with more cells than its view cache must still return optimal paths of
+ * views that match their cells
+ */
+class GridWorldTest {
+    @Test
+    void nodeSearchOnFlatGridLargerThanViewCache() {
+        Random random = new Random(465L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 200, 120, GridStorage.FLAT, connectivity, 0.2f);
+            assertTrue(world.getNodeCount() > GridWorld.FLAT_NODE_CACHE_SIZE);
+            TestGrids.paintRandomCosts(world, random);
+            GridAStar reference = new GridAStar(world);
+            IntArray expected = new IntArray();
+            IntArray actual = new IntArray();
+
+            for (int query = 0; query < 20; query++) {
+                int start = TestGrids.randomWalkableCell(world, random);
+                int goal = TestGrids.randomWalkableCell(world, random);
+                world.setWalkable(random.nextInt(world.getWidth()), random.nextInt(world.getHeight()), random.nextBoolean());
+
+                boolean found = reference.findPath(start, goal, expected);
+                String description = connectivity + " from " + start + " to " + goal;
+                assertEquals(found, world.findPath(world.getX(start), world.getY(start), world.getX(goal), world.getY(goal),
+                    PathAlgorithm.ASTAR, actual), "Reachability, " + description);
+                GraphPath<GridNode> nodes = world.findPath(world.getX(start), world.getY(start), world.getX(goal), world.getY(goal));
+                assertEquals(found, nodes != null, "Node path reachability, " + description);
+                if (found) {
+                    assertEquals(actual.size, nodes.getCount(), "Node path length, " + description);
+                    for (int i = 0; i < nodes.getCount(); i++) {
+                        GridNode node = nodes.get(i);
+                        assertEquals(actual.get(i), node.getIndex(), "Node path, " + description);
+                        assertEquals(world.toIndex(node.getX(), node.getY()), node.getIndex());
+                        assertTrue(node.isWalkable());
+                    }
+                    TestGrids.assertValidPath(world, start, goal, actual);
+                    assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, actual), 1e-3f,
+                        "Path cost, " + description);
+                }
+            }
+        }
+    }
+}
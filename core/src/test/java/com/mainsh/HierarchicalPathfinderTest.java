@@ -0,0 +1,79 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clusters rebuilt edit by edit must still find a valid path exactly when A* does, and a start and goal in
+ * neighbouring clusters must not be sent around through a far entrance
+ */
+class HierarchicalPathfinderTest {
+    private static final int ROUNDS = 300;
+
+    @Test
+    void reachesWhatAStarReachesThroughEdits() {
+        Random random = new Random(465L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            // Partial clusters along the top and right edges
+            GridWorld world = TestGrids.randomGrid(random, 43, 30, GridStorage.FLAT, connectivity, 0.3f);
+            HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(world, 8);
+            world.addListener(pathfinder);
+            GridAStar reference = new GridAStar(world);
+            IntArray expected = new IntArray();
+            IntArray actual = new IntArray();
+
+            for (int round = 0; round < ROUNDS; round++) {
+                GridEdits.randomEdit(world, random, round);
+                if (round % 25 == 0) {
+                    TestGrids.paintRandomCosts(world, random);
+                }
+
+                for (int query = 0; query < 10; query++) {
+                    int start = TestGrids.randomWalkableCell(world, random);
+                    int goal = query % 2 == 0 ? TestGrids.randomWalkableCell(world, random) : nearby(world, random, start);
+                    boolean found = reference.findPath(start, goal, expected);
+                    String description = connectivity + " round " + round + " from " + start + " to " + goal;
+                    assertEquals(found, pathfinder.findPath(start, goal, actual), "Reachability, " + description);
+                    if (found) {
+                        TestGrids.assertValidPath(world, start, goal, actual);
+                        assertTrue(TestGrids.pathCost(world, actual) >= TestGrids.pathCost(world, expected) - 1e-3f,
+                            "Cheaper than optimal, " + description);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void neighbouringClustersTakeTheDirectRoute() {
+        for (Connectivity connectivity : Connectivity.values()) {
+            // Two clusters side by side; the open border gets its entrances at the two ends only
+            GridWorld world = new GridWorld(16, 8, GridStorage.FLAT, connectivity);
+            HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(world, 8);
+            IntArray path = new IntArray();
+            assertTrue(pathfinder.findPath(world.toIndex(6, 3), world.toIndex(9, 3), path));
+            assertEquals(3, TestGrids.pathCost(world, path), 1e-3f, "Path cost on " + connectivity);
+
+            // Diagonal neighbours too, on a grid of four clusters
+            world = new GridWorld(16, 16, GridStorage.FLAT, connectivity);
+            pathfinder = new HierarchicalPathfinder(world, 8);
+            assertTrue(pathfinder.findPath(world.toIndex(6, 6), world.toIndex(9, 9), path));
+            float expected = connectivity.allowsDiagonals() ? 3 * Connectivity.DIAGONAL_COST : 6;
+            assertEquals(expected, TestGrids.pathCost(world, path), 1e-3f, "Diagonal path cost on " + connectivity);
+        }
+    }
+
+    /**
+     * A cell within a few steps of cell, usually in the same or a neighbouring cluster
+     */
+    private static int nearby(GridWorld world, Random random, int cell) {
+        int x = Math.max(0, Math.min(world.getWidth() - 1, world.getX(cell) + random.nextInt(13) - 6));
+        int y = Math.max(0, Math.min(world.getHeight() - 1, world.getY(cell) + random.nextInt(13) - 6));
+        return world.isWalkable(x, y) ? world.toIndex(x, y) : cell;
+    }
+}
@@ -0,0 +1,86 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JPS and JPS+ must find paths exactly as cheap as plain A*, or agree there is none
+ */
+class JumpPointSearchTest {
+    private static final int GRIDS = 60;
+    private static final int QUERIES_PER_GRID = 30;
+
+    @Test
+    void jpsMatchesAStarCost() {
+        compareWithAStar(PathAlgorithm.JPS, false);
+    }
+
+    @Test
+    void jpsPlusMatchesAStarCost() {
+        compareWithAStar(PathAlgorithm.JPS_PLUS, false);
+    }
+
+    @Test
+    void jpsPlusMatchesAStarCostAfterEdits() {
+        compareWithAStar(PathAlgorithm.JPS_PLUS, true);
+    }
+
+    @Test
+    void weightedAndEightWayGridsFallBackToAStar() {
+        Random random = new Random(7L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 30, 30, GridStorage.FLAT, connectivity, 0.25f);
+            TestGrids.paintRandomCosts(world, random);
+            compareQueries(world, PathAlgorithm.JPS, random);
+            compareQueries(world, PathAlgorithm.JPS_PLUS, random);
+        }
+    }
+
+    /**
+     * Random uniform-cost 4-way grids of varying size and density; with edits, the jump tables of JPS+ have
+     * to follow cells opened and closed after they were built
+     */
+    private void compareWithAStar(PathAlgorithm algorithm, boolean edit) {
+        Random random = new Random(465L);
+        for (int grid = 0; grid < GRIDS; grid++) {
+            int width = 5 + random.nextInt(40);
+            int height = 5 + random.nextInt(40);
+            float density = random.nextFloat() * 0.4f;
+            GridWorld world = TestGrids.randomGrid(random, width, height, GridStorage.FLAT, Connectivity.FOUR, density);
+            compareQueries(world, algorithm, random);
+
+            if (edit) {
+                for (int i = 0; i < 20; i++) {
+                    world.setWalkable(random.nextInt(width), random.nextInt(height), random.nextInt(3) == 0);
+                }
+                compareQueries(world, algorithm, random);
+            }
+        }
+    }
+
+    private void compareQueries(GridWorld world, PathAlgorithm algorithm, Random random) {
+        GridPathFinder reference = new GridAStar(world);
+        GridPathFinder search = world.getPathFinder(algorithm);
+        IntArray expected = new IntArray();
+        IntArray actual = new IntArray();
+        for (int query = 0; query < QUERIES_PER_GRID; query++) {
+            int start = TestGrids.randomWalkableCell(world, random);
+            int goal = TestGrids.randomWalkableCell(world, random);
+            if (start < 0 || goal < 0) {
+                return;
+            }
+
+            boolean found = reference.findPath(start, goal, expected);
+            assertEquals(found, search.findPath(start, goal, actual), algorithm + " disagrees on reachability");
+            if (found) {
+                TestGrids.assertValidPath(world, start, goal, actual);
+                assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, actual), 1e-3f,
+                    algorithm + " path cost from " + start + " to " + goal);
+            }
+        }
+    }
+}
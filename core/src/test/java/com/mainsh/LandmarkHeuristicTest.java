@@ -0,0 +1,73 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Landmark estimates must never exceed the real cost, also while tables are being rebuilt in the
+ * background, and a finished background rebuild must match tables computed from scratch
+ */
+class LandmarkHeuristicTest {
+    private static final int ROUNDS = 60;
+
+    @Test
+    void backgroundRebuildStaysAdmissibleAndCatchesUp() throws InterruptedException {
+        Random random = new Random(465L);
+        GridWorld world = TestGrids.randomGrid(random, 40, 30, GridStorage.FLAT, Connectivity.EIGHT, 0.3f);
+        TestGrids.paintRandomCosts(world, random);
+        LandmarkHeuristic landmarks = LandmarkHeuristic.compute(world, 6, 2);
+        world.addListener(landmarks);
+        GridAStar reference = new GridAStar(world);
+        IntArray path = new IntArray();
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                GridEdits.randomEdit(world, random, round);
+                landmarks.update();
+                checkAdmissible(world, landmarks, reference, path, random, "round " + round);
+            }
+
+            world.fillWalkable(0, 0, world.getWidth() - 1, 0, true);
+            assertFalse(landmarks.isValid());
+            for (int frame = 0; frame < 10000 && !landmarks.isValid(); frame++) {
+                landmarks.update();
+                Thread.sleep(1);
+            }
+            assertTrue(landmarks.isValid(), "Background rebuild never finished");
+            assertFalse(landmarks.isRebuilding());
+
+            LandmarkHeuristic fresh = LandmarkHeuristic.compute(world, 6, 1);
+            try {
+                for (int i = 0; i < 500; i++) {
+                    int from = random.nextInt(world.getNodeCount());
+                    int to = random.nextInt(world.getNodeCount());
+                    assertEquals(fresh.estimate(from, to), landmarks.estimate(from, to), "Estimate from " + from + " to " + to);
+                }
+            } finally {
+                fresh.dispose();
+            }
+        } finally {
+            landmarks.dispose();
+        }
+    }
+
+    private static void checkAdmissible(GridWorld world, LandmarkHeuristic landmarks, GridAStar reference, IntArray path,
+                                        Random random, String context) {
+        for (int query = 0; query < 10; query++) {
+            int start = TestGrids.randomWalkableCell(world, random);
+            int goal = TestGrids.randomWalkableCell(world, random);
+            if (start < 0 || goal < 0 || !reference.findPath(start, goal, path)) {
+                continue;
+            }
+            float cost = TestGrids.pathCost(world, path);
+            assertTrue(landmarks.estimate(start, goal) <= cost + 1e-3f,
+                context + ": estimate " + landmarks.estimate(start, goal) + " above cost " + cost + " from " + start + " to " + goal);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The planner must give exactly as cheap an answer as A* from scratch after every target move, agent move
+ * and cell edit, reusing its search tree or not
+ */
+class MovingTargetPlannerTest {
+    private static final int GRIDS = 12;
+    private static final int ROUNDS = 200;
+
+    @Test
+    void matchesAStarOnUniformGrids() {
+        for (Connectivity connectivity : Connectivity.values()) {
+            chase(connectivity, false, 465L);
+        }
+    }
+
+    @Test
+    void matchesAStarWithTerrainCosts() {
+        for (Connectivity connectivity : Connectivity.values()) {
+            chase(connectivity, true, 466L);
+        }
+    }
+
+    private static void chase(Connectivity connectivity, boolean terrain, long seed) {
+        Random random = new Random(seed);
+        for (int grid = 0; grid < GRIDS; grid++) {
+            chase(random, connectivity, terrain, grid);
+        }
+    }
+
+    private static void chase(Random random, Connectivity connectivity, boolean terrain, int grid) {
+        GridWorld world = TestGrids.randomGrid(random, 24, 24, GridStorage.FLAT, connectivity, 0.2f);
+        if (terrain) {
+            TestGrids.paintRandomCosts(world, random);
+        }
+        MovingTargetPlanner planner = new MovingTargetPlanner(world);
+        world.addListener(planner);
+        GridAStar reference = new GridAStar(world);
+        IntArray expected = new IntArray();
+        IntArray actual = new IntArray();
+
+        int agent = TestGrids.randomWalkableCell(world, random);
+        int target = TestGrids.randomWalkableCell(world, random);
+        for (int round = 0; round < ROUNDS; round++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    world.setWalkable(random.nextInt(world.getWidth()), random.nextInt(world.getHeight()), random.nextInt(3) != 0);
+                    break;
+                case 1:
+                    target = moveNear(world, random, target);
+                    break;
+                default:
+                    // Follow the last answer for a few steps, as the enemy does
+                    if (actual.size > 1) {
+                        agent = actual.get(Math.min(actual.size - 1, 1 + random.nextInt(3)));
+                    }
+                    break;
+            }
+
+            boolean found = reference.findPath(agent, target, expected);
+            String description = connectivity + (terrain ? " with terrain" : "") + " grid " + grid + " round " + round
+                + " from " + agent + " to " + target;
+            assertEquals(found, planner.findPath(agent, target, actual), "Reachability, " + description);
+            if (found) {
+                TestGrids.assertValidPath(world, agent, target, actual);
+                assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, actual), 1e-3f,
+                    "Path cost, " + description);
+            }
+        }
+    }
+
+    /**
+     * A walkable cell a few steps from cell, or anywhere
+     */
+    private static int moveNear(GridWorld world, Random random, int cell) {
+        if (random.nextBoolean()) {
+            int anywhere = TestGrids.randomWalkableCell(world, random);
+            return anywhere < 0 ? cell : anywhere;
+        }
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int x = world.getX(cell) + random.nextInt(5) - 2;
+            int y = world.getY(cell) + random.nextInt(5) - 2;
+            if (world.isWalkable(x, y)) {
+                return world.toIndex(x, y);
+            }
+        }
+        return cell;
+    }
+}
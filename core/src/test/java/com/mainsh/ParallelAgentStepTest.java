@@ -0,0 +1,71 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.FloatArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The parallel step must leave every agent exactly where the serial step does, bit for bit, whatever the
+ * thread count and whether the spatial hash uses dense or hashed buckets
+ */
+class ParallelAgentStepTest {
+    private static final int AGENTS = 3000;
+    private static final int STEPS = 100;
+
+    @Test
+    void denseLayoutMatchesSerialStep() {
+        for (int threads : new int[] {1, 2, 4}) {
+            compareWithSerial(threads, 200, true);
+        }
+    }
+
+    @Test
+    void hashedLayoutMatchesSerialStep() {
+        for (int threads : new int[] {1, 2, 4}) {
+            compareWithSerial(threads, 100000, false);
+        }
+    }
+
+    private static void compareWithSerial(int threads, float spread, boolean dense) {
+        Random random = new Random(465L + threads);
+        AgentSystem serial = new AgentSystem(16, 2f);
+        AgentSystem parallel = new AgentSystem(16, 2f);
+        FloatArray path = new FloatArray();
+        for (int i = 0; i < AGENTS; i++) {
+            float x = random.nextFloat() * spread;
+            float y = random.nextFloat() * spread;
+            float speed = 50 + random.nextFloat() * 100;
+            serial.add(x, y, speed);
+            parallel.add(x, y, speed);
+            path.clear();
+            for (int k = 0; k < 4; k++) {
+                path.add(random.nextFloat() * spread, random.nextFloat() * spread);
+            }
+            serial.setPath(i, path, true);
+            parallel.setPath(i, path, true);
+        }
+
+        AgentSpatialHash serialHash = new AgentSpatialHash(16);
+        AgentSpatialHash parallelHash = new AgentSpatialHash(16);
+        SeparationSteering separation = new SeparationSteering(20, 60);
+        ParallelAgentStep step = new ParallelAgentStep(threads);
+        try {
+            for (int tick = 0; tick < STEPS; tick++) {
+                ParallelAgentStep.stepSerial(serial, serialHash, separation, 0.05f);
+                step.step(parallel, parallelHash, separation, 0.05f);
+                assertEquals(dense, serialHash.isDense(), "Layout at tick " + tick);
+
+                for (int i = 0; i < AGENTS; i++) {
+                    String context = threads + " threads, tick " + tick + ", agent " + i;
+                    assertEquals(Float.floatToRawIntBits(serial.getX(i)), Float.floatToRawIntBits(parallel.getX(i)), "x, " + context);
+                    assertEquals(Float.floatToRawIntBits(serial.getY(i)), Float.floatToRawIntBits(parallel.getY(i)), "y, " + context);
+                }
+            }
+        } finally {
+            step.shutdown();
+        }
+    }
+}
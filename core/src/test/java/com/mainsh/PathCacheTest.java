@@ -0,0 +1,81 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cached answers must stay as good as a fresh search through any sequence of edits, and the cache must
+ * drop its least recently used entry once full
+ */
+class PathCacheTest {
+    private static final int ROUNDS = 400;
+
+    @Test
+    void cachedAnswersMatchFreshSearches() {
+        Random random = new Random(465L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 30, 24, GridStorage.FLAT, connectivity, 0.25f);
+            PathCache cache = new PathCache(world, 64);
+            GridAStar reference = new GridAStar(world);
+            IntArray expected = new IntArray();
+            IntArray actual = new IntArray();
+            // A small set of queries, so most lookups are hits
+            int[] starts = new int[16];
+            int[] goals = new int[16];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = random.nextInt(world.getNodeCount());
+                goals[i] = random.nextInt(world.getNodeCount());
+            }
+
+            for (int round = 0; round < ROUNDS; round++) {
+                if (round % 4 == 0) {
+                    GridEdits.randomEdit(world, random, round / 4);
+                }
+                if (round % 50 == 0) {
+                    TestGrids.paintRandomCosts(world, random);
+                }
+                int query = random.nextInt(starts.length);
+                int start = starts[query];
+                int goal = goals[query];
+
+                boolean found = world.isWalkable(start) && world.isWalkable(goal) && reference.findPath(start, goal, expected);
+                String description = connectivity + " round " + round + " from " + start + " to " + goal;
+                assertEquals(found, cache.findPath(world.getX(start), world.getY(start), world.getX(goal), world.getY(goal), actual),
+                    "Reachability, " + description);
+                if (found) {
+                    TestGrids.assertValidPath(world, start, goal, actual);
+                    assertEquals(TestGrids.pathCost(world, expected), TestGrids.pathCost(world, actual), 1e-3f,
+                        "Path cost, " + description);
+                }
+            }
+            assertTrue(cache.getHitCount() > 0, "No hits on " + connectivity);
+        }
+    }
+
+    @Test
+    void dropsLeastRecentlyUsedEntry() {
+        GridWorld world = new GridWorld(10, 10, GridStorage.FLAT, Connectivity.FOUR);
+        PathCache cache = new PathCache(world, 3);
+        IntArray path = new IntArray();
+        cache.findPath(0, 0, 9, 0, path);
+        cache.findPath(0, 0, 9, 1, path);
+        cache.findPath(0, 0, 9, 2, path);
+        // Touch the first so the second is now the oldest
+        cache.findPath(0, 0, 9, 0, path);
+        cache.findPath(0, 0, 9, 3, path);
+        assertEquals(3, cache.size());
+
+        cache.resetStatistics();
+        cache.findPath(0, 0, 9, 0, path);
+        cache.findPath(0, 0, 9, 2, path);
+        cache.findPath(0, 0, 9, 3, path);
+        assertEquals(3, cache.getHitCount());
+        cache.findPath(0, 0, 9, 1, path);
+        assertEquals(1, cache.getMissCount());
+    }
+}
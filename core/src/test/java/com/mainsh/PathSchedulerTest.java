@@ -0,0 +1,47 @@
+package com.mainsh;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pooled requests must not carry results over: each delivery reports its own search, in order
+ */
+class PathSchedulerTest {
+    @Test
+    void reusedRequestsReportTheirOwnResult() {
+        GridWorld world = new GridWorld(12, 12, GridStorage.NODES, Connectivity.FOUR);
+        // Wall off the last column, so goals there are unreachable
+        for (int y = 0; y < 12; y++) {
+            world.setWalkable(10, y, false);
+        }
+        PathScheduler scheduler = new PathScheduler(world, 1000);
+        List<Boolean> results = new ArrayList<Boolean>();
+        List<Integer> lengths = new ArrayList<Integer>();
+        PathScheduler.Listener listener = (path, found) -> {
+            results.add(found);
+            lengths.add(path.getCount());
+        };
+
+        int[][] goals = {{9, 9}, {11, 11}, {5, 0}, {11, 0}, {0, 11}};
+        boolean[] expected = {true, false, true, false, true};
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < goals.length; i++) {
+                results.clear();
+                lengths.clear();
+                scheduler.request(0, 0, goals[i][0], goals[i][1], listener);
+                for (int frame = 0; frame < 100 && results.isEmpty(); frame++) {
+                    scheduler.update();
+                }
+                assertEquals(1, results.size(), "Deliveries of request " + i + " in round " + round);
+                assertEquals(expected[i], results.get(0), "Result of request " + i + " in round " + round);
+                assertEquals(expected[i] ? goals[i][0] + goals[i][1] + 1 : 0, (int) lengths.get(0),
+                    "Path length of request " + i + " in round " + round);
+            }
+        }
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+}
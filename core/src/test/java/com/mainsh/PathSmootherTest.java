@@ -0,0 +1,93 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Smoothed paths keep the end points of the path they come from, never gain points, and never cross a
+ * blocked cell. Line of sight only reads walkability and the corner rule, so one storage is enough
+ */
+class PathSmootherTest {
+    private static final int ROUNDS = 300;
+
+    @Test
+    void smoothedPathsStayOnWalkableCells() {
+        Random random = new Random(466L);
+        IntArray path = new IntArray();
+        FloatArray points = new FloatArray();
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 30, 22, GridStorage.FLAT, connectivity, 0.2f);
+            PathSmoother smoother = new PathSmoother(world);
+            for (int round = 0; round < ROUNDS; round++) {
+                GridEdits.randomEdit(world, random, round);
+
+                int start = random.nextInt(world.getNodeCount());
+                int goal = random.nextInt(world.getNodeCount());
+                if (!world.getPathFinder(PathAlgorithm.INDEXED_ASTAR).findPath(start, goal, path)) {
+                    continue;
+                }
+                smoother.smooth(path, 1, points);
+
+                String context = connectivity + " round " + round;
+                assertTrue(points.size <= 2 * path.size, context + ": more points than path cells");
+                assertEquals(world.getX(start) + 0.5f, points.get(0), context + ": wrong start x");
+                assertEquals(world.getY(start) + 0.5f, points.get(1), context + ": wrong start y");
+                assertEquals(world.getX(goal) + 0.5f, points.get(points.size - 2), context + ": wrong goal x");
+                assertEquals(world.getY(goal) + 0.5f, points.get(points.size - 1), context + ": wrong goal y");
+                checkSmoothedPath(world, points, 1, context);
+            }
+        }
+    }
+
+    @Test
+    void scaledPointsAreCellCentres() {
+        GridWorld world = new GridWorld(8, 8, GridStorage.FLAT, Connectivity.FOUR);
+        IntArray path = new IntArray();
+        FloatArray points = new FloatArray();
+        world.findPath(1, 1, 6, 1, path);
+        new PathSmoother(world).smooth(path, 32, points);
+
+        // Open ground: one straight line between the two end cells
+        assertEquals(4, points.size);
+        assertEquals(1.5f * 32, points.get(0));
+        assertEquals(1.5f * 32, points.get(1));
+        assertEquals(6.5f * 32, points.get(2));
+        assertEquals(1.5f * 32, points.get(3));
+    }
+
+    /**
+     * Sample each segment in small steps and fail on the first blocked cell a sample lands in. Samples sit
+     * between step boundaries, so a diagonal step that only touches the corner of a blocked cell, as EIGHT
+     * allows, doesn't count as crossing it
+     */
+    private static void checkSmoothedPath(GridWorld world, FloatArray points, float cellSize, String context) {
+        for (int i = 0; i < points.size; i += 2) {
+            if (!world.isWalkable((int) Math.floor(points.get(i) / cellSize), (int) Math.floor(points.get(i + 1) / cellSize))) {
+                fail(context + ": point " + i / 2 + " is on a blocked cell");
+            }
+        }
+        for (int i = 2; i < points.size; i += 2) {
+            float fromX = points.get(i - 2) / cellSize;
+            float fromY = points.get(i - 1) / cellSize;
+            float toX = points.get(i) / cellSize;
+            float toY = points.get(i + 1) / cellSize;
+            int steps = (int) Math.ceil(Math.max(Math.abs(toX - fromX), Math.abs(toY - fromY)) * 64);
+            for (int step = 0; step < steps; step++) {
+                float t = (step + 0.5f) / steps;
+                int x = (int) Math.floor(fromX + (toX - fromX) * t);
+                int y = (int) Math.floor(fromY + (toY - fromY) * t);
+                if (!world.isWalkable(x, y)) {
+                    fail(context + ": segment " + (i / 2 - 1) + " from (" + fromX + ", " + fromY + ") to ("
+                        + toX + ", " + toY + ") crosses blocked cell (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+}
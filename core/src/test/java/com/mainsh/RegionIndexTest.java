@@ -0,0 +1,111 @@
+package com.mainsh;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Region labels kept up to date through single, batched and rectangle edits must group cells exactly as a
+ * breadth-first labelling of the grid from scratch does
+ */
+class RegionIndexTest {
+    private static final int ROUNDS = 400;
+
+    @Test
+    void matchesFloodFillThroughEdits() {
+        Random random = new Random(465L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 32, 24, GridStorage.FLAT, connectivity, 0.35f);
+            RegionIndex regions = new RegionIndex(world);
+            for (int round = 0; round < ROUNDS; round++) {
+                GridEdits.randomEdit(world, random, round);
+                checkRegions(world, regions, random, connectivity + " round " + round);
+            }
+        }
+    }
+
+    @Test
+    void closingCellsOneByOneSplitsRegions() {
+        Random random = new Random(466L);
+        for (Connectivity connectivity : Connectivity.values()) {
+            GridWorld world = TestGrids.randomGrid(random, 24, 24, GridStorage.FLAT, connectivity, 0.05f);
+            RegionIndex regions = new RegionIndex(world);
+            // Each close can cut a region apart, which is the case the lockstep flood settles without a rebuild
+            for (int round = 0; round < world.getNodeCount() / 2; round++) {
+                world.setWalkable(random.nextInt(world.getWidth()), random.nextInt(world.getHeight()), random.nextInt(8) == 0);
+                checkRegions(world, regions, random, connectivity + " close " + round);
+            }
+        }
+    }
+
+    private static void checkRegions(GridWorld world, RegionIndex regions, Random random, String context) {
+        int[] expected = new int[world.getNodeCount()];
+        int expectedCount = label(world, expected);
+        assertEquals(expectedCount, regions.getRegionCount(), "Region count, " + context);
+
+        // The labels must map one to one onto the flood's components
+        int[] regionOf = new int[expectedCount + 1];
+        for (int cell = 0; cell < expected.length; cell++) {
+            int region = regions.getRegion(cell);
+            if (expected[cell] == 0) {
+                assertEquals(RegionIndex.BLOCKED, region, "Blocked cell " + cell + ", " + context);
+                continue;
+            }
+            if (regionOf[expected[cell]] == 0) {
+                regionOf[expected[cell]] = region;
+            }
+            assertEquals(regionOf[expected[cell]], region, "Region of cell " + cell + ", " + context);
+        }
+        int[] distinct = Arrays.copyOfRange(regionOf, 1, regionOf.length);
+        Arrays.sort(distinct);
+        for (int i = 1; i < distinct.length; i++) {
+            if (distinct[i] == distinct[i - 1]) {
+                throw new AssertionError("Two components share region " + distinct[i] + ", " + context);
+            }
+        }
+
+        for (int query = 0; query < 50; query++) {
+            int from = random.nextInt(world.getNodeCount());
+            int to = random.nextInt(world.getNodeCount());
+            assertEquals(expected[from] != 0 && expected[from] == expected[to], regions.isConnected(from, to),
+                "Connected from " + from + " to " + to + ", " + context);
+        }
+    }
+
+    /**
+     * Label every walkable cell with its component, numbered from 1, by breadth-first search over the
+     * allowed steps; returns the number of components
+     */
+    private static int label(GridWorld world, int[] labels) {
+        int[] queue = new int[labels.length];
+        int count = 0;
+        for (int seed = 0; seed < labels.length; seed++) {
+            if (labels[seed] != 0 || !world.isWalkable(seed)) {
+                continue;
+            }
+            labels[seed] = ++count;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = world.getX(cell);
+                int y = world.getY(cell);
+                for (int direction = 0; direction < 8; direction++) {
+                    if (!world.canStep(cell, direction)) {
+                        continue;
+                    }
+                    int next = world.toIndex(x + Connectivity.STEP_X[direction], y + Connectivity.STEP_Y[direction]);
+                    if (labels[next] == 0) {
+                        labels[next] = count;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
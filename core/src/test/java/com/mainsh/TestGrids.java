@@ -0,0 +1,96 @@
+package com.mainsh;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Seeded random grids and path checks shared by the search tests
+ */
+final class TestGrids {
+    private TestGrids() {
+    }
+
+    /**
+     * A grid with about density of its cells blocked at random
+     */
+    static GridWorld randomGrid(Random random, int width, int height, GridStorage storage, Connectivity connectivity,
+                                float density) {
+        GridWorld world = new GridWorld(width, height, storage, connectivity);
+        world.beginEdit();
+        for (int i = (int) (width * height * density); i > 0; i--) {
+            world.setWalkable(random.nextInt(width), random.nextInt(height), false);
+        }
+        world.endEdit();
+        return world;
+    }
+
+    /**
+     * Paint a few rectangles of costlier terrain, costs 2 to 9
+     */
+    static void paintRandomCosts(GridWorld world, Random random) {
+        for (int i = 0; i < 6; i++) {
+            int x = random.nextInt(world.getWidth());
+            int y = random.nextInt(world.getHeight());
+            world.paintCost(x, y, x + random.nextInt(8), y + random.nextInt(8), 2 + random.nextInt(8));
+        }
+    }
+
+    /**
+     * A random walkable cell, or -1 when there is none
+     */
+    static int randomWalkableCell(GridWorld world, Random random) {
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            int index = random.nextInt(world.getNodeCount());
+            if (world.isWalkable(index)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fail unless path runs from start to goal through steps the grid allows
+     */
+    static void assertValidPath(GridWorld world, int start, int goal, IntArray path) {
+        assertTrue(path.size > 0, "Empty path");
+        assertEquals(start, path.first(), "Path doesn't begin at the start");
+        assertEquals(goal, path.peek(), "Path doesn't end at the goal");
+        for (int i = 1; i < path.size; i++) {
+            if (!world.canStep(path.get(i - 1), direction(world, path.get(i - 1), path.get(i)))) {
+                fail("Step " + i + " of the path isn't allowed");
+            }
+        }
+    }
+
+    /**
+     * Sum of the step costs along a path: the cost of each cell entered, times the diagonal factor
+     */
+    static float pathCost(GridWorld world, IntArray path) {
+        float cost = 0;
+        for (int i = 1; i < path.size; i++) {
+            int direction = direction(world, path.get(i - 1), path.get(i));
+            cost += world.getCost(path.get(i)) * Connectivity.stepCost(direction);
+        }
+        return cost;
+    }
+
+    /**
+     * Direction of the step between two neighbouring cells
+     */
+    private static int direction(GridWorld world, int from, int to) {
+        int dx = world.getX(to) - world.getX(from);
+        int dy = world.getY(to) - world.getY(from);
+        for (int direction = 0; direction < 8; direction++) {
+            if (Connectivity.STEP_X[direction] == dx && Connectivity.STEP_Y[direction] == dy) {
+                return direction;
+            }
+        }
+        fail("Cells " + from + " and " + to + " aren't neighbours");
+        return -1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mainsh.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/** Launches the enemy-follow simulation without a window and reports how fast it ticks. */
+public class HeadlessLauncher {
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int enemies = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int gridSize = args.length > 2 ? Integer.parseInt(args[2]) : 128;
+        int ticksPerSecond = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 465L;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        // 0 runs render() back to back, without sleeping between updates
+        configuration.updatesPerSecond = 0;
+        new HeadlessApplication(new HeadlessSimulation(ticks, enemies, gridSize, ticksPerSecond, seed, threads), configuration);
+    }
+}
@@ -0,0 +1,179 @@
+package com.mainsh.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.mainsh.AgentSystem;
+import com.mainsh.Connectivity;
+import com.mainsh.EnemyFollowSimulation;
+import com.mainsh.GridStorage;
+import com.mainsh.GridWorld;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Runs EnemyFollowSimulation at a fixed timestep, one tick per render() and as fast as the backend calls
+ * it, with a scripted cursor and obstacle edits in place of input. The first tenth of the ticks warm the
+ * JIT up; the rest are timed one by one. When done it logs ticks per second, path queries per second and
+ * tick latency percentiles, then exits. With more than one thread the agent step runs on a fork-join pool;
+ * the checksum of the final positions it logs is the same for every thread count.
+ */
+public class HeadlessSimulation extends ApplicationAdapter {
+    private static final int CELL_SIZE = 32;
+    private static final float ENEMY_RADIUS = 10f;
+    private static final float ENEMY_SPEED = 120f;
+
+    // Enemies start somewhere in this corner of the grid, which is kept clear
+    private static final int SPAWN_AREA = 8;
+    // Ticks between cursor steps and between obstacle edits
+    private static final int CURSOR_INTERVAL = 5;
+    private static final int EDIT_INTERVAL = 25;
+    // Share of cells blocked at the start
+    private static final float OBSTACLE_DENSITY = 0.15f;
+
+    private final int measuredTicks;
+    private final int warmupTicks;
+    private final int enemies;
+    private final int gridSize;
+    private final float step;
+    private final int threads;
+    private final Random random;
+
+    private EnemyFollowSimulation simulation;
+    private int tick;
+    private long[] tickNanos;
+    private long measureStartNanos;
+    private long measureStartQueries;
+
+    public HeadlessSimulation(int ticks, int enemies, int gridSize, int ticksPerSecond, long seed, int threads) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Need at least one timed tick: " + ticks);
+        }
+        if (ticksPerSecond < 1) {
+            throw new IllegalArgumentException("Need at least one tick per second: " + ticksPerSecond);
+        }
+        if (gridSize <= SPAWN_AREA) {
+            throw new IllegalArgumentException("Grid size must be more than " + SPAWN_AREA + ": " + gridSize);
+        }
+        this.measuredTicks = ticks;
+        this.warmupTicks = ticks / 10;
+        this.enemies = enemies;
+        this.gridSize = gridSize;
+        this.step = 1f / ticksPerSecond;
+        this.threads = threads;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void create() {
+        GridWorld world = new GridWorld(gridSize, gridSize, GridStorage.FLAT, Connectivity.FOUR);
+        world.beginEdit();
+        for (int i = (int) (gridSize * gridSize * OBSTACLE_DENSITY); i > 0; i--) {
+            int x = random.nextInt(gridSize);
+            int y = random.nextInt(gridSize);
+            if (!isInSpawnArea(x, y)) {
+                world.setWalkable(x, y, false);
+            }
+        }
+        world.endEdit();
+
+        simulation = new EnemyFollowSimulation(world, CELL_SIZE, ENEMY_RADIUS, ENEMY_SPEED);
+        simulation.setThreads(threads);
+        simulation.setCursor(gridSize / 2, gridSize / 2);
+        for (int i = 0; i < enemies; i++) {
+            simulation.spawnEnemy(random.nextInt(SPAWN_AREA), random.nextInt(SPAWN_AREA), ENEMY_SPEED);
+        }
+        tickNanos = new long[measuredTicks];
+
+        Gdx.app.log("HeadlessSimulation", enemies + " enemies on a " + gridSize + "x" + gridSize + " grid, "
+            + warmupTicks + " warm-up and " + measuredTicks + " timed ticks of " + step + " s on "
+            + simulation.getThreads() + " thread(s)");
+    }
+
+    @Override
+    public void render() {
+        if (tick == warmupTicks + measuredTicks) {
+            return; // Exit is pending
+        }
+        if (tick == warmupTicks) {
+            measureStartNanos = System.nanoTime();
+            measureStartQueries = simulation.getPathQueries();
+        }
+
+        long start = System.nanoTime();
+        script();
+        simulation.tick(step);
+        long end = System.nanoTime();
+        if (tick >= warmupTicks) {
+            tickNanos[tick - warmupTicks] = end - start;
+        }
+
+        tick++;
+        if (tick == warmupTicks + measuredTicks) {
+            report(end);
+            Gdx.app.exit();
+        }
+    }
+
+    /**
+     * Stand-in for the player: the cursor wanders a cell at a time and obstacles come and go
+     */
+    private void script() {
+        if (tick % CURSOR_INTERVAL == 0) {
+            simulation.setCursor(simulation.getCursorX() + random.nextInt(3) - 1,
+                simulation.getCursorY() + random.nextInt(3) - 1);
+        }
+        if (tick % EDIT_INTERVAL == 0) {
+            int x = random.nextInt(gridSize);
+            int y = random.nextInt(gridSize);
+            if (!isInSpawnArea(x, y) && (x != simulation.getCursorX() || y != simulation.getCursorY())) {
+                simulation.setWalkable(x, y, !simulation.getWorld().isWalkable(x, y));
+            }
+        }
+    }
+
+    private boolean isInSpawnArea(int x, int y) {
+        return x < SPAWN_AREA && y < SPAWN_AREA;
+    }
+
+    private void report(long endNanos) {
+        double seconds = (endNanos - measureStartNanos) / 1e9;
+        long queries = simulation.getPathQueries() - measureStartQueries;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+
+        Gdx.app.log("HeadlessSimulation", String.format("%.0f ticks/s, %.0f path queries/s (%d queries in %.2f s)",
+            measuredTicks / seconds, queries / seconds, queries, seconds));
+        Gdx.app.log("HeadlessSimulation", String.format("Tick latency p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+            percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6));
+        Gdx.app.log("HeadlessSimulation", "Position checksum " + Integer.toHexString(positionChecksum()));
+    }
+
+    /**
+     * Hash of the exact bits of every enemy position, to compare runs on different thread counts
+     */
+    private int positionChecksum() {
+        AgentSystem agents = simulation.getAgents();
+        int checksum = 1;
+        for (int agent = 0; agent < agents.getCount(); agent++) {
+            checksum = 31 * checksum + Float.floatToRawIntBits(agents.getX(agent));
+            checksum = 31 * checksum + Float.floatToRawIntBits(agents.getY(agent));
+        }
+        return checksum;
+    }
+
+    @Override
+    public void dispose() {
+        if (simulation != null) {
+            simulation.dispose();
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}